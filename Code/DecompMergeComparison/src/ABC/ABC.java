@@ -10,13 +10,14 @@
 
 package ABC;
 
-import java.util.Random;
-
-import Main.Coordinate;
+import Main.CachedPartials;
+import Main.ContextVector;
 import Main.MiscUtil;
+import Main.Population;
 import Main.Position;
+import Main.RunContext;
+import Main.SplitRandom;
 import func.Function;
-import static Main.Main.totalDimensions;
 
 /**
  * This class implements the vanilla ABC algorithm.
@@ -24,13 +25,14 @@ import static Main.Main.totalDimensions;
 public class ABC extends Main.Algorithm
 {
     // General
-    public static double maxPos;
-    public static double minPos;
+    public final double maxPos;
+    public final double minPos;
     private final int maxEval;
     private int countEval;
     private final int limit;
     private final Function evalFunc;
-    private final Random numGen;
+    private final SplitRandom numGen;
+    private final ContextVector groups; // Only evaluates moves, every food source covers all of its coordinates
 
     // Swarm
     public Swarm theSwarm;
@@ -40,8 +42,10 @@ public class ABC extends Main.Algorithm
     Main.MiscUtil miscUtil;
 
 
-    public ABC(Function f)
+    public ABC(RunContext context)
     {
+        super(context);
+        Function f = context.getFunction();
         assert f.getDimension() == totalDimensions: "Number of ABC dimensions does not match evaluation function dimensions";
 
         evalFunc = f;
@@ -51,7 +55,8 @@ public class ABC extends Main.Algorithm
         overallBestFitness = Double.MAX_VALUE;
         maxEval = totalDimensions * 3000;
         limit = totalDimensions * Swarm.NUM_FOOD_SOURCE; // Taken from [2]
-        numGen = new Random();
+        numGen = context.createRandom();
+        groups = new ContextVector(f, totalDimensions);
         miscUtil = new MiscUtil();
 
         int[] possibleDecisionVarIndices = miscUtil.getRandomDecisionVarsArray(totalDimensions, numGen);
@@ -74,11 +79,11 @@ public class ABC extends Main.Algorithm
     {
         double[] vector = new double[totalDimensions];
 
-        for(int i = 0; i < posToEval.getCoordinates().length; i++)
+        for(int i = 0; i < posToEval.getNumDimensions(); i++)
         {
-            Coordinate coord = posToEval.getCoordinate(i);
-            assert vector[coord.getDimIndex()] == 0: "ERROR: Overwriting same dimension in evaluation vector (1)";
-            vector[coord.getDimIndex()] = coord.getValue();
+            int dimIndex = posToEval.getDimIndex(i);
+            assert vector[dimIndex] == 0: "ERROR: Overwriting same dimension in evaluation vector (1)";
+            vector[dimIndex] = posToEval.getValue(i);
         }
         countEval++;
 
@@ -88,6 +93,31 @@ public class ABC extends Main.Algorithm
         return eval;
     }
 
+    public double calculateFitness(int swarmIndex, Position base, CachedPartials cache, int dimension, double value)
+    {
+        countEval++;
+
+        double eval = groups.evaluate(base, cache, dimension, value);
+        if(eval < overallBestFitness)
+            overallBestFitness = eval;
+        return eval;
+    }
+
+    public void calculateFitness(int swarmIndex, Population candidates, double[] fitnesses)
+    {
+        int numRows = candidates.getNumRows();
+        double[] vectors = new double[numRows * totalDimensions];
+        candidates.scatter(vectors, totalDimensions);
+        countEval += numRows;
+
+        evalFunc.compute(vectors, numRows, fitnesses);
+        for(int r = 0; r < numRows; r++)
+        {
+            if(fitnesses[r] < overallBestFitness)
+                overallBestFitness = fitnesses[r];
+        }
+    }
+
     public int getLimit() { return limit; }
     public double getOverallBestFitness() { return overallBestFitness;}
     public void setOverallBestFitness(double fitness)
@@ -1,12 +1,14 @@
 package ABC;
 
-import java.util.Random;
-
 import Main.MiscUtil;
+import Main.Population;
 import Main.Position;
-import Main.Coordinate;
+import Main.CachedPartials;
+import Main.ContextVector;
+import Main.RunContext;
+import Main.ParallelSubpopulations;
+import Main.SplitRandom;
 import func.Function;
-import static Main.Main.totalDimensions;
 
 /**
  * This class implements the Cooperative ABC (CABC) algorithm.
@@ -14,13 +16,13 @@ import static Main.Main.totalDimensions;
 public class CABC extends Main.Algorithm
 {
     // General
-    public static double maxPos;
-    public static double minPos;
+    public final double maxPos;
+    public final double minPos;
     private final int maxEval;
     private int countEval;
     private final int limit;
-    private final Function evalFunc;
-    private final Random numGen;
+    private final SplitRandom numGen;
+    private final ContextVector contextVector;
 
     // Swarms
     public int totalSubswarms;
@@ -32,16 +34,19 @@ public class CABC extends Main.Algorithm
     private final MiscUtil miscUtil;
 
 
-    public CABC(Function f)
+    public CABC(RunContext context)
     {
-        evalFunc = f;
+        super(context);
+        Function f = context.getFunction();
         maxPos = f.getMax();
         minPos = f.getMin();
         countEval = 0;
         overallBestFitness = Double.MAX_VALUE;
         maxEval = totalDimensions * 3000;
         limit = totalDimensions * Swarm.NUM_FOOD_SOURCE;
-        numGen = new Random();
+        numGen = context.createRandom();
+        contextVector = new ContextVector(f, totalDimensions);
+        parallel = ParallelSubpopulations.create(context, contextVector);
         miscUtil = new MiscUtil();
 
         totalSubswarms = 4;
@@ -57,7 +62,7 @@ public class CABC extends Main.Algorithm
             System.arraycopy(possibleDecisionVarIndices, totalDimensionsPerSwarm * i,
                     decVars, 0, totalDimensionsPerSwarm);
 
-            Swarms[i] = new Swarm(this, decVars, totalDimensionsPerSwarm, i, numGen);
+            Swarms[i] = new Swarm(this, decVars, totalDimensionsPerSwarm, i, numGen.split());
         }
 
         assert f.getDimension() == totalDimensions: "Number of ABC dimensions does not match evaluation function dimensions";
@@ -72,55 +77,112 @@ public class CABC extends Main.Algorithm
     {
         while(countEval < maxEval)
         {
-            for(Swarm s : Swarms)
-                s.update();
+            if(parallel != null)
+                updateSwarmsInParallel();
+            else
+            {
+                for(Swarm s : Swarms)
+                    s.update();
+            }
         }
         return overallBestFitness;
     }
 
-    public double calculateFitness(int swarmIndex, Position posToEval)
+    // Updates the sub-swarms in parallel, for one generation or asynchronously until the budget is used up
+    private void updateSwarmsInParallel()
     {
-        double[] vector = new double[totalDimensions];
+        int budget = maxEval - countEval;
+        int evals = parallel.run(Swarms.length, overallBestFitness, budget,
+                new ParallelSubpopulations.Step()
+                {
+                    public void update(int subpopulation)
+                    {
+                        Swarms[subpopulation].update();
+                    }
+                });
+        countEval += evals;
+        overallBestFitness = parallel.getBestFitness();
+    }
 
-        for(int s = 0; s < totalSubswarms; s++)
+    public double calculateFitness(int swarmIndex, Position posToEval)
+    {
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
         {
-            if(s == swarmIndex) // The swarm we're evaluating
-            {
-                for(int i = 0; i < posToEval.getCoordinates().length; i++)
-                {
-                    Coordinate coord = posToEval.getCoordinate(i);
-                    assert vector[coord.getDimIndex()] == 0: "ERROR: Overwriting same dimension in context vector (2)";
-                    vector[coord.getDimIndex()] = coord.getValue();
-                }
-            }
-            else // Not the swarm we're evaluating, use global best position
-            {
-                for(int i = 0; i < Swarms[s].getNumDimensions(); i++)
-                {
-                    Coordinate coord = Swarms[s].getBestFoundFoodSource().getPosition().getCoordinate(i);
-                    assert vector[coord.getDimIndex()] == 0: "ERROR: Overwriting same dimension in context vector (3)";
-                    vector[coord.getDimIndex()] = coord.getValue();
-                }
-            }
+            double eval = slot.evaluate(posToEval);
+            if(eval < slot.getBestFitness())
+                slot.setBestFitness(eval);
+            return eval;
         }
-        return evaluateVectorFitness(vector);
+
+        countEval++;
+        double eval = contextVector.evaluate(posToEval);
+
+        if(eval < overallBestFitness)
+            overallBestFitness = eval;
+        return eval;
     }
 
-    private double evaluateVectorFitness(double[] vector)
+    public double calculateFitness(int swarmIndex, Position base, CachedPartials cache, int dimension, double value)
     {
+        if(currentSlot() != null)
+            return super.calculateFitness(swarmIndex, base, cache, dimension, value);
+
         countEval++;
-        double eval = evalFunc.compute(vector);
+        double eval = contextVector.evaluate(base, cache, dimension, value);
 
         if(eval < overallBestFitness)
             overallBestFitness = eval;
         return eval;
     }
 
+    public void calculateFitness(int swarmIndex, Population candidates, double[] fitnesses)
+    {
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+        {
+            slot.evaluate(candidates, fitnesses);
+            for(int r = 0; r < candidates.getNumRows(); r++)
+            {
+                if(fitnesses[r] < slot.getBestFitness())
+                    slot.setBestFitness(fitnesses[r]);
+            }
+            return;
+        }
+
+        int numRows = candidates.getNumRows();
+        countEval += numRows;
+        contextVector.evaluate(candidates, fitnesses);
+
+        for(int r = 0; r < numRows; r++)
+        {
+            if(fitnesses[r] < overallBestFitness)
+                overallBestFitness = fitnesses[r];
+        }
+    }
+
+    public void updateContextVector(Position best)
+    {
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+            slot.updateContextVector(best);
+        else
+            contextVector.update(best);
+    }
+
     public int getLimit() { return limit; }
-    public double getOverallBestFitness() { return overallBestFitness;}
+    public double getOverallBestFitness()
+    {
+        ParallelSubpopulations.Slot slot = currentSlot();
+        return (slot != null) ? slot.getBestFitness() : overallBestFitness;
+    }
     public void setOverallBestFitness(double fitness)
     {
-        overallBestFitness = fitness;
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+            slot.setBestFitness(fitness);
+        else
+            overallBestFitness = fitness;
     }
     public int getEvalBetweenDecomp() { return -1; }
     public int getCountEvalForDecomp() { return -1; }
@@ -2,20 +2,22 @@ package ABC;
 
 import java.util.Random;
 
+import Main.CachedPartials;
 import Main.Position;
 
 public class FoodSource
 {
-    private Position position;
+    private final Position position;
     private double fitness;
     private final Swarm parentSwarm;
     private int trialCount;
+    private final CachedPartials partials = new CachedPartials(); // Lets a move only evaluate the changed coordinate
 
-    public FoodSource(Swarm parent, int numDim, int[] decisionVars, Random numGen)
+    public FoodSource(Swarm parent, Position pos, Random numGen)
     {
         this.fitness = Double.MAX_VALUE;
         this.parentSwarm = parent;
-        this.position = new Position(decisionVars, numDim);
+        this.position = pos;
         this.trialCount = 0;
         randomizePosition(numGen);
     }
@@ -23,23 +25,57 @@ public class FoodSource
     public FoodSource(Swarm parent, Position pos)
     {
         this.parentSwarm = parent;
-        this.position = pos.clone();
+        this.position = pos;
         this.trialCount = 0;
     }
 
     public FoodSource(Swarm parent, Position pos, double fitness)
     {
         this.parentSwarm = parent;
-        this.position = pos.clone();
+        this.position = pos;
         this.fitness = fitness;
         this.trialCount = 0;
     }
 
-    public FoodSource clone() { return new FoodSource(this.parentSwarm, this.position, this.fitness); }
+    public FoodSource clone() { return new FoodSource(this.parentSwarm, this.position.clone(), this.fitness); }
+
+    // Takes over the position and fitness of a better candidate, the trial count restarts as for a new food source
+    public void replaceWith(Position candidate, double candidateFitness)
+    {
+        position.copyFrom(candidate);
+        partials.invalidate();
+        fitness = candidateFitness;
+        trialCount = 0;
+    }
+
+    // Takes over the position and fitness of another food source, ex. a new best, without allocating a new one
+    public void copyFrom(FoodSource other)
+    {
+        position.copyFrom(other.position);
+        partials.invalidate();
+        fitness = other.fitness;
+        trialCount = 0;
+    }
+
+    // Evaluates this food source with its coordinate at index dimension set to value, without changing it
+    public double evaluateMove(int dimension, double value)
+    {
+        return parentSwarm.getParent().calculateFitness(parentSwarm.getIndex(), position, partials, dimension, value);
+    }
+
+    // Applies the move last passed to evaluateMove in place, once it turned out better
+    public void acceptMove(int dimension, double value, double moveFitness)
+    {
+        position.setValue(dimension, value);
+        partials.accept();
+        fitness = moveFitness;
+        trialCount = 0;
+    }
 
     public void randomizePosition(Random numGen)
     {
-        position.randomize(numGen);
+        position.randomize(parentSwarm.getParent().getContext(), numGen);
+        partials.invalidate();
         // Do not evaluate the fitness of the position yet, we wait until all Swarms are initialized in ABC class,
         // then call each Swarm to evaluate their food sources
     }
@@ -51,7 +87,6 @@ public class FoodSource
 
 
     public Position getPosition() { return position; }
-    public void setPosition(Position pos) { this.position = pos; }
     public double getFitness() { return fitness; }
     public int getTrialCount() { return trialCount; }
     public void incrementTrialCount() { trialCount++; }
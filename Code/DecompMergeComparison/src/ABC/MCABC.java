@@ -1,25 +1,26 @@
 package ABC;
 
-import java.util.Random;
-
 import Main.MiscUtil;
 import func.Function;
 
-import static Main.Main.totalDimensions;
-
 import Main.Position;
-import Main.Coordinate;
+import Main.CachedPartials;
+import Main.ContextVector;
+import Main.Population;
+import Main.RunContext;
+import Main.ParallelSubpopulations;
+import Main.SplitRandom;
 
 public class MCABC extends Main.Algorithm
 {
     // General
-    public static double maxPos;
-    public static double minPos;
+    public final double maxPos;
+    public final double minPos;
     private final int maxEval;
     private int countEval;
     private final int limit;
-    private final Function evalFunc;
-    private final Random numGen;
+    private final SplitRandom numGen;
+    private final ContextVector contextVector;
 
     // Swarms
     public int totalSubswarms;
@@ -33,11 +34,13 @@ public class MCABC extends Main.Algorithm
 
     // Util
     private final MiscUtil miscUtil;
+    private final Population foodSourceStore; // Complete vectors of the food sources, sub-swarms are views of it
 
 
-    public MCABC(Function f)
+    public MCABC(RunContext context)
     {
-        evalFunc = f;
+        super(context);
+        Function f = context.getFunction();
         maxPos = f.getMax();
         minPos = f.getMin();
         countEval = 0;
@@ -45,8 +48,11 @@ public class MCABC extends Main.Algorithm
         maxEval = totalDimensions * 3000;
         limit = totalDimensions * Swarm.NUM_FOOD_SOURCE;
         evalBetweenDecomp = (int) (maxEval / (1 + (Math.log(totalDimensions) / Math.log(2))));
-        numGen = new Random();
+        numGen = context.createRandom();
+        contextVector = new ContextVector(f, totalDimensions);
+        parallel = ParallelSubpopulations.create(context, contextVector);
         miscUtil = new MiscUtil();
+        foodSourceStore = Population.createStore(Swarm.NUM_FOOD_SOURCE, totalDimensions);
 
         totalSubswarms = totalDimensions;
         totalDimensionsPerSwarm = 1;
@@ -61,7 +67,7 @@ public class MCABC extends Main.Algorithm
             System.arraycopy(possibleDecisionVarIndices, totalDimensionsPerSwarm * i,
                     decVars, 0, totalDimensionsPerSwarm);
 
-            Swarms[i] = new Swarm(this, decVars, totalDimensionsPerSwarm, i, numGen);
+            Swarms[i] = new Swarm(this, new Population(foodSourceStore, decVars), i, numGen.split());
         }
 
         assert f.getDimension() == totalDimensions: "Number of ABC dimensions does not match evaluation function dimensions";
@@ -78,8 +84,13 @@ public class MCABC extends Main.Algorithm
 
         while(countEval < maxEval)
         {
-            for(Swarm s : Swarms)
-                s.update();
+            if(parallel != null)
+                updateSwarmsInParallel();
+            else
+            {
+                for(Swarm s : Swarms)
+                    s.update();
+            }
 
             // Perform decomposition
             if(countEvalForDecomp >= evalBetweenDecomp)
@@ -101,49 +112,17 @@ public class MCABC extends Main.Algorithm
         int[] randomDimensions = miscUtil.getRandomDecisionVarsArray(totalDimensions, numGen);
         Swarm[] newSwarms = new Swarm[newTotalSubswarm];
 
-        // Let's initialize the new sub-swarms first, then copy over all the info
+        // The sub-swarms are views of the store, so only their decision variables change
         for(int i = 0; i < minNewTotalSubswarm; i++)
         {
-            Coordinate[][] foodSourceCoords = new Coordinate[Swarm.NUM_FOOD_SOURCE][newDimPerSubswarm];
-            Coordinate[] swarmBestFoodCoords = new Coordinate[newDimPerSubswarm];
-
-            for(int d = 0; d < newDimPerSubswarm; d++)
-            {
-                int stealFromIndex = randomDimensions[(i * newDimPerSubswarm)+d];
-                int swarmIndex = stealFromIndex / totalDimensionsPerSwarm; // This makes sense surely
-                int swarmDimIndex = stealFromIndex % totalDimensionsPerSwarm;
-                Swarm targetSwarm = Swarms[swarmIndex];
-
-                for(int p = 0; p < Swarm.NUM_FOOD_SOURCE; p++)
-                {
-                    foodSourceCoords[p][d] = targetSwarm.getFoodSource(p).getPosition().getCoordinate(swarmDimIndex);
-                }
-                swarmBestFoodCoords[d] = targetSwarm.getBestFoundFoodSource().getPosition().getCoordinate(swarmDimIndex);
-            }
-            newSwarms[i] = new Swarm(this, foodSourceCoords, swarmBestFoodCoords, newDimPerSubswarm, i, numGen);
+            newSwarms[i] = createSubswarm(randomDimensions, i * newDimPerSubswarm, newDimPerSubswarm, i);
         }
+
         // If not uniform, we have extra dimensions, put these in a new extra swarm
         if(!isUniformDecomp)
         {
-            int extraDim = totalDimensions % newDimPerSubswarm;
-            Coordinate[][] foodSourceCoords = new Coordinate[Swarm.NUM_FOOD_SOURCE][extraDim];
-            Coordinate[] swarmBestFoodCoords = new Coordinate[extraDim];
-
-            for(int d = 0; d < extraDim; d++)
-            {
-                int stealFromIndex = randomDimensions[(minNewTotalSubswarm * newDimPerSubswarm)+d];
-                int swarmIndex = stealFromIndex / totalDimensionsPerSwarm; // This makes sense surely
-                int swarmDimIndex = stealFromIndex % totalDimensionsPerSwarm;
-                Swarm targetSwarm = Swarms[swarmIndex];
-
-                for(int p = 0; p < Swarm.NUM_FOOD_SOURCE; p++)
-                {
-                    foodSourceCoords[p][d] = targetSwarm.getFoodSource(p).getPosition().getCoordinate(swarmDimIndex);
-                }
-                swarmBestFoodCoords[d] = targetSwarm.getBestFoundFoodSource().getPosition().getCoordinate(swarmDimIndex);
-            }
-            newSwarms[newTotalSubswarm-1] = new Swarm(this, foodSourceCoords, swarmBestFoodCoords, extraDim,
-                    newTotalSubswarm-1, numGen);
+            newSwarms[newTotalSubswarm-1] = createSubswarm(randomDimensions, minNewTotalSubswarm * newDimPerSubswarm,
+                    totalDimensions % newDimPerSubswarm, newTotalSubswarm-1);
         }
         Swarms = newSwarms;
         totalSubswarms = newTotalSubswarm;
@@ -154,50 +133,124 @@ public class MCABC extends Main.Algorithm
             s.calculateFoodSourceFitnesses();
     }
 
-    public double calculateFitness(int swarmIndex, Position posToEval)
+    // Updates the sub-swarms in parallel, for one generation or asynchronously until the budget is used up
+    private void updateSwarmsInParallel()
     {
-        double[] vector = new double[totalDimensions];
+        int budget = Math.min(maxEval - countEval, evalBetweenDecomp - countEvalForDecomp);
+        int evals = parallel.run(Swarms.length, overallBestFitness, budget,
+                new ParallelSubpopulations.Step()
+                {
+                    public void update(int subpopulation)
+                    {
+                        Swarms[subpopulation].update();
+                    }
+                });
+        countEval += evals;
+        countEvalForDecomp += evals;
+        overallBestFitness = parallel.getBestFitness();
+    }
 
-        for(int s = 0; s < totalSubswarms; s++)
+    public double calculateFitness(int swarmIndex, Position posToEval)
+    {
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
         {
-            if(s == swarmIndex) // The swarm we're evaluating
-            {
-                for(int i = 0; i < posToEval.getCoordinates().length; i++)
-                {
-                    Coordinate coord = posToEval.getCoordinate(i);
-                    assert vector[coord.getDimIndex()] == 0: "ERROR: Overwriting same dimension in context vector (2)";
-                    vector[coord.getDimIndex()] = coord.getValue();
-                }
-            }
-            else // Not the swarm we're evaluating, use global best position
-            {
-                for(int i = 0; i < Swarms[s].getNumDimensions(); i++)
-                {
-                    Coordinate coord = Swarms[s].getBestFoundFoodSource().getPosition().getCoordinate(i);
-                    assert vector[coord.getDimIndex()] == 0: "ERROR: Overwriting same dimension in context vector (3)";
-                    vector[coord.getDimIndex()] = coord.getValue();
-                }
-            }
+            double eval = slot.evaluate(posToEval);
+            if(eval < slot.getBestFitness())
+                slot.setBestFitness(eval);
+            return eval;
         }
-        return evaluateVectorFitness(vector);
+
+        countEval++;
+        countEvalForDecomp++;
+        double eval = contextVector.evaluate(posToEval);
+
+        if(eval < overallBestFitness)
+            overallBestFitness = eval;
+        return eval;
     }
 
-    private double evaluateVectorFitness(double[] vector)
+    public double calculateFitness(int swarmIndex, Position base, CachedPartials cache, int dimension, double value)
     {
+        if(currentSlot() != null)
+            return super.calculateFitness(swarmIndex, base, cache, dimension, value);
+
         countEval++;
         countEvalForDecomp++;
-        double eval = evalFunc.compute(vector);
+        double eval = contextVector.evaluate(base, cache, dimension, value);
 
         if(eval < overallBestFitness)
             overallBestFitness = eval;
         return eval;
     }
 
+    public void calculateFitness(int swarmIndex, Population candidates, double[] fitnesses)
+    {
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+        {
+            slot.evaluate(candidates, fitnesses);
+            for(int r = 0; r < candidates.getNumRows(); r++)
+            {
+                if(fitnesses[r] < slot.getBestFitness())
+                    slot.setBestFitness(fitnesses[r]);
+            }
+            return;
+        }
+
+        int numRows = candidates.getNumRows();
+        countEval += numRows;
+        countEvalForDecomp += numRows;
+        contextVector.evaluate(candidates, fitnesses);
+
+        for(int r = 0; r < numRows; r++)
+        {
+            if(fitnesses[r] < overallBestFitness)
+                overallBestFitness = fitnesses[r];
+        }
+    }
+
+    public void updateContextVector(Position best)
+    {
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+            slot.updateContextVector(best);
+        else
+            contextVector.update(best);
+    }
+
+    // Creates a sub-swarm of the numDims decision variables picked by randomDimensions from index start on, its best
+    // is made of the bests of the sub-swarms those decision variables come from
+    private Swarm createSubswarm(int[] randomDimensions, int start, int numDims, int index)
+    {
+        int[] decVars = new int[numDims];
+        Position swarmBestFood = new Position(decVars, numDims);
+        for(int d = 0; d < numDims; d++)
+        {
+            int stealFromIndex = randomDimensions[start + d];
+            int swarmIndex = stealFromIndex / totalDimensionsPerSwarm; // This makes sense surely
+            int swarmDimIndex = stealFromIndex % totalDimensionsPerSwarm;
+            Position targetBest = Swarms[swarmIndex].getBestFoundFoodSource().getPosition();
+            decVars[d] = targetBest.getDimIndex(swarmDimIndex);
+            swarmBestFood.setValue(d, targetBest.getValue(swarmDimIndex));
+        }
+
+        return new Swarm(this, new Population(foodSourceStore, decVars), swarmBestFood, index, numGen.split());
+    }
+
     public int getLimit() { return limit; }
-    public double getOverallBestFitness() { return overallBestFitness;}
+    public double getOverallBestFitness()
+    {
+        ParallelSubpopulations.Slot slot = currentSlot();
+        return (slot != null) ? slot.getBestFitness() : overallBestFitness;
+    }
     public void setOverallBestFitness(double fitness)
     {
-        overallBestFitness = fitness;
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+            slot.setBestFitness(fitness);
+        else
+            overallBestFitness = fitness;
     }
     public int getEvalBetweenDecomp() { return -1; }
     public int getCountEvalForDecomp() { return -1; }
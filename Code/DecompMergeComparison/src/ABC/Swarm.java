@@ -1,17 +1,20 @@
 package ABC;
 
-import java.util.Random;
-
 import Main.Position;
+import Main.Population;
 import Main.Algorithm;
-import Main.Coordinate;
-import static Main.Main.getMaxPos;
-import static Main.Main.getMinPos;
+import Main.SplitRandom;
 
 public class Swarm
 {
     // Food Sources
     private final FoodSource[] foodSources; // Food source objects never change, though their positions may be reset
+    private final Population foodSourcePositions; // Backing storage for the positions of the food sources
+    private final Population candidatePositions; // Candidates of one bee phase when evaluating in batches
+    private final double[] candidateFitnesses;
+    private final int[] candidateSources; // Food source each batch candidate was produced from
+    private int moveDimension; // Coordinate changed by the last move drawn by drawMove
+    private double moveValue; // New value of that coordinate
     private FoodSource bestFoundFoodSource;
     public final static int NUM_FOOD_SOURCE = 10;
 
@@ -19,7 +22,7 @@ public class Swarm
     private final Algorithm parent;
     private final int numDimensions;
     private final int index;
-    private final Random numGen;
+    private final SplitRandom numGen;
 
     // Number of Bees
     private final int NUM_EMPLOYED_BEE = 10; // == num food source
@@ -27,69 +30,60 @@ public class Swarm
     private final int NUM_SCOUT_BEE = 1; // ~5-10% of num food source
 
 
-    public Swarm(Algorithm parent, int[] decisionVars, int numDimensions, int index, Random numGen)
+    public Swarm(Algorithm parent, int[] decisionVars, int numDimensions, int index, SplitRandom numGen)
     {
+        this(parent, new Population(NUM_FOOD_SOURCE, decisionVars), index, numGen);
         assert numDimensions == decisionVars.length: "Number of dimensions != number of decision variable indices";
+    }
+
+    // Creates random food sources in the given population, ex. a view of a store shared by all sub-swarms
+    public Swarm(Algorithm parent, Population foodSourcePositions, int index, SplitRandom numGen)
+    {
+        assert foodSourcePositions.getNumRows() == NUM_FOOD_SOURCE: "Number of food sources != NUM_FOOD_SOURCE";
         assert NUM_FOOD_SOURCE == NUM_EMPLOYED_BEE: "Number of food sources must = number of employed bees";
         assert NUM_FOOD_SOURCE == NUM_ONLOOKER_BEE: "Number of food sources must = number of onlooker bees";
 
         this.parent = parent;
-        this.numDimensions = numDimensions;
+        this.numDimensions = foodSourcePositions.getNumDimensions();
         this.index = index;
         this.numGen = numGen;
         foodSources = new FoodSource[NUM_FOOD_SOURCE];
+        this.foodSourcePositions = foodSourcePositions;
+        candidatePositions = new Population(NUM_FOOD_SOURCE, foodSourcePositions.getDimIndices());
+        candidateFitnesses = new double[NUM_FOOD_SOURCE];
+        candidateSources = new int[NUM_FOOD_SOURCE];
 
-        initializeFoodSources(decisionVars);
+        initializeFoodSources();
     }
 
-    public Swarm(Algorithm parent, Coordinate[][] foodSourceCoords, Coordinate[] swarmBestFoodCoords, int numDimensions,
-                 int index, Random numGen)
+    public Swarm(Algorithm parent, Population foodSourcePositions, Position swarmBestFood, int index, SplitRandom numGen)
     {
-        assert foodSourceCoords.length == NUM_FOOD_SOURCE: "Number of food sources != NUM_FOOD_SOURCE";
-        assert foodSourceCoords[0].length == numDimensions: "Food source dims != numDimensions";
+        assert foodSourcePositions.getNumRows() == NUM_FOOD_SOURCE: "Number of food sources != NUM_FOOD_SOURCE";
+        assert swarmBestFood.getNumDimensions() == foodSourcePositions.getNumDimensions(): "Food source dims != numDimensions";
 
         this.parent = parent;
-        this.numDimensions = numDimensions;
+        this.numDimensions = foodSourcePositions.getNumDimensions();
         this.index = index;
         this.numGen = numGen;
+        this.foodSourcePositions = foodSourcePositions;
         foodSources = new FoodSource[NUM_FOOD_SOURCE];
-        bestFoundFoodSource = new FoodSource(this, new Position(swarmBestFoodCoords));
+        candidatePositions = new Population(NUM_FOOD_SOURCE, foodSourcePositions.getDimIndices());
+        candidateFitnesses = new double[NUM_FOOD_SOURCE];
+        candidateSources = new int[NUM_FOOD_SOURCE];
+        setBestFoundFoodSource(new FoodSource(this, swarmBestFood));
 
         for(int i = 0; i < NUM_FOOD_SOURCE; i++)
         {
-            foodSources[i] = new FoodSource(this, new Position(foodSourceCoords[i]));
+            foodSources[i] = new FoodSource(this, foodSourcePositions.getRow(i));
         }
     }
 
     public void update()
     {
-        // Employee bee stuff
-        for(int i = 0; i < NUM_EMPLOYED_BEE; i++)
-        {
-            FoodSource candidate = produceCandidateFoodSource(i);
-            if(candidate.getFitness() < foodSources[i].getFitness()) // If Candidate is better, replace
-            {
-                foodSources[i] = candidate;
-                if(candidate.getFitness() < bestFoundFoodSource.getFitness())
-                    bestFoundFoodSource = candidate.clone();
-            }
-            else
-                foodSources[i].incrementTrialCount();
-        }
-
-        // Onlooker bee stuff, probabilities
-        double[] probabilities = calculateFoodSourceProbabilities();
-        for(int i = 0; i < NUM_ONLOOKER_BEE; i++)
-        {
-            int randomFoodSourceIndex = getRandomFoodSourceViaProbability(probabilities);
-            FoodSource candidate = produceCandidateFoodSource(randomFoodSourceIndex);
-            if(candidate.getFitness() < foodSources[randomFoodSourceIndex].getFitness()) // If Candidate is better
-            {
-                foodSources[randomFoodSourceIndex] = candidate;
-                if(candidate.getFitness() < bestFoundFoodSource.getFitness())
-                    bestFoundFoodSource = candidate.clone();
-            }
-        }
+        if(parent.getContext().isBatchEvaluation())
+            updateBeesInBatch();
+        else
+            updateBees();
 
         // Scout bee stuff
         for(int i = 0; i < NUM_SCOUT_BEE; i++)
@@ -110,16 +104,90 @@ public class Swarm
                 foodSources[worstFoodSourceIndex].resetTrialCount();
                 foodSources[worstFoodSourceIndex].calculateFitness();
                 if(foodSources[worstFoodSourceIndex].getFitness() < bestFoundFoodSource.getFitness())
-                    bestFoundFoodSource = foodSources[worstFoodSourceIndex].clone();
+                    updateBestFoundFoodSource(foodSources[worstFoodSourceIndex]);
             }
         }
     }
 
-    public void initializeFoodSources(int[] decisionVars)
+    private void updateBees()
+    {
+        // Employee bee stuff
+        for(int i = 0; i < NUM_EMPLOYED_BEE; i++)
+        {
+            if(!tryMove(i))
+                foodSources[i].incrementTrialCount();
+        }
+
+        // Onlooker bee stuff, probabilities
+        double[] probabilities = calculateFoodSourceProbabilities();
+        for(int i = 0; i < NUM_ONLOOKER_BEE; i++)
+        {
+            int randomFoodSourceIndex = getRandomFoodSourceViaProbability(probabilities);
+            tryMove(randomFoodSourceIndex);
+        }
+    }
+
+    // Equation #7 [2], the candidate is the food source with one coordinate changed, so it is evaluated and, if it is
+    // better, applied in place without copying the food source. Returns whether the food source was replaced
+    private boolean tryMove(int foodSourceIndex)
+    {
+        FoodSource foodSource = foodSources[foodSourceIndex];
+        drawMove(foodSourceIndex);
+        double candidateFitness = foodSource.evaluateMove(moveDimension, moveValue);
+        if(candidateFitness >= foodSource.getFitness())
+            return false;
+
+        foodSource.acceptMove(moveDimension, moveValue, candidateFitness); // Candidate is better, replace
+        if(candidateFitness < bestFoundFoodSource.getFitness())
+            updateBestFoundFoodSource(foodSource);
+        return true;
+    }
+
+    // Every bee of a phase produces its candidate from the food sources as they were at the start of the phase,
+    // then the whole phase is evaluated in one call
+    private void updateBeesInBatch()
+    {
+        // Employee bee stuff
+        for(int i = 0; i < NUM_EMPLOYED_BEE; i++)
+        {
+            candidateSources[i] = i;
+            moveToNeighbour(i, candidatePositions.getRow(i));
+        }
+        parent.calculateFitness(index, candidatePositions, candidateFitnesses);
+        acceptCandidates(true);
+
+        // Onlooker bee stuff, probabilities
+        double[] probabilities = calculateFoodSourceProbabilities();
+        for(int i = 0; i < NUM_ONLOOKER_BEE; i++)
+        {
+            candidateSources[i] = getRandomFoodSourceViaProbability(probabilities);
+            moveToNeighbour(candidateSources[i], candidatePositions.getRow(i));
+        }
+        parent.calculateFitness(index, candidatePositions, candidateFitnesses);
+        acceptCandidates(false);
+    }
+
+    private void acceptCandidates(boolean countTrials)
     {
         for(int i = 0; i < NUM_FOOD_SOURCE; i++)
-            foodSources[i] = new FoodSource(this, numDimensions, decisionVars, numGen);
-        bestFoundFoodSource = foodSources[0];
+        {
+            FoodSource foodSource = foodSources[candidateSources[i]];
+            if(candidateFitnesses[i] < foodSource.getFitness()) // If Candidate is better, replace
+            {
+                foodSource.replaceWith(candidatePositions.getRow(i), candidateFitnesses[i]);
+                if(candidateFitnesses[i] < bestFoundFoodSource.getFitness())
+                    updateBestFoundFoodSource(foodSource);
+            }
+            else if(countTrials)
+                foodSource.incrementTrialCount();
+        }
+    }
+
+    public void initializeFoodSources()
+    {
+        for(int i = 0; i < NUM_FOOD_SOURCE; i++)
+            foodSources[i] = new FoodSource(this, foodSourcePositions.getRow(i), numGen);
+        setBestFoundFoodSource(foodSources[0].clone()); // Cloned so that resetting food source 0 cannot alter the best
 
     }
 
@@ -130,7 +198,7 @@ public class Swarm
         {
             foodSources[i].calculateFitness();
             if(foodSources[i].getFitness() < bestFoundFoodSource.getFitness())
-                bestFoundFoodSource = foodSources[i].clone();
+                updateBestFoundFoodSource(foodSources[i]);
             if(foodSources[i].getFitness() < parent.getOverallBestFitness())
                 parent.setOverallBestFitness(foodSources[i].getFitness());
         }
@@ -170,10 +238,18 @@ public class Swarm
         return probabilities;
     }
 
-    // Equation #7 [2]
-    public FoodSource produceCandidateFoodSource(int currentFoodSourceIndex)
+    // Writes the food source moved one step towards or away from a random neighbour into result
+    private void moveToNeighbour(int currentFoodSourceIndex, Position result)
+    {
+        drawMove(currentFoodSourceIndex);
+        result.copyFrom(foodSources[currentFoodSourceIndex].getPosition());
+        result.setValue(moveDimension, moveValue);
+    }
+
+    // Draws a step of the food source towards or away from a random neighbour in one random coordinate, the coordinate
+    // and its new value are left in moveDimension and moveValue
+    private void drawMove(int currentFoodSourceIndex)
     {
-        Position result = foodSources[currentFoodSourceIndex].getPosition().clone();
         double phi = (numGen.nextDouble() * 2) - 1; // (-1, 1)
         int randomDimension = numGen.nextInt(numDimensions);
         int randomNeighbourIndex = numGen.nextInt(NUM_FOOD_SOURCE);
@@ -182,19 +258,32 @@ public class Swarm
         while(randomNeighbourIndex == currentFoodSourceIndex)
             randomNeighbourIndex = numGen.nextInt(NUM_FOOD_SOURCE);
 
-        double coordinateToModify = result.getCoordinate(randomDimension).getValue();
-        double randomNeighbourCoord = foodSources[randomNeighbourIndex].getPosition().getCoordinate(randomDimension).getValue();
+        double coordinateToModify = foodSources[currentFoodSourceIndex].getPosition().getValue(randomDimension);
+        double randomNeighbourCoord = foodSources[randomNeighbourIndex].getPosition().getValue(randomDimension);
         double newCoordinate = coordinateToModify + phi*(coordinateToModify - randomNeighbourCoord);
 
-        if(newCoordinate > getMaxPos())
-            newCoordinate = getMaxPos();
-        if(newCoordinate < getMinPos())
-            newCoordinate = getMinPos();
+        double max = parent.getContext().getMaxPos();
+        double min = parent.getContext().getMinPos();
+        if(newCoordinate > max)
+            newCoordinate = max;
+        if(newCoordinate < min)
+            newCoordinate = min;
+
+        moveDimension = randomDimension;
+        moveValue = newCoordinate;
+    }
+
+    private void setBestFoundFoodSource(FoodSource best)
+    {
+        bestFoundFoodSource = best;
+        parent.updateContextVector(best.getPosition());
+    }
 
-        result.getCoordinate(randomDimension).setValue(newCoordinate);
-        FoodSource resultFoodSource =  new FoodSource(this, result);
-        resultFoodSource.calculateFitness();
-        return resultFoodSource;
+    // Copies a new best into the food source this swarm already owns instead of cloning it
+    private void updateBestFoundFoodSource(FoodSource best)
+    {
+        bestFoundFoodSource.copyFrom(best);
+        parent.updateContextVector(bestFoundFoodSource.getPosition());
     }
 
     public int getNumDimensions() { return numDimensions; }
@@ -202,4 +291,5 @@ public class Swarm
     public int getIndex() { return index; }
     public FoodSource getBestFoundFoodSource() { return bestFoundFoodSource; }
     public FoodSource getFoodSource(int index) { return foodSources[index]; }
+    public Population getFoodSourcePositions() { return foodSourcePositions; }
 }
@@ -1,14 +1,16 @@
 package DE;
 
-import Main.Coordinate;
+import Main.ContextVector;
 import Main.MiscUtil;
+import Main.Population;
 import Main.Position;
+import Main.RunContext;
+import Main.ParallelSubpopulations;
+import Main.SplitRandom;
 
 import func.Function;
 
-import java.util.Random;
 
-import static Main.Main.totalDimensions;
 
 /**
  * This class implements the Cooperative Co-evolutionary Differential Evolution algorithm.
@@ -34,15 +36,20 @@ public class CCDE extends Main.Algorithm
     public final Function evalFunction;
     public int evalCount;
     public final MiscUtil miscUtil;
-    private final Random numGen;
+    private final SplitRandom numGen;
+    private final ContextVector contextVector;
 
-    public CCDE(Function f)
+    public CCDE(RunContext context)
     {
+        super(context);
+        Function f = context.getFunction();
         evalFunction = f;
         DOMAIN_MIN = evalFunction.getMin();
         DOMAIN_MAX = evalFunction.getMax();
         MAX_EVAL = totalDimensions * 3000;
-        numGen = new Random();
+        numGen = context.createRandom();
+        contextVector = new ContextVector(f, totalDimensions);
+        parallel = ParallelSubpopulations.create(context, contextVector);
         miscUtil = new MiscUtil();
         initializeCCDE();
     }
@@ -64,7 +71,7 @@ public class CCDE extends Main.Algorithm
                     decVars, 0, DIMENSION_PER_SUB);
 
             DE[i] = new DifferentialEvolution(i, DIMENSION_PER_SUB, POPULATION_SIZE, SCALE_FACTOR,
-                    CROSSOVER_PROBABILITY, DOMAIN_MIN, DOMAIN_MAX, decVars, this, numGen);
+                    CROSSOVER_PROBABILITY, DOMAIN_MIN, DOMAIN_MAX, decVars, this, numGen.split());
         }
         // Must wait until after all subpopulations are generated before evaluating bests,
         // as fitness evaluation needs all of them
@@ -79,48 +86,67 @@ public class CCDE extends Main.Algorithm
         while(evalCount < MAX_EVAL)
         {
             currentGenerationNum++;
-            for(int i = 0; i < NUM_SUBPOPULATION; i++)
+            if(parallel != null)
+                evolveInParallel();
+            else
             {
-                DE[i].doEvolution();
-                if(evalCount >= MAX_EVAL)
-                    break;
+                for(int i = 0; i < NUM_SUBPOPULATION; i++)
+                {
+                    DE[i].doEvolution();
+                    if(evalCount >= MAX_EVAL)
+                        break;
+                }
             }
         }
         return getGenerationEval();
     }
 
+    // Evolves the sub-populations in parallel, for one generation or asynchronously until the budget is used up
+    private void evolveInParallel()
+    {
+        int evals = parallel.run(NUM_SUBPOPULATION, overallBestEval, (int) MAX_EVAL - evalCount,
+                new ParallelSubpopulations.Step()
+                {
+                    public void update(int subpopulation)
+                    {
+                        DE[subpopulation].doEvolution();
+                    }
+                });
+        evalCount += evals;
+        overallBestEval = parallel.getBestFitness();
+    }
+
     public double calculateFitness(int swarmIndex, Position posToEval)
     {
-        double[] vector = new double[totalDimensions];
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+            return slot.evaluate(posToEval);
 
-        for(int s = 0; s < NUM_SUBPOPULATION; s++)
+        evalCount++;
+        return contextVector.evaluate(posToEval);
+    }
+
+    public void calculateFitness(int swarmIndex, Population candidates, double[] fitnesses)
+    {
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
         {
-            if(s == swarmIndex) // The swarm we're evaluating
-            {
-                for(int i = 0; i < posToEval.getCoordinates().length; i++)
-                {
-                    Coordinate coord = posToEval.getCoordinate(i);
-                    assert vector[coord.getDimIndex()] == 0: "ERROR: Overwriting same dimension in context vector (2)";
-                    vector[coord.getDimIndex()] = coord.getValue();
-                }
-            }
-            else // Not the swarm we're evaluating, use global best position
-            {
-                for(int i = 0; i < DIMENSION_PER_SUB; i++)
-                {
-                    Coordinate coord = DE[s].getBestPosition().getCoordinate(i);
-                    assert vector[coord.getDimIndex()] == 0: "ERROR: Overwriting same dimension in context vector (3)";
-                    vector[coord.getDimIndex()] = coord.getValue();
-                }
-            }
+            slot.evaluate(candidates, fitnesses);
+            return;
         }
-        return evaluateVectorFitness(vector);
+
+        int numRows = candidates.getNumRows();
+        evalCount += numRows;
+        contextVector.evaluate(candidates, fitnesses);
     }
 
-    public double evaluateVectorFitness(double[] vector)
+    public void updateContextVector(Position best)
     {
-        evalCount++;
-        return evalFunction.compute(vector);
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+            slot.updateContextVector(best);
+        else
+            contextVector.update(best);
     }
 
     public double getGenerationEval()
@@ -141,10 +167,18 @@ public class CCDE extends Main.Algorithm
         System.out.println("Generation #" + currentGenerationNum + " | Eval: " + overallBestEval);
     }
 
-    public double getOverallBestFitness() { return overallBestEval; }
+    public double getOverallBestFitness()
+    {
+        ParallelSubpopulations.Slot slot = currentSlot();
+        return (slot != null) ? slot.getBestFitness() : overallBestEval;
+    }
     public void setOverallBestFitness(double fitness)
     {
-        overallBestEval = fitness;
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+            slot.setBestFitness(fitness);
+        else
+            overallBestEval = fitness;
     }
     public int getEvalBetweenDecomp() { return -1; }
     public int getCountEvalForDecomp() { return -1; }
@@ -1,12 +1,13 @@
 package DE;
 
-import java.util.Random;
-
-import Main.Coordinate;
+import Main.ContextVector;
+import Main.Population;
 import Main.MiscUtil;
 import Main.Position;
+import Main.RunContext;
+import Main.ParallelSubpopulations;
+import Main.SplitRandom;
 import func.Function;
-import static Main.Main.totalDimensions;
 
 /**
  * This class handles the Decomposition Cooperative Co-evolutionary algorithm
@@ -30,20 +31,27 @@ public class DCDE extends Main.Algorithm
     public Function evalFunction;
     public int evalCount;
     private int totalDimensionsPerDE;
-    private final Random numGen;
+    private final SplitRandom numGen;
+    private final ContextVector contextVector;
+    private final Population chromosomeStore; // Complete vectors of the individuals, sub-populations are views of it
     public double overallBestEval;
 
     // Util
     public MiscUtil miscUtil;
 
-    public DCDE(Function f)
+    public DCDE(RunContext context)
     {
+        super(context);
+        Function f = context.getFunction();
         evalFunction = f;
         DOMAIN_MIN = evalFunction.getMin();
         DOMAIN_MAX = evalFunction.getMax();
         MAX_EVAL = totalDimensions * 3000;
-        numGen = new Random();
+        numGen = context.createRandom();
+        contextVector = new ContextVector(f, totalDimensions);
+        parallel = ParallelSubpopulations.create(context, contextVector);
         miscUtil = new MiscUtil();
+        chromosomeStore = Population.createStore(POPULATION_SIZE, totalDimensions);
         initializeDCDE();
     }
 
@@ -63,7 +71,8 @@ public class DCDE extends Main.Algorithm
         int[] possibleDecisionVarIndices = miscUtil.getRandomDecisionVarsArray(totalDimensions, numGen);
 
         DE[0] = new DifferentialEvolution(0, totalDimensions, POPULATION_SIZE, SCALE_FACTOR,
-                CROSSOVER_PROBABILITY, DOMAIN_MIN, DOMAIN_MAX, possibleDecisionVarIndices, this, numGen);
+                CROSSOVER_PROBABILITY, DOMAIN_MIN, DOMAIN_MAX,
+                new Population(chromosomeStore, possibleDecisionVarIndices), this, numGen.split());
         DE[0].evaluatePopulation();
     }
 
@@ -72,13 +81,18 @@ public class DCDE extends Main.Algorithm
         while(true)
         {
             currentGenerationNum++;
-            for(int i = 0; i < numSubPopulation; i++)
+            if(parallel != null)
+                evolveInParallel();
+            else
             {
-                DE[i].doEvolution();
-                if(nextDecompCount <= 0)
-                    break;
-                if(evalCount >= MAX_EVAL)
-                    break;
+                for(int i = 0; i < numSubPopulation; i++)
+                {
+                    DE[i].doEvolution();
+                    if(nextDecompCount <= 0)
+                        break;
+                    if(evalCount >= MAX_EVAL)
+                        break;
+                }
             }
             if(evalCount >= MAX_EVAL)
                 break;
@@ -101,49 +115,15 @@ public class DCDE extends Main.Algorithm
         int[] randomDimensions = miscUtil.getRandomDecisionVarsArray(totalDimensions, numGen);
         DifferentialEvolution[] newDE = new DifferentialEvolution[newTotalDE];
 
+        // The sub-populations are views of the store, so only their decision variables change
         for(int i = 0; i < minNewTotalDE; i++)
-        {
-            Coordinate[][] newChromosomes = new Coordinate[POPULATION_SIZE][newDimPerDE];
-            Coordinate[] newBestVector = new Coordinate[newDimPerDE];
-
-            for(int d = 0; d < newDimPerDE; d++)
-            {
-                int stealFromIndex = randomDimensions[(i * newDimPerDE)+d];
-                int targetDEIndex = stealFromIndex / totalDimensionsPerDE; // This makes sense surely
-                int targetDEDimIndex = stealFromIndex % totalDimensionsPerDE;
-                DifferentialEvolution targetDE = DE[targetDEIndex];
+            newDE[i] = createSubpopulation(randomDimensions, i * newDimPerDE, newDimPerDE, i);
 
-                for(int p = 0; p < POPULATION_SIZE; p++)
-                {
-                    newChromosomes[p][d] = targetDE.getPosition(p).getCoordinate(targetDEDimIndex);
-                }
-                newBestVector[d] = targetDE.getBestPosition().getCoordinate(targetDEDimIndex);
-            }
-            newDE[i] = new DifferentialEvolution(i, newDimPerDE, POPULATION_SIZE, SCALE_FACTOR, CROSSOVER_PROBABILITY,
-                    DOMAIN_MIN, DOMAIN_MAX, this, numGen, newChromosomes, newBestVector);
-        }
         // If not uniform, we have extra dimensions, put these in a new extra swarm
         if(!isUniformDecomp)
         {
-            int extraDim = totalDimensions % newDimPerDE;
-            Coordinate[][] newChromosomes = new Coordinate[POPULATION_SIZE][extraDim];
-            Coordinate[] newBestVector = new Coordinate[extraDim];
-
-            for(int d = 0; d < extraDim; d++)
-            {
-                int stealFromIndex = randomDimensions[(minNewTotalDE * newDimPerDE)+d];
-                int targetDEIndex = stealFromIndex / totalDimensionsPerDE; // This makes sense surely
-                int targetDEDimIndex = stealFromIndex % totalDimensionsPerDE;
-                DifferentialEvolution targetDE = DE[targetDEIndex];
-
-                for(int p = 0; p < POPULATION_SIZE; p++)
-                {
-                    newChromosomes[p][d] = targetDE.getPosition(p).getCoordinate(targetDEDimIndex);
-                }
-                newBestVector[d] = targetDE.getBestPosition().getCoordinate(targetDEDimIndex);
-            }
-            newDE[newTotalDE-1] = new DifferentialEvolution(newTotalDE-1, extraDim, POPULATION_SIZE, SCALE_FACTOR,
-                    CROSSOVER_PROBABILITY, DOMAIN_MIN, DOMAIN_MAX, this, numGen, newChromosomes, newBestVector);
+            newDE[newTotalDE-1] = createSubpopulation(randomDimensions, minNewTotalDE * newDimPerDE,
+                    totalDimensions % newDimPerDE, newTotalDE-1);
         }
 
         DE = newDE;
@@ -155,45 +135,88 @@ public class DCDE extends Main.Algorithm
             d.evaluatePopulation();
     }
 
-    public double calculateFitness(int swarmIndex, Position posToEval)
+    // Creates a sub-population of the numDims decision variables picked by randomDimensions from index start on, its
+    // best is the part of the context vector it covers
+    private DifferentialEvolution createSubpopulation(int[] randomDimensions, int start, int numDims, int index)
     {
-        double[] vector = new double[totalDimensions];
-
-        for(int s = 0; s < numSubPopulation; s++)
+        int[] decVars = new int[numDims];
+        Position best = new Position(decVars, numDims);
+        for(int d = 0; d < numDims; d++)
         {
-            if(s == swarmIndex) // The swarm we're evaluating
-            {
-                for(int i = 0; i < posToEval.getCoordinates().length; i++)
-                {
-                    Coordinate coord = posToEval.getCoordinate(i);
-                    assert vector[coord.getDimIndex()] == 0: "ERROR: Overwriting same dimension in context vector (2)";
-                    vector[coord.getDimIndex()] = coord.getValue();
-                }
-            }
-            else // Not the swarm we're evaluating, use global best position
-            {
-                for(int i = 0; i < DE[s].getNumDimension(); i++)
-                {
-                    Coordinate coord = DE[s].getBestPosition().getCoordinate(i);
-                    assert vector[coord.getDimIndex()] == 0: "ERROR: Overwriting same dimension in context vector (3)";
-                    vector[coord.getDimIndex()] = coord.getValue();
-                }
-            }
+            int stealFromIndex = randomDimensions[start + d];
+            int targetDEIndex = stealFromIndex / totalDimensionsPerDE; // This makes sense surely
+            int targetDEDimIndex = stealFromIndex % totalDimensionsPerDE;
+            decVars[d] = DE[targetDEIndex].getBestPosition().getDimIndex(targetDEDimIndex);
+            best.setValue(d, contextVector.getVector()[decVars[d]]);
         }
-        return evaluateVectorFitness(vector);
+
+        return new DifferentialEvolution(index, numDims, POPULATION_SIZE, SCALE_FACTOR, CROSSOVER_PROBABILITY,
+                DOMAIN_MIN, DOMAIN_MAX, this, numGen.split(), new Population(chromosomeStore, decVars), best);
     }
 
-    public double evaluateVectorFitness(double[] vector)
+    // Evolves the sub-populations in parallel, for one generation or asynchronously until the budget is used up
+    private void evolveInParallel()
     {
+        int evals = parallel.run(numSubPopulation, overallBestEval, Math.min(MAX_EVAL - evalCount, nextDecompCount),
+                new ParallelSubpopulations.Step()
+                {
+                    public void update(int subpopulation)
+                    {
+                        DE[subpopulation].doEvolution();
+                    }
+                });
+        evalCount += evals;
+        nextDecompCount -= evals;
+        overallBestEval = parallel.getBestFitness();
+    }
+
+    public double calculateFitness(int swarmIndex, Position posToEval)
+    {
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+            return slot.evaluate(posToEval);
+
         evalCount++;
         nextDecompCount--;
-        return evalFunction.compute(vector);
+        return contextVector.evaluate(posToEval);
     }
 
-    public double getOverallBestFitness() { return overallBestEval; }
+    public void calculateFitness(int swarmIndex, Population candidates, double[] fitnesses)
+    {
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+        {
+            slot.evaluate(candidates, fitnesses);
+            return;
+        }
+
+        int numRows = candidates.getNumRows();
+        evalCount += numRows;
+        nextDecompCount -= numRows;
+        contextVector.evaluate(candidates, fitnesses);
+    }
+
+    public void updateContextVector(Position best)
+    {
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+            slot.updateContextVector(best);
+        else
+            contextVector.update(best);
+    }
+
+    public double getOverallBestFitness()
+    {
+        ParallelSubpopulations.Slot slot = currentSlot();
+        return (slot != null) ? slot.getBestFitness() : overallBestEval;
+    }
     public void setOverallBestFitness(double fitness)
     {
-        overallBestEval = fitness;
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+            slot.setBestFitness(fitness);
+        else
+            overallBestEval = fitness;
     }
     public int getEvalBetweenDecomp() { return -1; }
     public int getCountEvalForDecomp() { return -1; }
@@ -1,14 +1,13 @@
 package DE;
 
-import Main.Coordinate;
 import Main.MiscUtil;
+import Main.Population;
 import Main.Position;
+import Main.RunContext;
+import Main.SplitRandom;
 
 import func.Function;
 
-import java.util.Random;
-
-import static Main.Main.totalDimensions;
 
 public class DE extends Main.Algorithm
 {
@@ -26,16 +25,18 @@ public class DE extends Main.Algorithm
     public Function evalFunction;
     public int evalCount;
     public MiscUtil miscUtil;
-    private final Random numGen;
+    private final SplitRandom numGen;
     public double overallBestEval;
 
-    public DE(Function f)
+    public DE(RunContext context)
     {
+        super(context);
+        Function f = context.getFunction();
         evalFunction = f;
         DOMAIN_MIN = evalFunction.getMin();
         DOMAIN_MAX = evalFunction.getMax();
         MAX_EVAL = totalDimensions * 3000;
-        numGen = new Random();
+        numGen = context.createRandom();
         miscUtil = new MiscUtil();
         initializeDE();
     }
@@ -71,17 +72,27 @@ public class DE extends Main.Algorithm
     {
         double[] vector = new double[totalDimensions];
 
-        for(int i = 0; i < posToEval.getCoordinates().length; i++)
+        for(int i = 0; i < posToEval.getNumDimensions(); i++)
         {
-            Coordinate coord = posToEval.getCoordinate(i);
-            assert vector[coord.getDimIndex()] == 0: "ERROR: Overwriting same dimension in evaluation vector (1)";
-            vector[coord.getDimIndex()] = coord.getValue();
+            int dimIndex = posToEval.getDimIndex(i);
+            assert vector[dimIndex] == 0: "ERROR: Overwriting same dimension in evaluation vector (1)";
+            vector[dimIndex] = posToEval.getValue(i);
         }
         evalCount++;
 
         return evalFunction.compute(vector);
     }
 
+    public void calculateFitness(int swarmIndex, Population candidates, double[] fitnesses)
+    {
+        int numRows = candidates.getNumRows();
+        double[] vectors = new double[numRows * totalDimensions];
+        candidates.scatter(vectors, totalDimensions);
+        evalCount += numRows;
+
+        evalFunction.compute(vectors, numRows, fitnesses);
+    }
+
     public double getOverallBestFitness() { return overallBestEval; }
     public void setOverallBestFitness(double fitness)
     {
@@ -1,12 +1,9 @@
 package DE;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Random;
-
-import Main.Coordinate;
 import Main.Algorithm;
+import Main.Population;
 import Main.Position;
+import Main.SplitRandom;
 
 public class DifferentialEvolution
 {
@@ -19,17 +16,32 @@ public class DifferentialEvolution
     private final double DOMAIN_MAX;
 
     //Runtime variables
-    private Position[] currentPopulation;
-    private int[] decisionVariablesIndexes;
+    private final Population population; // Backing storage for the chromosomes
+    private final Position[] currentPopulation; // Row views of the population
+    private final int[] decisionVariablesIndexes;
+    private final Population offspringPopulation; // Offspring of a whole generation, used for batch evaluation
+    private final Position trialVector; // Reused by every parent, so a generation allocates nothing
+    private final Position offspringVector;
+    private final double[] parentFitnesses;
+    private final double[] offspringFitnesses;
     private Position bestPosition;
     private final int idNum;
     private final Algorithm parent;
-    private final Random numGen;
+    private final SplitRandom numGen;
+
 
+    public DifferentialEvolution(int idNum, int numDimensions, int populationSize, double scaleFactor,
+                                 double crossoverProbability, double domainMin, double domainMax,
+                                 int[] decisionVariableIndexes, Algorithm parent, SplitRandom numGen)
+    {
+        this(idNum, numDimensions, populationSize, scaleFactor, crossoverProbability, domainMin, domainMax,
+                new Population(populationSize, decisionVariableIndexes), parent, numGen);
+    }
 
+    // Randomly initializes the given chromosomes, ex. a view of a store shared by all sub-populations
     public DifferentialEvolution(int idNum, int numDimensions, int populationSize, double scaleFactor,
                                  double crossoverProbability, double domainMin, double domainMax,
-                                 int[] decisionVariableIndexes, Algorithm parent, Random numGen)
+                                 Population chromosomes, Algorithm parent, SplitRandom numGen)
     {
         numDimension = numDimensions;
         POPULATION_SIZE = populationSize;
@@ -38,18 +50,24 @@ public class DifferentialEvolution
         DOMAIN_MIN = domainMin;
         DOMAIN_MAX = domainMax;
         this.idNum = idNum;
-        this.decisionVariablesIndexes = decisionVariableIndexes;
+        this.decisionVariablesIndexes = chromosomes.getDimIndices();
         this.parent = parent;
-        currentPopulation = new Position[populationSize];
+        population = chromosomes;
+        currentPopulation = population.getRows();
+        offspringPopulation = new Population(populationSize, decisionVariablesIndexes);
+        trialVector = new Position(decisionVariablesIndexes, numDimensions);
+        offspringVector = new Position(decisionVariablesIndexes, numDimensions);
+        parentFitnesses = new double[populationSize];
+        offspringFitnesses = new double[populationSize];
         this.numGen = numGen;
 
-        initializePopulation(decisionVariableIndexes);
+        initializePopulation(decisionVariablesIndexes);
     }
 
     public DifferentialEvolution(int idNum, int numDimensions, int populationSize, double scaleFactor,
                                  double crossoverProbability, double domainMin, double domainMax,
-                                 Algorithm parent, Random numGen,
-                                 Coordinate[][] chromosomes, Coordinate[] bestChromosome)
+                                 Algorithm parent, SplitRandom numGen,
+                                 Population chromosomes, Position bestChromosome)
     {
         numDimension = numDimensions;
         POPULATION_SIZE = populationSize;
@@ -60,62 +78,102 @@ public class DifferentialEvolution
         this.idNum = idNum;
         this.parent = parent;
         this.numGen = numGen;
-        currentPopulation = new Position[populationSize];
-
-        assert POPULATION_SIZE == chromosomes.length: "Population size != # of passed chromosomes";
-        assert numDimension == chromosomes[0].length: "Number of dimensions != passed chromosome length";
-        assert numDimension == bestChromosome.length: "Number of dimensions != number of decision variable indices";
-
-        for(int p = 0; p < POPULATION_SIZE; p++)
-        {
-            currentPopulation[p] = new Position(chromosomes[p]);
-        }
+        this.decisionVariablesIndexes = chromosomes.getDimIndices();
+        population = chromosomes;
+        currentPopulation = population.getRows();
+        offspringPopulation = new Population(populationSize, decisionVariablesIndexes);
+        trialVector = new Position(decisionVariablesIndexes, numDimensions);
+        offspringVector = new Position(decisionVariablesIndexes, numDimensions);
+        parentFitnesses = new double[populationSize];
+        offspringFitnesses = new double[populationSize];
+
+        assert POPULATION_SIZE == chromosomes.getNumRows(): "Population size != # of passed chromosomes";
+        assert numDimension == chromosomes.getNumDimensions(): "Number of dimensions != passed chromosome length";
+        assert numDimension == bestChromosome.getNumDimensions(): "Number of dimensions != number of decision variable indices";
+
+        setBest(bestChromosome);
+    }
 
-        bestPosition = new Position(bestChromosome);
+    public void setBest(Position best)
+    {
+        bestPosition = best;
+        parent.updateContextVector(best);
     }
 
-    public void setPopulation(Position[] population)
+    // Copies a new best into the position this sub-population already owns instead of cloning it
+    private void updateBest(Position best)
     {
-        currentPopulation = population;
+        bestPosition.copyFrom(best);
+        parent.updateContextVector(bestPosition);
     }
-    public void setBest(Position best) { bestPosition = best; }
 
     public void doEvolution()
     {
+        if(parent.getContext().isBatchEvaluation())
+        {
+            doEvolutionInBatch();
+            return;
+        }
+
         for(int parent = 0; parent < POPULATION_SIZE; parent++)
         {
             //Mutation
-            Position trialVector = getTrialVector(parent);
+            createTrialVector(parent, trialVector);
 
             //Crossover
-            Position offspring = getOffspring(parent, trialVector);
+            createOffspring(parent, trialVector, offspringVector);
+            Position offspring = offspringVector;
 
             //Decide if parent or offspring survives
             double parentEval = evaluatePosition(currentPopulation[parent]);
             double offspringEval = evaluatePosition(offspring);
 
             if(offspringEval < parentEval) //if offspring is better than parent replace it, otherwise keep parent
-                currentPopulation[parent] = offspring;
+                currentPopulation[parent].copyFrom(offspring);
 
             if(offspringEval < this.parent.getOverallBestFitness()) //if offspring is better than population's best, replace it
             {
                 this.parent.setOverallBestFitness(offspringEval);
-                bestPosition = offspring.clone();
+                updateBest(offspring);
             }
 
         }
         //System.out.println("Subpopulation: " + idNum + " | Best evaluation: " + bestEvaluation + " (Vector #" + bestIndex + ")");
     }
 
+    // Creates the offspring of every parent from the current population first, then evaluates parents and offspring
+    // in one call each before deciding which of them survive
+    private void doEvolutionInBatch()
+    {
+        for(int parent = 0; parent < POPULATION_SIZE; parent++)
+        {
+            createTrialVector(parent, trialVector);
+            createOffspring(parent, trialVector, offspringPopulation.getRow(parent));
+        }
+
+        this.parent.calculateFitness(idNum, population, parentFitnesses);
+        this.parent.calculateFitness(idNum, offspringPopulation, offspringFitnesses);
+
+        for(int parent = 0; parent < POPULATION_SIZE; parent++)
+        {
+            Position offspring = offspringPopulation.getRow(parent);
+            if(offspringFitnesses[parent] < parentFitnesses[parent])
+                currentPopulation[parent].copyFrom(offspring);
+
+            if(offspringFitnesses[parent] < this.parent.getOverallBestFitness())
+            {
+                this.parent.setOverallBestFitness(offspringFitnesses[parent]);
+                updateBest(offspring);
+            }
+        }
+    }
+
     private void initializePopulation(int[] decisionVars)
     {
         assert numDimension == decisionVars.length: "Number of dimensions != number of decision variable indices";
 
         for(int i = 0; i < POPULATION_SIZE; i++)
-        {
-            currentPopulation[i] = new Position(decisionVars, numDimension);
-            currentPopulation[i].randomize(numGen);
-        }
+            currentPopulation[i].randomize(parent.getContext(), numGen);
 
         // Must be initialized to calculate fitness via context vector
         setBest(currentPopulation[0].clone());
@@ -128,56 +186,46 @@ public class DifferentialEvolution
             double eval = parent.calculateFitness(idNum, currentPopulation[i]);
             if(eval < parent.getOverallBestFitness())
             {
-                bestPosition = currentPopulation[i].clone();
+                updateBest(currentPopulation[i]);
                 parent.setOverallBestFitness(eval);
             }
         }
     }
 
-    private Position getOffspring(int parentIndex, Position trialVector)
+    // Writes the crossover of the parent and its trial vector into offspringVector
+    private void createOffspring(int parentIndex, Position trialVector, Position offspringVector)
     {
-        Position offspringVector = currentPopulation[parentIndex].clone();
+        offspringVector.copyFrom(currentPopulation[parentIndex]);
 
         int randomIndex = numGen.nextInt(numDimension);
 
         //Select 1 random crossover point, ensures never empty set
-        offspringVector.getCoordinate(randomIndex).setValue(trialVector.getCoordinate(randomIndex).getValue());
+        offspringVector.setValue(randomIndex, trialVector.getValue(randomIndex));
 
         for(int dimension = 0; dimension < numDimension; dimension++)
         {
             if(numGen.nextDouble() < CROSSOVER_PROBABILITY)
-                offspringVector.getCoordinate(dimension).setValue(trialVector.getCoordinate(dimension).getValue());
+                offspringVector.setValue(dimension, trialVector.getValue(dimension));
         }
-
-        return offspringVector;
     }
 
-    private Position getTrialVector(int parentIndex)
+    // Writes the mutant of three distinct vectors other than the parent into trialVector
+    private void createTrialVector(int parentIndex, Position trialVector)
     {
-        Position trialVector = currentPopulation[parentIndex].clone();
-        ArrayList<Position> availablePopulation = new ArrayList<Position>(Arrays.asList(currentPopulation));
-        availablePopulation.remove(parentIndex);
-
-        //Random select target vector
-        int targetVectorIndex = numGen.nextInt(POPULATION_SIZE-1); //-1 because we have removed the parent vector already
-        Position targetVector = availablePopulation.get(targetVectorIndex);
-        availablePopulation.remove(targetVector);
-
-        //Randomly select two solution vectors
-        int randomVectorIndex = numGen.nextInt(POPULATION_SIZE-2); //-2 because we have now also removed the target vector
-        Position firstRandomVector = availablePopulation.get(randomVectorIndex);
-        availablePopulation.remove(randomVectorIndex);
-
-        randomVectorIndex = numGen.nextInt(POPULATION_SIZE-3);
-        Position secondRandomVector = availablePopulation.get(randomVectorIndex);
-        availablePopulation.remove(randomVectorIndex);
+        //Random select target vector, then two solution vectors, redrawing an index already taken keeps every
+        //remaining vector equally likely
+        int targetVectorIndex = pickIndex(parentIndex, -1, -1);
+        int firstRandomIndex = pickIndex(parentIndex, targetVectorIndex, -1);
+        int secondRandomIndex = pickIndex(parentIndex, targetVectorIndex, firstRandomIndex);
+        Position targetVector = currentPopulation[targetVectorIndex];
+        Position firstRandomVector = currentPopulation[firstRandomIndex];
+        Position secondRandomVector = currentPopulation[secondRandomIndex];
 
         //Perform differential on each dimension
         for(int dimension = 0; dimension < numDimension; dimension++)
         {
-            double newVal = targetVector.getCoordinate(dimension).getValue() + (SCALE_FACTOR *
-                    (firstRandomVector.getCoordinate(dimension).getValue() -
-                            secondRandomVector.getCoordinate(dimension).getValue()));
+            double newVal = targetVector.getValue(dimension) + (SCALE_FACTOR *
+                    (firstRandomVector.getValue(dimension) - secondRandomVector.getValue(dimension)));
 
             //Ensure trial vector does not exceed bounds of evaluation function
             if(newVal > DOMAIN_MAX)
@@ -185,9 +233,20 @@ public class DifferentialEvolution
             else if(newVal < DOMAIN_MIN)
                 newVal = DOMAIN_MIN;
 
-            trialVector.getCoordinate(dimension).setValue(newVal);
+            trialVector.setValue(dimension, newVal);
+        }
+    }
+
+    // A random population index other than the given ones
+    private int pickIndex(int taken1, int taken2, int taken3)
+    {
+        int index;
+        do
+        {
+            index = numGen.nextInt(POPULATION_SIZE);
         }
-        return trialVector;
+        while(index == taken1 || index == taken2 || index == taken3);
+        return index;
     }
 
     private double evaluatePosition(Position pos)
@@ -199,6 +258,6 @@ public class DifferentialEvolution
     public Position getPosition(int index) { return currentPopulation[index]; }
     public int getNumDimension() { return numDimension; }
     public int[] getDecisionVariablesIndexes() { return decisionVariablesIndexes; }
-    public Position[] getPopulation() { return currentPopulation; }
+    public Population getPopulation() { return population; }
 }
 
@@ -1,13 +1,14 @@
 package DE;
 
-import java.util.Random;
-
-import Main.Coordinate;
+import Main.ContextVector;
+import Main.Population;
 import Main.MiscUtil;
 import Main.Position;
+import Main.RunContext;
+import Main.ParallelSubpopulations;
+import Main.SplitRandom;
 import func.Function;
 
-import static Main.Main.totalDimensions;
 
 /**
  * This class implements the Merge Cooperative Co-evolutionary Differential Evolution algorithm.
@@ -33,16 +34,23 @@ public class MCDE extends Main.Algorithm
 
     private int totalDimensionsPerDE;
     public double overallBestEval;
-    private final Random numGen;
+    private final SplitRandom numGen;
+    private final ContextVector contextVector;
+    private final Population chromosomeStore; // Complete vectors of the individuals, sub-populations are views of it
     public final MiscUtil miscUtil;
 
 
-    public MCDE(Function f)
+    public MCDE(RunContext context)
     {
+        super(context);
+        Function f = context.getFunction();
         evalFunction = f;
         MAX_EVAL = totalDimensions * 3000;
-        numGen = new Random();
+        numGen = context.createRandom();
+        contextVector = new ContextVector(f, totalDimensions);
+        parallel = ParallelSubpopulations.create(context, contextVector);
         miscUtil = new MiscUtil();
+        chromosomeStore = Population.createStore(POPULATION_SIZE, totalDimensions);
         initializeMCDE();
     }
 
@@ -64,8 +72,8 @@ public class MCDE extends Main.Algorithm
         {
             int[] decisionVariableIndexes = new int[1];
             decisionVariableIndexes[0] = possibleDecisionVarIndices[i];
-            DE[i] = new DifferentialEvolution(i, 1, POPULATION_SIZE, SCALE_FACTOR, CROSSOVER_PROBABILITY,
-                    DOMAIN_MIN, DOMAIN_MAX, decisionVariableIndexes, this, numGen);
+            DE[i] = new DifferentialEvolution(i, 1, POPULATION_SIZE, SCALE_FACTOR, CROSSOVER_PROBABILITY, DOMAIN_MIN,
+                    DOMAIN_MAX, new Population(chromosomeStore, decisionVariableIndexes), this, numGen.split());
         }
         // Must wait until after all subpopulations are generated before evaluating bests, as fitness evaluation needs
         // all of them
@@ -80,13 +88,18 @@ public class MCDE extends Main.Algorithm
         while(evalCount < MAX_EVAL)
         {
             currentGenerationNum++;
-            for(int i = 0; i < numSubPopulation; i++)
+            if(parallel != null)
+                evolveInParallel();
+            else
             {
-                DE[i].doEvolution();
-                if(nextMergeCount <= 0)
-                    break;
-                if(evalCount >= MAX_EVAL)
-                    break;
+                for(int i = 0; i < numSubPopulation; i++)
+                {
+                    DE[i].doEvolution();
+                    if(nextMergeCount <= 0)
+                        break;
+                    if(evalCount >= MAX_EVAL)
+                        break;
+                }
             }
             if(nextMergeCount <= 0)
                 performMerge();
@@ -107,50 +120,15 @@ public class MCDE extends Main.Algorithm
         int[] randomDimensions = miscUtil.getRandomDecisionVarsArray(totalDimensions, numGen);
         DifferentialEvolution[] newDE = new DifferentialEvolution[newTotalDE];
 
+        // The sub-populations are views of the store, so only their decision variables change
         for(int i = 0; i < minNewTotalDE; i++)
-        {
-            Coordinate[][] newChromosomes = new Coordinate[POPULATION_SIZE][newDimPerDE];
-            Coordinate[] newBest = new Coordinate[newDimPerDE];
-
-            for(int d = 0; d < newDimPerDE; d++)
-            {
-                int stealFromIndex = randomDimensions[(i * newDimPerDE)+d];
-                int targetDEIndex = stealFromIndex / totalDimensionsPerDE; // This makes sense surely
-                int targetDEDimIndex = stealFromIndex % totalDimensionsPerDE;
-                DifferentialEvolution targetDE = DE[targetDEIndex];
-
-                for(int p = 0; p < POPULATION_SIZE; p++)
-                {
-                    newChromosomes[p][d] = targetDE.getPosition(p).getCoordinate(targetDEDimIndex);
-                }
-                newBest[d] = targetDE.getBestPosition().getCoordinate(targetDEDimIndex);
-            }
-            newDE[i] = new DifferentialEvolution(i, newDimPerDE, POPULATION_SIZE, SCALE_FACTOR, CROSSOVER_PROBABILITY,
-                    DOMAIN_MIN, DOMAIN_MAX, this, numGen, newChromosomes, newBest);
-        }
+            newDE[i] = createSubpopulation(randomDimensions, i * newDimPerDE, newDimPerDE, i);
 
         // If not uniform, we have extra dimensions, put these in a new extra swarm
         if(!isUniformDecomp)
         {
-            int extraDim = totalDimensions % newDimPerDE;
-            Coordinate[][] newChromosomes = new Coordinate[POPULATION_SIZE][extraDim];
-            Coordinate[] newBest = new Coordinate[extraDim];
-
-            for(int d = 0; d < extraDim; d++)
-            {
-                int stealFromIndex = randomDimensions[(minNewTotalDE * newDimPerDE)+d];
-                int targetDEIndex = stealFromIndex / totalDimensionsPerDE; // This makes sense surely
-                int targetDEDimIndex = stealFromIndex % totalDimensionsPerDE;
-                DifferentialEvolution targetDE = DE[targetDEIndex];
-
-                for(int p = 0; p < POPULATION_SIZE; p++)
-                {
-                    newChromosomes[p][d] = targetDE.getPosition(p).getCoordinate(targetDEDimIndex);
-                }
-                newBest[d] = targetDE.getBestPosition().getCoordinate(targetDEDimIndex);
-            }
-            newDE[newTotalDE-1] = new DifferentialEvolution(newTotalDE-1, extraDim, POPULATION_SIZE, SCALE_FACTOR,
-                    CROSSOVER_PROBABILITY, DOMAIN_MIN, DOMAIN_MAX, this, numGen, newChromosomes, newBest);
+            newDE[newTotalDE-1] = createSubpopulation(randomDimensions, minNewTotalDE * newDimPerDE,
+                    totalDimensions % newDimPerDE, newTotalDE-1);
         }
 
         DE = newDE;
@@ -162,45 +140,88 @@ public class MCDE extends Main.Algorithm
             d.evaluatePopulation();
     }
 
-    public double calculateFitness(int swarmIndex, Position posToEval)
+    // Creates a sub-population of the numDims decision variables picked by randomDimensions from index start on, its
+    // best is the part of the context vector it covers
+    private DifferentialEvolution createSubpopulation(int[] randomDimensions, int start, int numDims, int index)
     {
-        double[] vector = new double[totalDimensions];
-
-        for(int s = 0; s < numSubPopulation; s++)
+        int[] decVars = new int[numDims];
+        Position best = new Position(decVars, numDims);
+        for(int d = 0; d < numDims; d++)
         {
-            if(s == swarmIndex) // The swarm we're evaluating
-            {
-                for(int i = 0; i < posToEval.getCoordinates().length; i++)
-                {
-                    Coordinate coord = posToEval.getCoordinate(i);
-                    assert vector[coord.getDimIndex()] == 0: "ERROR: Overwriting same dimension in context vector (2)";
-                    vector[coord.getDimIndex()] = coord.getValue();
-                }
-            }
-            else // Not the swarm we're evaluating, use global best position
-            {
-                for(int i = 0; i < DE[s].getNumDimension(); i++)
-                {
-                    Coordinate coord = DE[s].getBestPosition().getCoordinate(i);
-                    assert vector[coord.getDimIndex()] == 0: "ERROR: Overwriting same dimension in context vector (3)";
-                    vector[coord.getDimIndex()] = coord.getValue();
-                }
-            }
+            int stealFromIndex = randomDimensions[start + d];
+            int targetDEIndex = stealFromIndex / totalDimensionsPerDE; // This makes sense surely
+            int targetDEDimIndex = stealFromIndex % totalDimensionsPerDE;
+            decVars[d] = DE[targetDEIndex].getBestPosition().getDimIndex(targetDEDimIndex);
+            best.setValue(d, contextVector.getVector()[decVars[d]]);
         }
-        return evaluateVectorFitness(vector);
+
+        return new DifferentialEvolution(index, numDims, POPULATION_SIZE, SCALE_FACTOR, CROSSOVER_PROBABILITY,
+                DOMAIN_MIN, DOMAIN_MAX, this, numGen.split(), new Population(chromosomeStore, decVars), best);
     }
 
-    public double evaluateVectorFitness(double[] vector)
+    // Evolves the sub-populations in parallel, for one generation or asynchronously until the budget is used up
+    private void evolveInParallel()
     {
+        int evals = parallel.run(numSubPopulation, overallBestEval, Math.min(MAX_EVAL - evalCount, nextMergeCount),
+                new ParallelSubpopulations.Step()
+                {
+                    public void update(int subpopulation)
+                    {
+                        DE[subpopulation].doEvolution();
+                    }
+                });
+        evalCount += evals;
+        nextMergeCount -= evals;
+        overallBestEval = parallel.getBestFitness();
+    }
+
+    public double calculateFitness(int swarmIndex, Position posToEval)
+    {
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+            return slot.evaluate(posToEval);
+
         evalCount++;
         nextMergeCount--;
-        return evalFunction.compute(vector);
+        return contextVector.evaluate(posToEval);
     }
 
-    public double getOverallBestFitness() { return overallBestEval; }
+    public void calculateFitness(int swarmIndex, Population candidates, double[] fitnesses)
+    {
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+        {
+            slot.evaluate(candidates, fitnesses);
+            return;
+        }
+
+        int numRows = candidates.getNumRows();
+        evalCount += numRows;
+        nextMergeCount -= numRows;
+        contextVector.evaluate(candidates, fitnesses);
+    }
+
+    public void updateContextVector(Position best)
+    {
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+            slot.updateContextVector(best);
+        else
+            contextVector.update(best);
+    }
+
+    public double getOverallBestFitness()
+    {
+        ParallelSubpopulations.Slot slot = currentSlot();
+        return (slot != null) ? slot.getBestFitness() : overallBestEval;
+    }
     public void setOverallBestFitness(double fitness)
     {
-        overallBestEval = fitness;
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+            slot.setBestFitness(fitness);
+        else
+            overallBestEval = fitness;
     }
     public int getEvalBetweenDecomp() { return -1; }
     public int getCountEvalForDecomp() { return -1; }
@@ -26,6 +26,24 @@ public abstract class Algorithm
 //    public int getTotalDimensions() { return totalDimensions; }
 //    public void setTotalDimensions(int totalDimensions) { this.totalDimensions = totalDimensions; }
 
+    protected final RunContext context;
+    protected final int totalDimensions;
+    protected ParallelSubpopulations parallel; // Set by cooperative algorithms that update sub-populations in parallel
+
+    protected Algorithm(RunContext context)
+    {
+        this.context = context;
+        this.totalDimensions = context.getTotalDimensions();
+    }
+
+    public RunContext getContext() { return context; }
+
+    // The sub-population the calling thread updates in parallel with the others, null otherwise
+    protected final ParallelSubpopulations.Slot currentSlot()
+    {
+        return (parallel == null) ? null : parallel.currentSlot();
+    }
+
     abstract public double getOverallBestFitness();
     abstract public void setOverallBestFitness(double fitness);
     abstract public double calculateFitness(int swarmIndex, Position posToEval);
@@ -36,5 +54,29 @@ public abstract class Algorithm
     abstract public String getName();
 
     public int getLimit() { return -1; };
+
+    // Evaluates every row of candidates and writes the fitness of row r to fitnesses[r], algorithms override this to
+    // hand the whole population to the evaluation function at once
+    public void calculateFitness(int swarmIndex, Population candidates, double[] fitnesses)
+    {
+        for(int r = 0; r < candidates.getNumRows(); r++)
+            fitnesses[r] = calculateFitness(swarmIndex, candidates.getRow(r));
+    }
+
+    // Evaluates base with its coordinate at index dimension set to value, ex. a food source moved towards a neighbour.
+    // cache belongs to base, algorithms with a context vector override this to only compute the changed coordinate
+    public double calculateFitness(int swarmIndex, Position base, CachedPartials cache, int dimension, double value)
+    {
+        cache.invalidate();
+        double current = base.getValue(dimension);
+        base.setValue(dimension, value);
+        double eval = calculateFitness(swarmIndex, base);
+        base.setValue(dimension, current);
+        return eval;
+    }
+
+    // Called by a sub-population whenever its best position changes, cooperative algorithms use this to keep their
+    // context vector up to date
+    public void updateContextVector(Position best) { }
     // -> Abstract class and put these variables in it ?
 }
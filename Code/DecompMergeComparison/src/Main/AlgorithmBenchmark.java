@@ -0,0 +1,340 @@
+package Main;
+
+import ABC.ABC;
+import ABC.CABC;
+import ABC.DCABC;
+import ABC.MCABC;
+import ABC.Swarm;
+import DE.CCDE;
+import DE.DCDE;
+import DE.DE;
+import DE.DifferentialEvolution;
+import DE.MCDE;
+import PSO.CPSO;
+import PSO.DCPSO;
+import PSO.MCPSO;
+import PSO.Particle;
+import func.Function;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * This class measures the overhead of the algorithms themselves, separately from the cost of the evaluation function
+ * measured by func.FunctionBenchmark. Every algorithm evaluates a function of constant, negligible cost, so the time
+ * measured is spent in the algorithm: the context vector assembly of calculateFitness, the moves of the particles,
+ * chromosomes and bees, the regrouping of the decomposition and merging variants, and finally whole runs.
+ *
+ * Each line gives the time and the function evaluations of one call, along with their ratio, the overhead of the
+ * algorithm per evaluation, which can be compared with the cost of evaluating a benchmark function of the same
+ * number of dimensions.
+ */
+public class AlgorithmBenchmark
+{
+    private static final int[] DIMENSIONS = { 100, 500, 1000 };
+    private static final long BATCH_NS = 20000000L; // Minimum duration of a timed batch of calls
+    private static final int ROUNDS = 15;
+    private static final long SEED = 1;
+
+    private static final AlgorithmType[] COOPERATIVE = { AlgorithmType.CPSO, AlgorithmType.DCPSO, AlgorithmType.MCPSO,
+            AlgorithmType.CCDE, AlgorithmType.DCDE, AlgorithmType.MCDE, AlgorithmType.CABC, AlgorithmType.DCABC,
+            AlgorithmType.MCABC };
+
+    private static final com.sun.management.ThreadMXBean allocation = allocationCounter(); // Null if unsupported
+
+    private final PrintStream out;
+
+    private AlgorithmBenchmark(PrintStream out)
+    {
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        if(args.length < 1)
+        {
+            System.out.println("Command args: [Output file or -] (Dimensions...)");
+            System.exit(0);
+        }
+
+        int[] dimensions = DIMENSIONS;
+        if(args.length > 1)
+        {
+            dimensions = new int[args.length - 1];
+            for(int i = 0; i < dimensions.length; i++)
+                dimensions[i] = Integer.parseInt(args[i + 1]);
+        }
+
+        PrintStream out = (args[0].equals("-")) ? System.out : new PrintStream(new FileOutputStream(args[0]));
+        try
+        {
+            AlgorithmBenchmark benchmark = new AlgorithmBenchmark(out);
+            out.println("case\tdimension\tns/op\tevaluations/op\tns/evaluation\tbytes/op");
+            for(int dim : dimensions)
+                benchmark.measureSteps(dim);
+            for(int dim : dimensions)
+                benchmark.measureRegrouping(dim);
+            for(int dim : dimensions)
+                benchmark.measureRuns(dim);
+        }
+        finally
+        {
+            if(out != System.out)
+                out.close();
+        }
+    }
+
+    // The single calls the algorithms repeat for every evaluation or generation
+    private void measureSteps(int dim)
+    {
+        for(AlgorithmType type : COOPERATIVE)
+        {
+            final ConstantCostFunction f = new ConstantCostFunction(dim);
+            final Algorithm algo = createAlgorithm(type, f);
+            final Position pos = firstPosition(algo);
+            report(type.name() + ".calculateFitness", f, new Step()
+            {
+                public void run()
+                {
+                    algo.calculateFitness(0, pos);
+                }
+            });
+        }
+
+        // The first sub-swarm of DCPSO covers every dimension, like the swarm of PSO
+        ConstantCostFunction f = new ConstantCostFunction(dim);
+        final Particle particle = ((DCPSO) createAlgorithm(AlgorithmType.DCPSO, f)).Swarms[0].getParticle(0);
+        report("Particle.updatePosition", f, new Step()
+        {
+            public void run()
+            {
+                particle.updatePosition();
+            }
+        });
+
+        f = new ConstantCostFunction(dim);
+        final PSO.Swarm swarm = ((DCPSO) createAlgorithm(AlgorithmType.DCPSO, f)).Swarms[0];
+        report("PSO.Swarm.updateSwarmPositions", f, new Step()
+        {
+            public void run()
+            {
+                swarm.updateSwarmPositions();
+            }
+        });
+
+        f = new ConstantCostFunction(dim);
+        final DifferentialEvolution de = ((DE) createAlgorithm(AlgorithmType.DE, f)).theDE;
+        report("DifferentialEvolution.doEvolution", f, new Step()
+        {
+            public void run()
+            {
+                de.doEvolution();
+            }
+        });
+
+        f = new ConstantCostFunction(dim);
+        final Swarm hive = ((ABC) createAlgorithm(AlgorithmType.ABC, f)).theSwarm;
+        report("ABC.Swarm.update", f, new Step()
+        {
+            public void run()
+            {
+                hive.update();
+            }
+        });
+    }
+
+    // Every regrouping of a run, from the first to the last, on a new algorithm each round
+    private void measureRegrouping(int dim)
+    {
+        long[] times = new long[ROUNDS];
+        long evals = 0, bytes = 0;
+        ConstantCostFunction f = new ConstantCostFunction(dim);
+        for(int round = 0; round < ROUNDS; round++)
+        {
+            DCDE dcde = (DCDE) createAlgorithm(AlgorithmType.DCDE, f);
+            long startEvals = f.evaluations, startBytes = allocatedBytes(), start = System.nanoTime();
+            while(dcde.getTotalDimensionsPerSwarm() > 1)
+                dcde.performDecomposition();
+            times[round] = System.nanoTime() - start;
+            bytes += allocatedBytes() - startBytes;
+            evals += f.evaluations - startEvals;
+        }
+        print("DCDE.performDecomposition (all)", dim, times, evals / (double) ROUNDS, bytes / ROUNDS);
+
+        times = new long[ROUNDS];
+        evals = bytes = 0;
+        for(int round = 0; round < ROUNDS; round++)
+        {
+            MCDE mcde = (MCDE) createAlgorithm(AlgorithmType.MCDE, f);
+            long startEvals = f.evaluations, startBytes = allocatedBytes(), start = System.nanoTime();
+            while(mcde.numSubPopulation > 1)
+                mcde.performMerge();
+            times[round] = System.nanoTime() - start;
+            bytes += allocatedBytes() - startBytes;
+            evals += f.evaluations - startEvals;
+        }
+        print("MCDE.performMerge (all)", dim, times, evals / (double) ROUNDS, bytes / ROUNDS);
+
+        times = new long[ROUNDS];
+        evals = bytes = 0;
+        for(int round = 0; round < ROUNDS; round++)
+        {
+            MCPSO mcpso = (MCPSO) createAlgorithm(AlgorithmType.MCPSO, f);
+            long startEvals = f.evaluations, startBytes = allocatedBytes(), start = System.nanoTime();
+            while(mcpso.totalSubswarms > 1)
+                mcpso.performMerging();
+            times[round] = System.nanoTime() - start;
+            bytes += allocatedBytes() - startBytes;
+            evals += f.evaluations - startEvals;
+        }
+        print("MCPSO.performMerging (all)", dim, times, evals / (double) ROUNDS, bytes / ROUNDS);
+    }
+
+    // One whole run of each algorithm, its evaluation budget grows with the dimensions so it is only timed once
+    private void measureRuns(int dim)
+    {
+        for(AlgorithmType type : AlgorithmType.values())
+        {
+            if(type == AlgorithmType.RandomSearch)
+                continue;
+            ConstantCostFunction f = new ConstantCostFunction(dim);
+            Algorithm algo = createAlgorithm(type, f);
+            long startEvals = f.evaluations, startBytes = allocatedBytes(), start = System.nanoTime();
+            algo.start();
+            long[] times = { System.nanoTime() - start };
+            print(type.name() + ".start", dim, times, f.evaluations - startEvals, allocatedBytes() - startBytes);
+        }
+    }
+
+    // Grows the batch until it takes BATCH_NS, which also lets the JIT compile the step, then times ROUNDS batches
+    private void report(String name, ConstantCostFunction f, Step step)
+    {
+        long calls = 1;
+        while(time(step, calls) < BATCH_NS)
+            calls *= 2;
+
+        long[] times = new long[ROUNDS];
+        long startEvals = f.evaluations, startBytes = allocatedBytes();
+        for(int round = 0; round < ROUNDS; round++)
+            times[round] = time(step, calls) / calls;
+        long ops = calls * ROUNDS;
+        print(name, f.getDimension(), times, (f.evaluations - startEvals) / (double) ops,
+                (allocatedBytes() - startBytes) / ops);
+    }
+
+    private static long time(Step step, long calls)
+    {
+        long start = System.nanoTime();
+        for(long i = 0; i < calls; i++)
+            step.run();
+        return System.nanoTime() - start;
+    }
+
+    // Prints the median of the times of one call along with its evaluations and allocated bytes
+    private void print(String name, int dim, long[] times, double evalsPerOp, long bytesPerOp)
+    {
+        Arrays.sort(times);
+        long median = times[times.length / 2];
+        double perEval = (evalsPerOp > 0) ? median / evalsPerOp : -1;
+        out.println(name + "\t" + dim + "\t" + median + "\t" + String.format("%.2f", evalsPerOp) + "\t" +
+                String.format("%.1f", perEval) + "\t" + ((allocation == null) ? -1 : bytesPerOp));
+    }
+
+    private static Algorithm createAlgorithm(AlgorithmType type, Function f)
+    {
+        return Main.algorithmSelection(type, new RunContext(f, false, false).withSeed(SEED));
+    }
+
+    // A position of the first sub-population of a cooperative algorithm
+    private static Position firstPosition(Algorithm algo)
+    {
+        if(algo instanceof CPSO)
+            return ((CPSO) algo).Swarms[0].getPositions().getRow(0);
+        if(algo instanceof DCPSO)
+            return ((DCPSO) algo).Swarms[0].getPositions().getRow(0);
+        if(algo instanceof MCPSO)
+            return ((MCPSO) algo).Swarms[0].getPositions().getRow(0);
+        if(algo instanceof CCDE)
+            return ((CCDE) algo).DE[0].getPosition(0);
+        if(algo instanceof DCDE)
+            return ((DCDE) algo).DE[0].getPosition(0);
+        if(algo instanceof MCDE)
+            return ((MCDE) algo).DE[0].getPosition(0);
+        if(algo instanceof CABC)
+            return ((CABC) algo).Swarms[0].getFoodSource(0).getPosition();
+        if(algo instanceof DCABC)
+            return ((DCABC) algo).Swarms[0].getFoodSource(0).getPosition();
+        return ((MCABC) algo).Swarms[0].getFoodSource(0).getPosition();
+    }
+
+    private static long allocatedBytes()
+    {
+        return (allocation == null) ? 0 : allocation.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter()
+    {
+        try
+        {
+            Object bean = ManagementFactory.getThreadMXBean();
+            if(bean instanceof com.sun.management.ThreadMXBean)
+            {
+                com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) bean;
+                if(counter.isThreadAllocatedMemorySupported())
+                {
+                    counter.setThreadAllocatedMemoryEnabled(true);
+                    return counter;
+                }
+            }
+        }
+        catch (Throwable t)
+        {
+            // Not a HotSpot JVM, allocations are reported as -1
+        }
+        return null;
+    }
+
+    private interface Step
+    {
+        void run();
+    }
+
+    // Costs a few nanoseconds regardless of the dimensions, its values are pseudo-random so the algorithms still find
+    // improvements now and then, about as rarely as in a converging run
+    private static final class ConstantCostFunction extends Function
+    {
+        private static final long serialVersionUID = 1;
+        private long state = SEED;
+        private long evaluations;
+
+        ConstantCostFunction(int dim)
+        {
+            super(dim, -100, 100);
+        }
+
+        public double compute(double[] x)
+        {
+            evaluations++;
+            state = state * 6364136223846793005L + 1442695040888963407L;
+            return (state >>> 11) * (1.0 / (1L << 53));
+        }
+
+        public double compute(double[] x, int offset)
+        {
+            return compute(x);
+        }
+
+        public String getFullName()
+        {
+            return "Constant cost function";
+        }
+
+        public double[] getOptimum()
+        {
+            return new double[m_dimension];
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package Main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class updates the sub-populations of a cooperative algorithm asynchronously, without waiting for each other.
+ *
+ * Each worker repeatedly claims a sub-population that no other worker is updating, refreshes its own copy of the
+ * context vector from a SharedContextVector, and runs one generation of that sub-population. A new sub-population best
+ * is published to the shared context vector as soon as it is found, so a sub-population that is slow to update never
+ * holds the others back.
+ *
+ * The evaluation budget is handed out in leases of a few evaluations, so workers only touch the shared counter once per
+ * lease. The overall best fitness is kept as the bits of a double, lowered with compare-and-set.
+ */
+public class AsynchronousCooperation extends ParallelSubpopulations
+{
+    private static final int LEASE = 64; // Evaluations a worker takes from the budget at a time
+
+    private final ExecutorService executor;
+    private final int numThreads;
+    private final ContextVector contextVector;
+    private final SharedContextVector shared;
+    private final SharedContextVector.Reader master; // Writes the shared context back into contextVector
+    private final ThreadLocal<WorkerSlot> currentSlot = new ThreadLocal<WorkerSlot>();
+    private final ConcurrentLinkedQueue<SharedContextVector.Reader> readers =
+            new ConcurrentLinkedQueue<SharedContextVector.Reader>(); // One per worker at most
+    private final AtomicInteger unleased = new AtomicInteger(); // Budget not handed out to a worker yet
+    private final AtomicLong bestFitnessBits = new AtomicLong();
+    private final AtomicInteger nextSubpopulation = new AtomicInteger();
+    private AtomicIntegerArray busy = new AtomicIntegerArray(0); // 1 while a worker updates the sub-population
+
+    // State of the current call to run, written before the workers are started
+    private int count;
+    private Step step;
+    private double bestFitness;
+
+    public AsynchronousCooperation(ExecutorService executor, int numThreads, ContextVector contextVector)
+    {
+        this.executor = executor;
+        this.numThreads = numThreads;
+        this.contextVector = contextVector;
+        shared = new SharedContextVector(contextVector.getVector().length);
+        master = new SharedContextVector.Reader(contextVector);
+    }
+
+    /**
+     * Updates the sub-populations until the budget is used up, then evaluates the resulting context vector once more,
+     * since each best was measured against the context its worker had seen.
+     */
+    public int run(int count, double bestFitness, int budget, Step step)
+    {
+        this.count = count;
+        this.step = step;
+        shared.load(contextVector);
+        unleased.set(budget);
+        bestFitnessBits.set(Double.doubleToRawLongBits(bestFitness));
+        nextSubpopulation.set(0);
+        if(busy.length() != count)
+            busy = new AtomicIntegerArray(count);
+
+        int numWorkers = Math.min(count, numThreads); // So a worker always finds a sub-population nobody updates
+        List<Callable<Integer>> workers = new ArrayList<Callable<Integer>>(numWorkers);
+        for(int w = 0; w < numWorkers; w++)
+            workers.add(new Worker());
+
+        int evaluations = 0;
+        try
+        {
+            for(Future<Integer> result : executor.invokeAll(workers))
+                evaluations += result.get();
+        }
+        catch(ExecutionException e)
+        {
+            throw new RuntimeException(e.getCause());
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+
+        shared.refresh(master);
+        this.bestFitness = contextVector.evaluate();
+        return evaluations + 1;
+    }
+
+    public double getBestFitness() { return bestFitness; }
+    public Slot currentSlot() { return currentSlot.get(); }
+
+    // Takes up to LEASE evaluations from the budget, returns 0 once it is used up
+    private int lease()
+    {
+        while(true)
+        {
+            int remaining = unleased.get();
+            if(remaining <= 0)
+                return 0;
+            int granted = Math.min(remaining, LEASE);
+            if(unleased.compareAndSet(remaining, remaining - granted))
+                return granted;
+        }
+    }
+
+    // Claims the next sub-population in round-robin order that no other worker is updating
+    private int claim()
+    {
+        while(true)
+        {
+            int i = (nextSubpopulation.getAndIncrement() & Integer.MAX_VALUE) % count;
+            if(busy.compareAndSet(i, 0, 1))
+                return i;
+        }
+    }
+
+    private SharedContextVector.Reader acquireReader()
+    {
+        SharedContextVector.Reader reader = readers.poll();
+        if(reader == null)
+            reader = new SharedContextVector.Reader(new ContextVector(contextVector));
+        return reader;
+    }
+
+    private class Worker implements Callable<Integer>
+    {
+        public Integer call()
+        {
+            WorkerSlot slot = new WorkerSlot(acquireReader());
+            try
+            {
+                while(slot.leased > 0 || (slot.leased = lease()) > 0)
+                {
+                    int i = claim();
+                    shared.refresh(slot.reader);
+                    currentSlot.set(slot);
+                    try
+                    {
+                        step.update(i);
+                    }
+                    finally
+                    {
+                        currentSlot.remove();
+                        busy.set(i, 0);
+                    }
+
+                    // A generation can use more evaluations than were leased, take them from the rest of the budget
+                    if(slot.leased < 0)
+                    {
+                        unleased.addAndGet(slot.leased);
+                        slot.leased = 0;
+                    }
+                }
+            }
+            finally
+            {
+                readers.add(slot.reader);
+            }
+            return slot.evaluations;
+        }
+    }
+
+    /**
+     * The state of a worker, only used by the thread running it.
+     */
+    private class WorkerSlot implements Slot
+    {
+        private final SharedContextVector.Reader reader;
+        private int evaluations;
+        private int leased;
+
+        WorkerSlot(SharedContextVector.Reader reader)
+        {
+            this.reader = reader;
+        }
+
+        public double evaluate(Position posToEval)
+        {
+            evaluations++;
+            leased--;
+            return reader.getVector().evaluate(posToEval);
+        }
+
+        public void evaluate(Population candidates, double[] fitnesses)
+        {
+            evaluations += candidates.getNumRows();
+            leased -= candidates.getNumRows();
+            reader.getVector().evaluate(candidates, fitnesses);
+        }
+
+        public double getBestFitness()
+        {
+            return Double.longBitsToDouble(bestFitnessBits.get());
+        }
+
+        // Only ever lowers the overall best, another worker may have found a better one since it was read
+        public void setBestFitness(double fitness)
+        {
+            while(true)
+            {
+                long bits = bestFitnessBits.get();
+                if(fitness >= Double.longBitsToDouble(bits)
+                        || bestFitnessBits.compareAndSet(bits, Double.doubleToRawLongBits(fitness)))
+                    return;
+            }
+        }
+
+        public void updateContextVector(Position best)
+        {
+            shared.publish(best);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package Main;
+
+/**
+ * This class caches the group contributions to the fitness of a context vector with one position patched in, so a
+ * candidate that differs from that position in a single coordinate only recomputes the group of that coordinate.
+ *
+ * The contributions stay valid as long as the context vector is only changed by the sub-population of the position,
+ * whose coordinates are overwritten by the position anyway. They are recomputed by the ContextVector when they are
+ * not, but the owner of the position must call invalidate() whenever it changes the position other than by accept().
+ */
+public class CachedPartials
+{
+    double[] partials; // Contributions of the context vector with the position patched in
+    double[] movePartials; // Contributions with the last evaluated move applied on top of the position
+    ContextVector vector; // The context vector the contributions belong to, null while they are invalid
+    long version; // Version of vector when the contributions were computed
+    boolean movePending; // movePartials belong to the last evaluated move
+
+    public void invalidate()
+    {
+        vector = null;
+        movePending = false;
+    }
+
+    /**
+     * Must be called once the last evaluated move was written into the position, its contributions become those of
+     * the position.
+     */
+    public void accept()
+    {
+        if(!movePending)
+        {
+            invalidate();
+            return;
+        }
+
+        double[] temp = partials;
+        partials = movePartials;
+        movePartials = temp;
+        movePending = false;
+    }
+}
@@ -0,0 +1,234 @@
+package Main;
+
+import func.Function;
+
+/**
+ * This class holds the context vector shared by the sub-populations of a cooperative algorithm.
+ *
+ * Each sub-population writes its best position into the vector only when that best changes. A candidate is evaluated
+ * by patching its own coordinates into the vector and restoring them afterwards, so the cost of building the vector
+ * grows with the size of the sub-population instead of the total number of dimensions.
+ *
+ * If the evaluation function declares more than one group, the contribution of each group to the fitness of the
+ * context vector is cached, and evaluating a candidate only recomputes the groups its coordinates belong to. A
+ * candidate that differs from a position in a single coordinate can be evaluated against the CachedPartials of that
+ * position, which only recomputes the group of the changed coordinate.
+ */
+public class ContextVector
+{
+    private final Function function;
+    private final double[] vector;
+    private double[] savedValues; // Context values overwritten by the candidate currently being evaluated
+    private final double[] partials; // Group contributions for the context vector, null for single-group functions
+    private final double[] candidatePartials; // Working copy of the partials used while evaluating a candidate
+    private double[] batch; // Complete vectors of the candidates of a batch evaluation, one after the other
+    private final int[] moveIndex = new int[1]; // Decision variable changed by the move being evaluated
+    private long version; // Bumped whenever the vector changes
+    private int[] writer; // Decision variables of the position that made the latest changes in a row, null if unknown
+    private long writerSince; // Version before the first of these changes
+
+    public ContextVector(Function function, int totalDimensions)
+    {
+        this.function = function;
+        vector = new double[totalDimensions];
+        savedValues = new double[0];
+        batch = new double[0];
+
+        if(function.getGroupCount() > 1)
+        {
+            partials = new double[function.getGroupCount()];
+            candidatePartials = new double[partials.length];
+            function.computePartials(vector, partials);
+        }
+        else
+        {
+            partials = null;
+            candidatePartials = null;
+        }
+    }
+
+    // Creates an independent copy of other, used to evaluate candidates against a snapshot of it
+    public ContextVector(ContextVector other)
+    {
+        function = other.function;
+        vector = other.vector.clone();
+        savedValues = new double[0];
+        batch = new double[0];
+        partials = (other.partials == null) ? null : other.partials.clone();
+        candidatePartials = (other.partials == null) ? null : new double[other.partials.length];
+    }
+
+    // Makes this copy equal to other again
+    public void copyFrom(ContextVector other)
+    {
+        System.arraycopy(other.vector, 0, vector, 0, vector.length);
+        if(partials != null)
+            System.arraycopy(other.partials, 0, partials, 0, partials.length);
+        changed(null);
+    }
+
+    /**
+     * Writes a sub-population's best position into the context vector, must be called whenever that best changes.
+     */
+    public void update(Position best)
+    {
+        int[] dimIndices = best.getDimIndices();
+        for(int i = 0; i < best.getNumDimensions(); i++)
+            vector[dimIndices[i]] = best.getValue(i);
+
+        if(partials != null)
+            function.computeDelta(vector, partials, dimIndices, best.getNumDimensions());
+        changed(dimIndices);
+    }
+
+    // Writes values[i] into component dimIndices[i] of the context vector for the first numDims indices
+    public void update(int[] dimIndices, double[] values, int numDims)
+    {
+        for(int i = 0; i < numDims; i++)
+            vector[dimIndices[i]] = values[i];
+
+        if(partials != null)
+            function.computeDelta(vector, partials, dimIndices, numDims);
+        changed(null);
+    }
+
+    // Records a change of the vector by the position with the given decision variables, null if it is not known
+    private void changed(int[] dimIndices)
+    {
+        if(dimIndices == null || dimIndices != writer)
+        {
+            writer = dimIndices;
+            writerSince = version;
+        }
+        version++;
+    }
+
+    /**
+     * Evaluates the context vector with the coordinates of posToEval patched in, then restores the context.
+     */
+    public double evaluate(Position posToEval)
+    {
+        int[] dimIndices = posToEval.getDimIndices();
+        int numDims = posToEval.getNumDimensions();
+        if(savedValues.length < numDims)
+            savedValues = new double[numDims];
+
+        for(int i = 0; i < numDims; i++)
+        {
+            int dimIndex = dimIndices[i];
+            savedValues[i] = vector[dimIndex];
+            vector[dimIndex] = posToEval.getValue(i);
+        }
+
+        double eval;
+        if(partials != null)
+        {
+            System.arraycopy(partials, 0, candidatePartials, 0, partials.length);
+            eval = function.computeDelta(vector, candidatePartials, dimIndices, numDims);
+        }
+        else
+            eval = function.compute(vector);
+
+        for(int i = 0; i < numDims; i++)
+            vector[dimIndices[i]] = savedValues[i];
+        return eval;
+    }
+
+    /**
+     * Evaluates the context vector with the coordinates of base patched in and the one at index dimension set to value,
+     * then restores the context. cache holds the contributions of base, which are recomputed first if they are not
+     * valid for this context vector anymore, so only the group of the changed coordinate is computed for the move.
+     * Functions with a single group are computed completely.
+     */
+    public double evaluate(Position base, CachedPartials cache, int dimension, double value)
+    {
+        if(partials == null)
+        {
+            cache.invalidate();
+            double current = base.getValue(dimension);
+            base.setValue(dimension, value);
+            double eval = evaluate(base);
+            base.setValue(dimension, current);
+            return eval;
+        }
+
+        int[] dimIndices = base.getDimIndices();
+        int numDims = base.getNumDimensions();
+        if(savedValues.length < numDims)
+            savedValues = new double[numDims];
+
+        for(int i = 0; i < numDims; i++)
+        {
+            int dimIndex = dimIndices[i];
+            savedValues[i] = vector[dimIndex];
+            vector[dimIndex] = base.getValue(i);
+        }
+
+        // Only the sub-population of base changed the vector since, if at all
+        boolean valid = cache.vector == this && (cache.version == version
+                || (writer == dimIndices && writerSince <= cache.version));
+        if(!valid)
+        {
+            if(cache.partials == null || cache.partials.length != partials.length)
+            {
+                cache.partials = new double[partials.length];
+                cache.movePartials = new double[partials.length];
+            }
+            System.arraycopy(partials, 0, cache.partials, 0, partials.length);
+            function.computeDelta(vector, cache.partials, dimIndices, numDims);
+            cache.vector = this;
+        }
+        cache.version = version;
+
+        moveIndex[0] = dimIndices[dimension];
+        vector[moveIndex[0]] = value;
+        System.arraycopy(cache.partials, 0, cache.movePartials, 0, partials.length);
+        double eval = function.computeDelta(vector, cache.movePartials, moveIndex, 1);
+        cache.movePending = true;
+
+        for(int i = 0; i < numDims; i++)
+            vector[dimIndices[i]] = savedValues[i];
+        return eval;
+    }
+
+    /**
+     * Evaluates the context vector itself.
+     */
+    public double evaluate()
+    {
+        if(partials == null)
+            return function.compute(vector);
+
+        double eval = 0;
+        for(double partial : partials)
+            eval += partial;
+        return eval;
+    }
+
+    /**
+     * Evaluates every row of candidates in the context vector, the fitness of row r is written to fitnesses[r].
+     * Functions with a single group receive all complete vectors in one call.
+     */
+    public void evaluate(Population candidates, double[] fitnesses)
+    {
+        int numRows = candidates.getNumRows();
+        if(partials != null)
+        {
+            // Incremental evaluation is already cheaper than building the complete vectors
+            for(int r = 0; r < numRows; r++)
+                fitnesses[r] = evaluate(candidates.getRow(r));
+            return;
+        }
+
+        int length = vector.length;
+        if(batch.length < numRows * length)
+            batch = new double[numRows * length];
+
+        for(int r = 0; r < numRows; r++)
+            System.arraycopy(vector, 0, batch, r * length, length);
+        candidates.scatter(batch, length);
+        function.compute(batch, numRows, fitnesses);
+    }
+
+    public double[] getVector() { return vector; }
+}
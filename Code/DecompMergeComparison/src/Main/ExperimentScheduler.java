@@ -0,0 +1,262 @@
+package Main;
+
+import func.Function;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class runs the whole (algorithm x dimensions x function x run) grid of a campaign on a fixed pool of worker
+ * threads, one per core by default, instead of one thread per run of a single function. Campaigns of several
+ * dimensions share the pool, and with it the code already compiled by the JIT, instead of each starting its own JVM.
+ *
+ * Runs are started longest expected first, so the cores are not left idle behind one slow run at the end. The expected
+ * length of a run is the measured time of one evaluation of its function times its evaluation budget, which grows with
+ * the number of dimensions. Each function keeps its line in the result file of a series, i.e. an algorithm on one number of dimensions,
+ * written in function order as soon as all of its runs and those of the preceding functions have finished.
+ *
+ * A run that fails only loses its own result, recorded as NaN, the other runs of the campaign carry on.
+ */
+public class ExperimentScheduler
+{
+    private static final int WARM_UP_EVALS = 10;
+    private static final int TIMED_EVALS = 20;
+    private static final int EVALS_PER_DIMENSION = 3000; // The evaluation budget of every algorithm
+
+    private final Main main;
+    private final int numThreads;
+    private final List<AlgorithmType> algorithms = new ArrayList<AlgorithmType>(); // Per series
+    private final List<Integer> dimensions = new ArrayList<Integer>();
+    private final List<Writer> writers = new ArrayList<Writer>();
+
+    private Cell[][] cells; // [series][function]
+    private int[] nextCellToWrite; // Per series, the first function whose line has not been written yet
+    private IOException writeError;
+
+    public ExperimentScheduler(Main main, int numThreads)
+    {
+        this.main = main;
+        this.numThreads = numThreads;
+    }
+
+    // Results of the algorithm on functions of dim dimensions are written to writer, which is closed once all its
+    // functions are done
+    public void addSeries(AlgorithmType algo, int dim, Writer writer)
+    {
+        algorithms.add(algo);
+        dimensions.add(dim);
+        writers.add(writer);
+    }
+
+    public void run(int firstFunction, int lastFunction, int runsPerFunction) throws IOException, InterruptedException
+    {
+        int numFunctions = lastFunction - firstFunction + 1;
+        Map<Integer, RunContext[]> contexts = new HashMap<Integer, RunContext[]>(); // Per number of dimensions
+        Map<Integer, double[]> evaluationTimes = new HashMap<Integer, double[]>();
+        Random numGen = new Random();
+
+        for(Integer dim : dimensions)
+        {
+            if(contexts.containsKey(dim))
+                continue;
+
+            RunContext[] dimContexts = new RunContext[numFunctions];
+            double[] dimTimes = new double[numFunctions];
+            for(int f = 0; f < numFunctions; f++)
+            {
+                dimContexts[f] = main.createRunContext(firstFunction + f, dim); // Immutable, so all its runs share it
+                dimTimes[f] = estimateEvaluationTime(dimContexts[f].getFunction(), numGen);
+            }
+            contexts.put(dim, dimContexts);
+            evaluationTimes.put(dim, dimTimes);
+        }
+
+        cells = new Cell[algorithms.size()][numFunctions];
+        nextCellToWrite = new int[algorithms.size()];
+        List<RunTask> tasks = new ArrayList<RunTask>();
+        for(int a = 0; a < algorithms.size(); a++)
+        {
+            RunContext[] dimContexts = contexts.get(dimensions.get(a));
+            double[] dimTimes = evaluationTimes.get(dimensions.get(a));
+            for(int f = 0; f < numFunctions; f++)
+            {
+                cells[a][f] = new Cell(firstFunction + f, runsPerFunction);
+                for(int r = 0; r < runsPerFunction; r++)
+                    tasks.add(new RunTask(a, f, r, dimContexts[f],
+                            dimTimes[f] * EVALS_PER_DIMENSION * dimContexts[f].getTotalDimensions()));
+            }
+        }
+
+        // The pool starts tasks in the order they are submitted, so submitting them sorted is enough to run the
+        // longest first
+        Collections.sort(tasks);
+        System.out.println("Scheduling " + tasks.size() + " runs on " + numThreads + " threads.");
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        for(RunTask task : tasks)
+            executor.execute(task);
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+
+        synchronized(this)
+        {
+            if(writeError != null)
+                throw writeError;
+        }
+    }
+
+    // Times a few evaluations of a random point, only the relative order of the estimates matters
+    private static double estimateEvaluationTime(Function f, Random numGen)
+    {
+        double[] x = new double[f.getDimension()];
+        for(int i = 0; i < x.length; i++)
+            x[i] = f.getMin() + numGen.nextDouble() * (f.getMax() - f.getMin());
+
+        for(int i = 0; i < WARM_UP_EVALS; i++)
+            f.compute(x);
+        long start = System.nanoTime();
+        for(int i = 0; i < TIMED_EVALS; i++)
+            f.compute(x);
+        return (System.nanoTime() - start) / (double) TIMED_EVALS;
+    }
+
+    private synchronized void runStarted(int algoIndex, int funcIndex)
+    {
+        Cell cell = cells[algoIndex][funcIndex];
+        if(cell.startTime == 0)
+            cell.startTime = System.currentTimeMillis();
+    }
+
+    private synchronized void runFinished(int algoIndex, int funcIndex, int run, double result)
+    {
+        Cell cell = cells[algoIndex][funcIndex];
+        cell.results[run] = result;
+        cell.remaining--;
+        if(cell.remaining > 0)
+            return;
+
+        cell.duration = System.currentTimeMillis() - cell.startTime;
+        try
+        {
+            writeFinishedCells(algoIndex);
+        }
+        catch(IOException e)
+        {
+            if(writeError == null)
+                writeError = e;
+        }
+    }
+
+    private void writeFinishedCells(int algoIndex) throws IOException
+    {
+        Writer writer = writers.get(algoIndex);
+        Cell[] row = cells[algoIndex];
+        while(nextCellToWrite[algoIndex] < row.length && row[nextCellToWrite[algoIndex]].remaining == 0)
+        {
+            Cell cell = row[nextCellToWrite[algoIndex]++];
+            double testAvg = 0;
+            double min = Double.MAX_VALUE;
+
+            for(int j = 0; j < cell.results.length; j++)
+            {
+                writer.append(Double.toString(cell.results[j]));
+                writer.append(',');
+                testAvg += cell.results[j];
+                if(cell.results[j] < min)
+                    min = cell.results[j];
+            }
+            testAvg = testAvg / cell.results.length;
+
+            System.out.println(algorithms.get(algoIndex).name() + "_" + dimensions.get(algoIndex) + "dim F" +
+                    cell.funcId + " | Min: " + min +
+                    " | Average: " + testAvg + " | Duration: " + main.convertMilliseconds(cell.duration));
+            writer.append(Double.toString(min));
+            writer.append(",");
+            writer.append(Double.toString(testAvg));
+            writer.append('\n');
+            writer.flush();
+        }
+
+        if(nextCellToWrite[algoIndex] == row.length)
+            writer.close();
+    }
+
+    // The runs of one series on one function
+    private static class Cell
+    {
+        final int funcId;
+        final double[] results;
+        int remaining;
+        long startTime;
+        long duration;
+
+        Cell(int funcId, int runs)
+        {
+            this.funcId = funcId;
+            results = new double[runs];
+            remaining = runs;
+        }
+    }
+
+    private class RunTask implements Runnable, Comparable<RunTask>
+    {
+        private final int algoIndex;
+        private final int funcIndex;
+        private final int run;
+        private final RunContext context;
+        private final double expectedTime;
+
+        RunTask(int algoIndex, int funcIndex, int run, RunContext context, double expectedTime)
+        {
+            this.algoIndex = algoIndex;
+            this.funcIndex = funcIndex;
+            this.run = run;
+            this.context = context;
+            this.expectedTime = expectedTime;
+        }
+
+        public void run()
+        {
+            double result = Double.NaN; // Recorded for a run that fails
+            runStarted(algoIndex, funcIndex);
+            try
+            {
+                Algorithm algo = Main.algorithmSelection(algorithms.get(algoIndex), context.forRun(run));
+                result = algo.start();
+                System.out.println("Result: " + result); // This is thread-safe per JDK source
+            }
+            catch (Throwable t)
+            {
+                // Also an Error, ex. a failed assertion or a StackOverflowError, so the pool thread carries on with the
+                // next run instead of dying with it
+                System.err.println("Run " + run + " of " + algorithms.get(algoIndex).name() + "_" +
+                        dimensions.get(algoIndex) + "dim F" + cells[algoIndex][funcIndex].funcId + " failed:");
+                t.printStackTrace();
+            }
+            finally
+            {
+                runFinished(algoIndex, funcIndex, run, result);
+            }
+        }
+
+        // Longest expected first, ties in grid order
+        public int compareTo(RunTask other)
+        {
+            if(expectedTime != other.expectedTime)
+                return (expectedTime > other.expectedTime) ? -1 : 1;
+            if(funcIndex != other.funcIndex)
+                return funcIndex - other.funcIndex;
+            if(algoIndex != other.algoIndex)
+                return algoIndex - other.algoIndex;
+            return run - other.run;
+        }
+    }
+}
@@ -39,129 +39,89 @@ import PSO.CPSO;
 import PSO.DCPSO;
 import PSO.MCPSO;
 import PSO.PSO;
-import func.Defaults;
-import func.Function;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class Main
 {
     private static final int TOTAL_TESTS = 20; // 30
-    private static final double[] RUN_RESULTS = new double[TOTAL_TESTS];
 
-    public static boolean isBenchmark2013 = false; // Use 2013 benchmark suite if true, else use 2010 benchmarks
-    public static int totalDimensions = 30;
-    public static AlgorithmType currentAlgorithm = AlgorithmType.DCPSO;
-    private static int resultCount = 0; // Count number of completed runs
-    public static int funcId = 1; // Current benchmark function number
-    private static int startingFunction = 1;
-    private static double maxPos;
-    private static double minPos;
+    private final AlgorithmType[] algorithms;
+    private final int[] dimensions; // Campaigns of all these dimensions run side by side
+    private final boolean isBenchmark2013; // Use 2013 benchmark suite if true, else use 2010 benchmarks
+    private final boolean batchEvaluation; // Create a whole generation of candidates before evaluating them
+    private final int numThreads;
+    private final int subpopulationThreads; // Update the sub-populations of cooperative algorithms in parallel if > 0
+    private final boolean asynchronousSubpopulations; // Without waiting for each other between generations
+    private final Long seed; // Seed of the whole campaign so it can be replayed, null for a random one
+    private final int startingFunction;
+    private ExecutorService subpopulationExecutor;
 
-    public Main()
+    public Main(AlgorithmType[] algorithms, int[] dimensions, boolean isBenchmark2013, boolean batchEvaluation,
+                int numThreads, int subpopulationThreads, boolean asynchronousSubpopulations, Long seed,
+                int startingFunction)
     {
+        this.algorithms = algorithms;
+        this.dimensions = dimensions;
+        this.isBenchmark2013 = isBenchmark2013;
+        this.batchEvaluation = batchEvaluation;
+        this.numThreads = numThreads;
+        this.subpopulationThreads = subpopulationThreads;
+        this.asynchronousSubpopulations = asynchronousSubpopulations;
+        this.seed = seed;
+        this.startingFunction = startingFunction;
         runAlgorithmBenchmarks();
     }
 
     public void runAlgorithmBenchmarks()
     {
+        if(subpopulationThreads > 0)
+            subpopulationExecutor = Executors.newFixedThreadPool(subpopulationThreads);
         try
         {
-            String fileName = createFileName();
-            String path = "Output/" + ((isBenchmark2013)?"2013":"2010") + "/" + totalDimensions;
-
-            File directory = new File(path);
-            if (!directory.exists())
-                directory.mkdirs();
-
-            File file = new File(path + "/" + fileName);
-            FileWriter writer = new FileWriter(file);
-
-            int numFunctions = (isBenchmark2013)?15:20;
-            for (int i = startingFunction; i <= numFunctions; i++) //For each function
+            ExperimentScheduler scheduler = new ExperimentScheduler(this, numThreads);
+            for(int dim : dimensions)
             {
-                long startTime = System.currentTimeMillis();
-                resultCount = 0;
-                funcId = i;
-                Function f = functionSelection(i);
-                minPos = f.getMin();
-                maxPos = f.getMax();
-                System.out.println("Starting tests on function " + i + ": " + f);
-                System.out.println("Domain min: " + minPos + " | Domain max: " + maxPos + " | Time: " + startTime);
-                Thread[] threads = new Thread[TOTAL_TESTS];
-
-                for(int x = 0; x < TOTAL_TESTS; x++) // For each test run
-                {
-                    // All of our algorithm implementations are designed to be thread-safe
-                    threads[x] = new Thread(new Runnable()
-                    {
-                        @Override
-                        public void run()
-                        {
-                            try
-                            {
-                                Function f = functionSelection(funcId);
-                                Algorithm algo = algorithmSelection(currentAlgorithm, f);
-                                double result = algo.start();
-                                saveResult(result);
-                                System.out.println("Result: " + result); // This is thread-safe per JDK source
-                            }
-                            catch (Exception e)
-                            {
-                                e.printStackTrace();
-                            }
-                        }
-                    });
-                    threads[x].start();
-                }
+                String path = "Output/" + ((isBenchmark2013)?"2013":"2010") + "/" + dim;
 
-                // Wait until all threads are finished before continuing
-                for(Thread aThread : threads)
-                {
-                    aThread.join();
-                }
-                System.out.println("All threads have finished.");
+                File directory = new File(path);
+                if (!directory.exists())
+                    directory.mkdirs();
 
-                double testAvg = 0;
-                double min = Double.MAX_VALUE;
-
-                for (int j = 0; j < TOTAL_TESTS; j++)
-                {
-                    writer.append(Double.toString(RUN_RESULTS[j]));
-                    writer.append(',');
-                    testAvg += RUN_RESULTS[j];
-                    if(RUN_RESULTS[j] < min)
-                        min = RUN_RESULTS[j];
-                }
-                testAvg = testAvg / TOTAL_TESTS;
-
-                System.out.println("F" + i + " | Min: " + min + " | Average: " + testAvg +
-                        " | Duration: " + convertMilliseconds(System.currentTimeMillis() - startTime));
-                writer.append(Double.toString(min));
-                writer.append(",");
-                writer.append(Double.toString(testAvg));
-                writer.append('\n');
-                writer.flush();
+                for(AlgorithmType algo : algorithms)
+                    scheduler.addSeries(algo, dim, new FileWriter(new File(path + "/" + createFileName(algo, dim))));
             }
-            writer.close();
+
+            long startTime = System.currentTimeMillis();
+            int numFunctions = (isBenchmark2013)?15:20;
+            scheduler.run(startingFunction, numFunctions, TOTAL_TESTS);
+            System.out.println("All runs have finished. | Duration: " +
+                    convertMilliseconds(System.currentTimeMillis() - startTime));
         }
         catch(Exception e)
         {
             System.out.println("Error: " + e);
         }
+        finally
+        {
+            if(subpopulationExecutor != null)
+                subpopulationExecutor.shutdown();
+        }
     }
 
-    public String createFileName()
+    public String createFileName(AlgorithmType algo, int dim)
     {
         StringBuilder fileName = new StringBuilder();
         fileName.append("./");
-        fileName.append(currentAlgorithm.name());
+        fileName.append(algo.name());
 
         fileName.append("_");
-        fileName.append(totalDimensions);
+        fileName.append(dim);
         fileName.append("dim");
 
         if(isBenchmark2013)
@@ -175,12 +135,6 @@ public class Main
         return fileName.toString();
     }
 
-    public static synchronized void saveResult(double result)
-    {
-        RUN_RESULTS[resultCount] = result;
-        resultCount++;
-    }
-
     public static AlgorithmType getAlgorithmTypeFromName(String name)
     {
         if(name.equalsIgnoreCase("Main.RandomSearch"))
@@ -193,6 +147,8 @@ public class Main
             return AlgorithmType.DCPSO;
         else if (name.equalsIgnoreCase("MCPSO"))
             return AlgorithmType.MCPSO;
+        else if (name.equalsIgnoreCase("DE"))
+            return AlgorithmType.DE;
         else if (name.equalsIgnoreCase("CCDE"))
             return AlgorithmType.CCDE;
         else if (name.equalsIgnoreCase("DCDE"))
@@ -210,105 +166,119 @@ public class Main
         return null;
     }
 
-    public Algorithm algorithmSelection(AlgorithmType algo, func.Function func)
+    // The context shared by all runs of a function, it is immutable
+    public RunContext createRunContext(int function, int dim)
+    {
+        RunContext context = new RunContext(functionSelection(function, dim), isBenchmark2013, batchEvaluation,
+                subpopulationExecutor, subpopulationThreads, asynchronousSubpopulations);
+        if(seed == null)
+            return context;
+        return context.withSeed(SplitRandom.mixSeed(SplitRandom.mixSeed(seed, dim), function));
+    }
+
+    public static Algorithm algorithmSelection(AlgorithmType algo, RunContext context)
     {
         switch(algo)
         {
             case RandomSearch:
-                return new RandomSearch(func);
+                return new RandomSearch(context);
             case PSO:
-                return new PSO(func);
+                return new PSO(context);
             case CPSO:
-                return new CPSO(func);
+                return new CPSO(context);
             case DCPSO:
-                return new DCPSO(func);
+                return new DCPSO(context);
             case MCPSO:
-                return new MCPSO(func);
+                return new MCPSO(context);
             case DE:
-                return new DE(func);
+                return new DE(context);
             case CCDE:
-                return new CCDE(func);
+                return new CCDE(context);
             case DCDE:
-                return new DCDE(func);
+                return new DCDE(context);
             case MCDE:
-                return new MCDE(func);
+                return new MCDE(context);
             case ABC:
-                return new ABC(func);
+                return new ABC(context);
             case CABC:
-                return new CABC(func);
+                return new CABC(context);
             case DCABC:
-                return new DCABC(func);
+                return new DCABC(context);
             case MCABC:
-                return new MCABC(func);
+                return new MCABC(context);
         }
         System.out.println("ERROR: Invalid algorithm specified.");
         return null;
     }
 
-    public func.Function functionSelection(int function)
+    public func.Function functionSelection(int function, int dim)
     {
-        func.Function f = new func.F1();
+        // The 2013 functions have fixed data, at 1000 dimensions (905 for F13 and F14)
+        if(isBenchmark2013)
+            return func.CEC2013Function.getInstance(function);
+
+        func.Function f = null;
         switch (function)
         {
             case 1:
-                f = new func.F1();
+                f = new func.F1(dim);
                 break;
             case 2:
-                f = new func.F2();
+                f = new func.F2(dim);
                 break;
             case 3:
-                f = new func.F3();
+                f = new func.F3(dim);
                 break;
             case 4:
-                f = new func.F4();
+                f = new func.F4(dim);
                 break;
             case 5:
-                f = new func.F5();
+                f = new func.F5(dim);
                 break;
             case 6:
-                f = new func.F6();
+                f = new func.F6(dim);
                 break;
             case 7:
-                f = new func.F7();
+                f = new func.F7(dim);
                 break;
             case 8:
-                f = new func.F8();
+                f = new func.F8(dim);
                 break;
             case 9:
-                f = new func.F9();
+                f = new func.F9(dim);
                 break;
             case 10:
-                f = new func.F10();
+                f = new func.F10(dim);
                 break;
             case 11:
-                f = new func.F11();
+                f = new func.F11(dim);
                 break;
             case 12:
-                f = new func.F12();
+                f = new func.F12(dim);
                 break;
             case 13:
-                f = new func.F13();
+                f = new func.F13(dim);
                 break;
             case 14:
-                f = new func.F14();
+                f = new func.F14(dim);
                 break;
             case 15:
-                f = new func.F15();
+                f = new func.F15(dim);
                 break;
             case 16:
-                f = new func.F16();
+                f = new func.F16(dim);
                 break;
             case 17:
-                f = new func.F17();
+                f = new func.F17(dim);
                 break;
             case 18:
-                f = new func.F18();
+                f = new func.F18(dim);
                 break;
             case 19:
-                f = new func.F19();
+                f = new func.F19(dim);
                 break;
             case 20:
-                f = new func.F20();
+                f = new func.F20(dim);
                 break;
         }
         return f;
@@ -325,15 +295,26 @@ public class Main
 
     public static void main(String[] args)
     {
+        AlgorithmType[] algorithms = { AlgorithmType.DCPSO };
+        int[] dimensions = { 30 };
+        boolean isBenchmark2013 = false;
+        int startingFunction = 1;
+
         if((args.length < 3 || args.length > 4) && args.length > 0)
         {
-            System.out.println("Command args: [Algorithm] [Dimensions] [Benchmark Year] (Starting function number)");
+            System.out.println("Command args: [Algorithm[,Algorithm...]] [Dimensions[,Dimensions...]] [Benchmark Year] (Starting function number)");
             System.exit(0);
         }
         if(args.length > 0)
         {
-            currentAlgorithm = getAlgorithmTypeFromName(args[0]);
-            totalDimensions = Integer.parseInt(args[1]);
+            String[] names = args[0].split(",");
+            algorithms = new AlgorithmType[names.length];
+            for(int i = 0; i < names.length; i++)
+                algorithms[i] = getAlgorithmTypeFromName(names[i]);
+            String[] dims = args[1].split(",");
+            dimensions = new int[dims.length];
+            for(int i = 0; i < dims.length; i++)
+                dimensions[i] = Integer.parseInt(dims[i]);
             if(Integer.parseInt(args[2]) == 2013)
                 isBenchmark2013 = true;
             if(args.length == 4)
@@ -345,22 +326,46 @@ public class Main
             System.out.println("Invalid starting function number specified (" + startingFunction + ").");
             System.exit(0);
         }
-        if(totalDimensions < 25 || totalDimensions > 10000)
+        for(int dim : dimensions)
         {
-            System.out.printf("Invalid number of dimensions specified (" + totalDimensions + " ).");
-            System.exit(0);
+            if(dim < 25 || dim > 10000)
+            {
+                System.out.printf("Invalid number of dimensions specified (" + dim + " ).");
+                System.exit(0);
+            }
+            if(isBenchmark2013 && dim != 1000)
+            {
+                System.out.println("The 2013 benchmark suite only has 1000 dimensions (" + dim + ").");
+                System.exit(0);
+            }
         }
 
-        if(currentAlgorithm != null)
-            System.out.println("ALGORITHM: " + currentAlgorithm.name());
-        System.out.println("DIMENSIONS: " + totalDimensions);
+        for(AlgorithmType algo : algorithms)
+        {
+            if(algo == null)
+            {
+                System.out.println("Invalid algorithm specified (" + args[0] + ").");
+                System.exit(0);
+            }
+        }
+
+        boolean batchEvaluation = Boolean.getBoolean("batchEvaluation"); // -DbatchEvaluation=true
+        int numThreads = Integer.getInteger("threads", Runtime.getRuntime().availableProcessors()); // -Dthreads=4
+        int subpopulationThreads = Integer.getInteger("subpopulationThreads", 0); // -DsubpopulationThreads=4
+        boolean asynchronousSubpopulations = Boolean.getBoolean("asynchronous"); // -Dasynchronous=true
+        Long seed = Long.getLong("seed"); // -Dseed=42
+
+        for(AlgorithmType algo : algorithms)
+            System.out.println("ALGORITHM: " + algo.name());
+        for(int dim : dimensions)
+            System.out.println("DIMENSIONS: " + dim);
         System.out.println("BENCHMARK SUITE YEAR: " + ((isBenchmark2013)?"2013":"2010"));
-        func.Defaults.DEFAULT_DIM = totalDimensions;
-        Defaults.benchmark2013 = isBenchmark2013;
-        new Main();
+        System.out.println("BATCH EVALUATION: " + batchEvaluation);
+        System.out.println("THREADS: " + numThreads);
+        System.out.println("SUBPOPULATION THREADS: " + subpopulationThreads);
+        System.out.println("ASYNCHRONOUS SUBPOPULATIONS: " + asynchronousSubpopulations);
+        System.out.println("SEED: " + ((seed == null)?"random":seed.toString()));
+        new Main(algorithms, dimensions, isBenchmark2013, batchEvaluation, numThreads, subpopulationThreads,
+                asynchronousSubpopulations, seed, startingFunction);
     }
-
-    public static double getMaxPos() { return maxPos; }
-    public static double getMinPos() { return minPos; }
 }
-
@@ -0,0 +1,52 @@
+package Main;
+
+/**
+ * This class updates the sub-populations of a cooperative algorithm in parallel, an opt-in alternative to updating
+ * them one after the other that lets a single large run use every core.
+ *
+ * While the sub-populations are updated, the algorithm routes their calls (fitness evaluations, the overall best
+ * fitness, and context vector updates) to the Slot returned by currentSlot() on the calling thread.
+ */
+public abstract class ParallelSubpopulations
+{
+    // Updates and evaluates one sub-population for one generation
+    public interface Step
+    {
+        void update(int subpopulation);
+    }
+
+    // The state a sub-population sees while it is updated in parallel with the others
+    public interface Slot
+    {
+        double evaluate(Position posToEval);
+        void evaluate(Population candidates, double[] fitnesses);
+        double getBestFitness();
+        void setBestFitness(double fitness);
+        void updateContextVector(Position best);
+    }
+
+    // Returns null unless the run asks for the sub-populations to be updated in parallel
+    public static ParallelSubpopulations create(RunContext context, ContextVector contextVector)
+    {
+        if(context.getSubpopulationExecutor() == null)
+            return null;
+        if(context.isAsynchronousSubpopulations())
+            return new AsynchronousCooperation(context.getSubpopulationExecutor(), context.getSubpopulationThreads(),
+                    contextVector);
+        return new SynchronousGeneration(context.getSubpopulationExecutor(), context.getSubpopulationThreads(),
+                contextVector);
+    }
+
+    /**
+     * Updates sub-populations 0 to count - 1 against the context vector, whose fitness is bestFitness, until about
+     * budget evaluations were made, and writes their bests into the context vector. Returns the number of evaluations
+     * made.
+     */
+    public abstract int run(int count, double bestFitness, int budget, Step step);
+
+    // The fitness of the context vector after the last call to run
+    public abstract double getBestFitness();
+
+    // The slot of the sub-population the calling thread is updating, null if it is not updating one
+    public abstract Slot currentSlot();
+}
@@ -0,0 +1,82 @@
+package Main;
+
+/**
+ * This class stores the vectors of a (sub-)population in one flat, primitive-backed array.
+ *
+ * Row r occupies values[r * numDims] to values[(r + 1) * numDims - 1], and every row shares the same array of decision
+ * variable indices. Rows are accessed through Position views, so no per-coordinate objects are created.
+ *
+ * A population can also be a view of some decision variables in a store, a population whose rows are complete vectors.
+ * When every sub-population of a cooperative algorithm is a view of the same store, row r of each of them belongs to
+ * the same complete vector, so the sub-populations can be regrouped by creating new views, without copying a value.
+ */
+public class Population
+{
+    private final double[] values;
+    private final int[] dimIndices;
+    private final int numRows;
+    private final int numDims;
+    private final Position[] rows;
+    private final boolean store; // The rows are complete vectors, the decision variables are 0 to numDims - 1
+
+    public Population(int numRows, int[] dimIndices)
+    {
+        this(numRows, dimIndices, false);
+    }
+
+    private Population(int numRows, int[] dimIndices, boolean store)
+    {
+        this.numRows = numRows;
+        this.numDims = dimIndices.length;
+        this.dimIndices = dimIndices;
+        this.store = store;
+        values = new double[numRows * numDims];
+        rows = new Position[numRows];
+
+        for(int r = 0; r < numRows; r++)
+            rows[r] = new Position(values, r * numDims, dimIndices, numDims);
+    }
+
+    // Creates a view of the decision variables dimIndices in every row of store
+    public Population(Population store, int[] dimIndices)
+    {
+        assert store.store: "Only a store can be viewed";
+
+        this.numRows = store.numRows;
+        this.numDims = dimIndices.length;
+        this.dimIndices = dimIndices;
+        this.store = false;
+        values = store.values;
+        rows = new Position[numRows];
+
+        for(int r = 0; r < numRows; r++)
+            rows[r] = new Position(values, r * store.numDims, dimIndices, numDims, true);
+    }
+
+    // Creates a store of numRows complete vectors, whose views make up the sub-populations of a cooperative algorithm
+    public static Population createStore(int numRows, int totalDimensions)
+    {
+        int[] dimIndices = new int[totalDimensions];
+        for(int i = 0; i < totalDimensions; i++)
+            dimIndices[i] = i;
+        return new Population(numRows, dimIndices, true);
+    }
+
+    // Writes each row into dest as part of a complete vector of length totalDimensions, row r starting at
+    // r * totalDimensions. Entries of dest that belong to other decision variables are left untouched
+    public void scatter(double[] dest, int totalDimensions)
+    {
+        for(int r = 0; r < numRows; r++)
+        {
+            int rowStart = r * totalDimensions;
+            for(int i = 0; i < numDims; i++)
+                dest[rowStart + dimIndices[i]] = rows[r].getValue(i);
+        }
+    }
+
+    public Position getRow(int index) { return rows[index]; }
+    public Position[] getRows() { return rows; }
+    public int getNumRows() { return numRows; }
+    public int getNumDimensions() { return numDims; }
+    public int[] getDimIndices() { return dimIndices; }
+}
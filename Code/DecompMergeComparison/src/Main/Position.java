@@ -2,67 +2,103 @@ package Main;
 
 import java.util.Random;
 
+/**
+ * This class is a view of one vector: numDims values starting at offset in a backing array, together with the decision
+ * variable index of each value. The backing array is either owned by the position or is a row of a Population.
+ *
+ * The row of a population that views a complete vector per row holds every decision variable, so the value of decision
+ * variable v is found at offset + v instead of following the previous value.
+ */
 public class Position
 {
-    private Coordinate[] coords;
+    private final double[] values;
+    private final int offset;
+    private final int numDims;
+    private final int[] dimIndices;
+    private final boolean complete; // The backing vector is complete, values are at offset + dimIndices[i]
 
     public Position(int[] decisionVars, int numDims)
     {
-        coords = new Coordinate[numDims];
+        this(new double[numDims], 0, decisionVars, numDims);
+    }
 
-        for(int i = 0; i < numDims; i++)
-        {
-            coords[i] = new Coordinate(0, decisionVars[i]);
-        }
+    public Position(double[] values, int offset, int[] dimIndices, int numDims)
+    {
+        this(values, offset, dimIndices, numDims, false);
     }
 
-    public void randomize(Random numGen)
+    Position(double[] values, int offset, int[] dimIndices, int numDims, boolean complete)
     {
-        for(int i = 0; i < coords.length; i++)
-        {
-            coords[i].setRandomValue(Main.getMinPos(), Main.getMaxPos(), numGen);
-        }
+        this.values = values;
+        this.offset = offset;
+        this.dimIndices = dimIndices;
+        this.numDims = numDims;
+        this.complete = complete;
     }
 
-    public Position(Coordinate[] c)
+    public void randomize(RunContext context, Random numGen)
     {
-        this.coords = new Coordinate[c.length];
-        for(int i = 0; i < c.length; i++)
-        {
-            this.coords[i] = c[i].clone();
-        }
+        double min = context.getMinPos();
+        double max = context.getMaxPos();
+
+        for(int i = 0; i < numDims; i++)
+            values[index(i)] = (numGen.nextDouble() * (max - min)) + min;
     }
 
+    // Returns a standalone copy that owns its values, the decision variable indices are shared
     public Position clone()
     {
-        return new Position(this.coords);
+        Position copy = new Position(dimIndices, numDims);
+        copy.copyFrom(this);
+        return copy;
     }
 
-    public double[] getValueVector()
+    // Copies the values of another position with the same decision variables into this one
+    public void copyFrom(Position other)
     {
-        double[] temp = new double[coords.length];
+        if(!complete && !other.complete)
+        {
+            System.arraycopy(other.values, other.offset, values, offset, numDims);
+            return;
+        }
 
-        for(int i = 0; i < coords.length; i++)
-            temp[i] = coords[i].getValue();
+        for(int i = 0; i < numDims; i++)
+            values[index(i)] = other.values[other.index(i)];
+    }
 
+    public double[] getValueVector()
+    {
+        double[] temp = new double[numDims];
+        for(int i = 0; i < numDims; i++)
+            temp[i] = values[index(i)];
         return temp;
     }
 
+    // Where the value at index is in the backing array
+    private int index(int index)
+    {
+        return (complete) ? offset + dimIndices[index] : offset + index;
+    }
+
     public String toString()
     {
         StringBuilder sb = new StringBuilder();
-        for(int i = 0; i < coords.length; i++)
+        for(int i = 0; i < numDims; i++)
         {
-            sb.append(coords[i].getValue());
+            sb.append(values[index(i)]);
             sb.append(" [");
-            sb.append(coords[i].getDimIndex());
+            sb.append(dimIndices[i]);
             sb.append("]");
-            if(i != coords.length - 1)
+            if(i != numDims - 1)
                 sb.append(", ");
         }
         return sb.toString();
     }
 
-    public Coordinate getCoordinate(int index) { return coords[index]; }
-    public Coordinate[] getCoordinates() { return coords; }
+    public double getValue(int index) { return values[index(index)]; }
+    public void setValue(int index, double value) { values[index(index)] = value; }
+    public void increaseValue(int index, double amount) { values[index(index)] += amount; }
+    public int getDimIndex(int index) { return dimIndices[index]; }
+    public int[] getDimIndices() { return dimIndices; }
+    public int getNumDimensions() { return numDims; }
 }
@@ -2,11 +2,6 @@ package Main;
 
 import func.Function;
 
-
-import java.util.Random;
-
-import static Main.Main.totalDimensions;
-
 public class RandomSearch extends Algorithm
 {
     private double overallBestFitness;
@@ -14,26 +9,28 @@ public class RandomSearch extends Algorithm
     private double MAX_EVAL;
     private int countEval;
     private Function evalFunc;
-    private Random numGen;
+    private SplitRandom numGen;
 
-    public RandomSearch(Function f)
+    public RandomSearch(RunContext context)
     {
+        super(context);
+        Function f = context.getFunction();
         evalFunc = f;
         overallBestFitness = Double.MAX_VALUE;
-        MAX_EVAL = Main.totalDimensions * 3000;
-        numGen = new Random();
-        bestPosition = new double[Main.totalDimensions];
+        MAX_EVAL = totalDimensions * 3000;
+        numGen = context.createRandom();
+        bestPosition = new double[totalDimensions];
     }
 
     public double start()
     {
-        double[] randomPosition = new double[Main.totalDimensions];
+        double[] randomPosition = new double[totalDimensions];
         double max = evalFunc.getMax();
         double min = evalFunc.getMin();
 
         while(countEval < MAX_EVAL)
         {
-            for(int d = 0; d < Main.totalDimensions; d++)
+            for(int d = 0; d < totalDimensions; d++)
             {
                 randomPosition[d] = (numGen.nextDouble() * (max - min)) + min;
             }
@@ -41,7 +38,7 @@ public class RandomSearch extends Algorithm
 
             if(eval < overallBestFitness)
             {
-                System.arraycopy(randomPosition, 0, bestPosition, 0, Main.totalDimensions);
+                System.arraycopy(randomPosition, 0, bestPosition, 0, totalDimensions);
                 overallBestFitness = eval;
             }
             countEval++;
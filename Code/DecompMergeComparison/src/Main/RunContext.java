@@ -0,0 +1,88 @@
+package Main;
+
+import func.Function;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * This class holds everything a single run depends on: the evaluation function, its number of dimensions and search
+ * bounds, the benchmark suite it belongs to, whether candidates are evaluated in batches, and the pool that updates
+ * the sub-populations of cooperative algorithms in parallel, if any, along with whether they wait for each other.
+ * It may also hold the seed of the random numbers of a run, so the run can be replayed.
+ *
+ * It is immutable and handed to the algorithm of the run instead of being read from static fields, so runs of
+ * different dimensions or benchmark suites can share one JVM.
+ */
+public final class RunContext
+{
+    private final Function function;
+    private final int totalDimensions;
+    private final boolean benchmark2013;
+    private final boolean batchEvaluation;
+    private final ExecutorService subpopulationExecutor; // Null to update sub-populations one after the other
+    private final int subpopulationThreads;
+    private final boolean asynchronousSubpopulations; // Sub-populations do not wait for each other between generations
+    private final boolean seeded;
+    private final long seed;
+
+    public RunContext(Function function, boolean benchmark2013, boolean batchEvaluation)
+    {
+        this(function, benchmark2013, batchEvaluation, null, 0, false);
+    }
+
+    public RunContext(Function function, boolean benchmark2013, boolean batchEvaluation,
+                      ExecutorService subpopulationExecutor, int subpopulationThreads,
+                      boolean asynchronousSubpopulations)
+    {
+        this.function = function;
+        this.totalDimensions = function.getDimension();
+        this.benchmark2013 = benchmark2013;
+        this.batchEvaluation = batchEvaluation;
+        this.subpopulationExecutor = subpopulationExecutor;
+        this.subpopulationThreads = subpopulationThreads;
+        this.asynchronousSubpopulations = asynchronousSubpopulations;
+        this.seeded = false;
+        this.seed = 0;
+    }
+
+    private RunContext(RunContext other, long seed)
+    {
+        this.function = other.function;
+        this.totalDimensions = other.totalDimensions;
+        this.benchmark2013 = other.benchmark2013;
+        this.batchEvaluation = other.batchEvaluation;
+        this.subpopulationExecutor = other.subpopulationExecutor;
+        this.subpopulationThreads = other.subpopulationThreads;
+        this.asynchronousSubpopulations = other.asynchronousSubpopulations;
+        this.seeded = true;
+        this.seed = seed;
+    }
+
+    // Returns a copy of this context whose runs draw their random numbers from seed
+    public RunContext withSeed(long seed)
+    {
+        return new RunContext(this, seed);
+    }
+
+    // The context of one run of a seeded campaign, each run gets a seed of its own
+    public RunContext forRun(int run)
+    {
+        return (seeded) ? withSeed(SplitRandom.mixSeed(seed, run)) : this;
+    }
+
+    // The random number generator of an algorithm, seeded if this context is
+    public SplitRandom createRandom()
+    {
+        return (seeded) ? new SplitRandom(seed) : new SplitRandom();
+    }
+
+    public Function getFunction() { return function; }
+    public int getTotalDimensions() { return totalDimensions; }
+    public boolean isBenchmark2013() { return benchmark2013; }
+    public boolean isBatchEvaluation() { return batchEvaluation; }
+    public ExecutorService getSubpopulationExecutor() { return subpopulationExecutor; }
+    public int getSubpopulationThreads() { return subpopulationThreads; }
+    public boolean isAsynchronousSubpopulations() { return asynchronousSubpopulations; }
+    public double getMinPos() { return function.getMin(); }
+    public double getMaxPos() { return function.getMax(); }
+}
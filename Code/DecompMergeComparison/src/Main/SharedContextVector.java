@@ -0,0 +1,99 @@
+package Main;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class holds the context vector of a cooperative algorithm whose sub-populations run asynchronously, without
+ * locks.
+ *
+ * Each component is stored as the bits of its double value together with a version, bumped after every write. A
+ * component belongs to a single sub-population at a time, so it only ever has one writer. Readers keep their own
+ * ContextVector and the versions they last saw, and only copy the components written since then.
+ */
+public class SharedContextVector
+{
+    private final AtomicLongArray values; // Double.doubleToRawLongBits of each component
+    private final AtomicIntegerArray versions;
+    private final AtomicLong published = new AtomicLong(); // Bumped after every write, lets readers skip the scan
+
+    public SharedContextVector(int totalDimensions)
+    {
+        values = new AtomicLongArray(totalDimensions);
+        versions = new AtomicIntegerArray(totalDimensions);
+    }
+
+    // Replaces every component by those of source, must not run concurrently with the other methods
+    public void load(ContextVector source)
+    {
+        double[] vector = source.getVector();
+        for(int i = 0; i < vector.length; i++)
+            write(i, vector[i]);
+        published.incrementAndGet();
+    }
+
+    // Writes a sub-population's best position into the shared context vector
+    public void publish(Position best)
+    {
+        int[] dimIndices = best.getDimIndices();
+        for(int i = 0; i < best.getNumDimensions(); i++)
+            write(dimIndices[i], best.getValue(i));
+        published.incrementAndGet();
+    }
+
+    private void write(int index, double value)
+    {
+        values.set(index, Double.doubleToRawLongBits(value));
+        versions.incrementAndGet(index); // After the value, so a reader seeing the new version sees the new value
+    }
+
+    /**
+     * Copies the components written since the last refresh of reader into its context vector.
+     */
+    public void refresh(Reader reader)
+    {
+        long stamp = published.get();
+        if(stamp == reader.published)
+            return;
+        reader.published = stamp;
+
+        int changed = 0;
+        for(int i = 0; i < reader.seen.length; i++)
+        {
+            int version = versions.get(i);
+            if(version != reader.seen[i])
+            {
+                reader.seen[i] = version;
+                reader.changedIndices[changed] = i;
+                reader.changedValues[changed] = Double.longBitsToDouble(values.get(i));
+                changed++;
+            }
+        }
+        if(changed > 0)
+            reader.vector.update(reader.changedIndices, reader.changedValues, changed);
+    }
+
+    /**
+     * A thread's own copy of the shared context vector.
+     */
+    public static class Reader
+    {
+        private final ContextVector vector;
+        private final int[] seen; // Version of each component when it was last copied
+        private final int[] changedIndices;
+        private final double[] changedValues;
+        private long published = -1;
+
+        public Reader(ContextVector vector)
+        {
+            this.vector = vector;
+            int totalDimensions = vector.getVector().length;
+            seen = new int[totalDimensions];
+            changedIndices = new int[totalDimensions];
+            changedValues = new double[totalDimensions];
+        }
+
+        public ContextVector getVector() { return vector; }
+    }
+}
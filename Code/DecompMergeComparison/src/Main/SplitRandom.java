@@ -0,0 +1,138 @@
+package Main;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class is a fast random number generator based on SplitMix64, the algorithm of java.util.SplittableRandom.
+ *
+ * Unlike java.util.Random, it does not update its state with a compare-and-set on every call, so it must only be used
+ * by one thread at a time. Each sub-population of a cooperative algorithm gets its own stream from split(), which
+ * lets the sub-populations be updated by different threads. It extends Random so it can be passed wherever one is
+ * expected, ex. MiscUtil.shuffleArray or Position.randomize.
+ *
+ * A generator created with a seed, and every stream split from it, produces the same numbers on every run.
+ */
+public class SplitRandom extends Random
+{
+    private static final long serialVersionUID = 1;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final double DOUBLE_UNIT = 1.0 / (1L << 53);
+    private static final AtomicLong defaultSeeds = new AtomicLong(mix64(System.currentTimeMillis()) ^
+            mix64(System.nanoTime()));
+
+    private long seed;
+    private long gamma; // Odd increment of the seed, differs between split streams
+
+    // Creates a generator whose seed differs from that of any other generator created this way
+    public SplitRandom()
+    {
+        this(mix64(defaultSeeds.getAndAdd(2 * GOLDEN_GAMMA)), GOLDEN_GAMMA);
+    }
+
+    public SplitRandom(long seed)
+    {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    private SplitRandom(long seed, long gamma)
+    {
+        super(0L);
+        this.seed = seed;
+        this.gamma = gamma;
+    }
+
+    // Returns a new generator whose numbers are independent from those of this one
+    public SplitRandom split()
+    {
+        return new SplitRandom(nextLong(), mixGamma(nextSeed()));
+    }
+
+    // Derives a seed from seed and value, ex. the seed of one run from the seed of the whole campaign
+    public static long mixSeed(long seed, long value)
+    {
+        return mix64(seed + (value + 1) * GOLDEN_GAMMA);
+    }
+
+    public void setSeed(long seed)
+    {
+        this.seed = seed;
+        gamma = GOLDEN_GAMMA;
+    }
+
+    private long nextSeed()
+    {
+        return seed += gamma;
+    }
+
+    protected int next(int bits)
+    {
+        return (int) (mix64(nextSeed()) >>> (64 - bits));
+    }
+
+    public int nextInt()
+    {
+        return mix32(nextSeed());
+    }
+
+    public int nextInt(int bound)
+    {
+        if(bound <= 0)
+            throw new IllegalArgumentException("bound must be positive");
+
+        int r = mix32(nextSeed());
+        int m = bound - 1;
+        if((bound & m) == 0) // Power of two
+            return r & m;
+
+        // Reject the values of the last, incomplete multiple of bound
+        for(int u = r >>> 1; u + m - (r = u % bound) < 0; u = mix32(nextSeed()) >>> 1)
+            ;
+        return r;
+    }
+
+    public long nextLong()
+    {
+        return mix64(nextSeed());
+    }
+
+    public double nextDouble()
+    {
+        return (mix64(nextSeed()) >>> 11) * DOUBLE_UNIT;
+    }
+
+    public boolean nextBoolean()
+    {
+        return mix32(nextSeed()) < 0;
+    }
+
+    // Fills values with uniform doubles in [0, 1), ex. the random coefficients of every dimension of a particle
+    public void fill(double[] values)
+    {
+        for(int i = 0; i < values.length; i++)
+            values[i] = (mix64(nextSeed()) >>> 11) * DOUBLE_UNIT;
+    }
+
+    private static long mix64(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int mix32(long z)
+    {
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+
+    // Makes an odd gamma with enough bit transitions for the stream to look random
+    private static long mixGamma(long z)
+    {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        int n = Long.bitCount(z ^ (z >>> 1));
+        return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+}
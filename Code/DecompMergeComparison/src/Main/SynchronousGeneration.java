@@ -0,0 +1,214 @@
+package Main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class updates the sub-populations of a cooperative algorithm in parallel, one generation per call to run.
+ *
+ * All sub-populations of a generation are evaluated against a snapshot of the context vector taken when the generation
+ * starts, every worker evaluating candidates in its own copy of it. The new sub-population bests are merged into the
+ * context vector at the barrier ending the generation, the most promising first. Each was only measured against the
+ * snapshot, or not against the overall best at all in ABC, so it is evaluated in the merged context vector and kept
+ * only if it improves it. Otherwise, improvements that conflict on non-separable functions could make the context
+ * vector worse.
+ */
+public class SynchronousGeneration extends ParallelSubpopulations
+{
+    private final ExecutorService executor;
+    private final int numThreads;
+    private final ContextVector contextVector;
+    private final ThreadLocal<GenerationSlot> currentSlot = new ThreadLocal<GenerationSlot>();
+    private final ConcurrentLinkedQueue<Copy> copies = new ConcurrentLinkedQueue<Copy>(); // One per worker at most
+    private final List<GenerationSlot> slots = new ArrayList<GenerationSlot>(); // Per sub-population, reused
+    private final AtomicInteger nextSubpopulation = new AtomicInteger();
+    private final AtomicInteger evaluationsDone = new AtomicInteger();
+
+    // State of the current generation, written before the workers are started
+    private int generation;
+    private int count;
+    private int budget;
+    private Step step;
+    private double bestFitness;
+
+    public SynchronousGeneration(ExecutorService executor, int numThreads, ContextVector contextVector)
+    {
+        this.executor = executor;
+        this.numThreads = numThreads;
+        this.contextVector = contextVector;
+    }
+
+    /**
+     * Updates each sub-population once and merges their new bests. Once budget evaluations were made, sub-populations
+     * not started yet are skipped, as the serial loops stop after the sub-population that used up the budget.
+     */
+    public int run(int count, double bestFitness, int budget, Step step)
+    {
+        generation++;
+        this.count = count;
+        this.budget = budget;
+        this.step = step;
+        this.bestFitness = bestFitness;
+        nextSubpopulation.set(0);
+        evaluationsDone.set(0);
+        while(slots.size() < count)
+            slots.add(new GenerationSlot());
+        for(int i = 0; i < count; i++)
+            slots.get(i).reset(bestFitness);
+
+        // Workers claim sub-populations one at a time, so sub-populations of different cost balance out
+        int numWorkers = Math.min(count, numThreads);
+        List<Callable<Object>> workers = new ArrayList<Callable<Object>>(numWorkers);
+        for(int w = 0; w < numWorkers; w++)
+            workers.add(new Worker());
+
+        try
+        {
+            for(Future<Object> result : executor.invokeAll(workers))
+                result.get();
+        }
+        catch(ExecutionException e)
+        {
+            throw new RuntimeException(e.getCause());
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        return merge();
+    }
+
+    private int merge()
+    {
+        int evaluations = 0;
+        GenerationSlot first = null;
+        for(int i = 0; i < count; i++)
+        {
+            GenerationSlot slot = slots.get(i);
+            evaluations += slot.evaluations;
+            if(slot.best != null && (first == null || slot.bestFitness < first.bestFitness))
+                first = slot;
+        }
+        if(first == null)
+            return evaluations;
+
+        evaluations += mergeBest(first);
+        for(int i = 0; i < count; i++)
+        {
+            GenerationSlot slot = slots.get(i);
+            if(slot.best != null)
+                evaluations += mergeBest(slot);
+        }
+        return evaluations;
+    }
+
+    // Writes the pending best of slot into the context vector if that improves it, returns the evaluations made
+    private int mergeBest(GenerationSlot slot)
+    {
+        double eval = contextVector.evaluate(slot.best);
+        if(eval < bestFitness)
+        {
+            contextVector.update(slot.best);
+            bestFitness = eval;
+        }
+        slot.best = null;
+        return 1;
+    }
+
+    public double getBestFitness() { return bestFitness; }
+    public Slot currentSlot() { return currentSlot.get(); }
+
+    private Copy acquireCopy()
+    {
+        Copy copy = copies.poll();
+        if(copy == null)
+        {
+            copy = new Copy();
+            copy.vector = new ContextVector(contextVector);
+        }
+        else if(copy.generation != generation)
+            copy.vector.copyFrom(contextVector);
+        copy.generation = generation;
+        return copy;
+    }
+
+    private class Worker implements Callable<Object>
+    {
+        public Object call()
+        {
+            Copy copy = acquireCopy();
+            try
+            {
+                int i;
+                while(evaluationsDone.get() < budget && (i = nextSubpopulation.getAndIncrement()) < count)
+                {
+                    GenerationSlot slot = slots.get(i);
+                    slot.copy = copy.vector;
+                    currentSlot.set(slot);
+                    try
+                    {
+                        step.update(i);
+                    }
+                    finally
+                    {
+                        currentSlot.remove();
+                    }
+                    evaluationsDone.addAndGet(slot.evaluations);
+                }
+            }
+            finally
+            {
+                copies.add(copy);
+            }
+            return null;
+        }
+    }
+
+    // A worker's copy of the snapshot of the context vector
+    private static class Copy
+    {
+        ContextVector vector;
+        int generation;
+    }
+
+    /**
+     * The state of one sub-population during a generation, only used by the thread updating it.
+     */
+    private static class GenerationSlot implements Slot
+    {
+        private ContextVector copy;
+        private int evaluations;
+        private double bestFitness;
+        private Position best; // New best of the sub-population, written into the context vector at the barrier
+
+        private void reset(double bestFitness)
+        {
+            evaluations = 0;
+            this.bestFitness = bestFitness;
+            best = null;
+        }
+
+        public double evaluate(Position posToEval)
+        {
+            evaluations++;
+            return copy.evaluate(posToEval);
+        }
+
+        public void evaluate(Population candidates, double[] fitnesses)
+        {
+            evaluations += candidates.getNumRows();
+            copy.evaluate(candidates, fitnesses);
+        }
+
+        public double getBestFitness() { return bestFitness; }
+        public void setBestFitness(double fitness) { bestFitness = fitness; }
+        public void updateContextVector(Position best) { this.best = best; }
+    }
+}
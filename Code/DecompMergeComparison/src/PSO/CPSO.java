@@ -2,12 +2,13 @@ package PSO;
 
 import func.Function;
 
-import java.util.Random;
-
-import Main.Coordinate;
+import Main.ContextVector;
 import Main.MiscUtil;
+import Main.Population;
 import Main.Position;
-import static Main.Main.totalDimensions;
+import Main.RunContext;
+import Main.ParallelSubpopulations;
+import Main.SplitRandom;
 
 /**
  * This class implements the Cooperative Particle Swarm Optimization algorithm.
@@ -19,8 +20,8 @@ public class CPSO extends Main.Algorithm
     public final double minPos;
     private final int maxEval;
     private int countEval;
-    private final Function evalFunc;
-    private final Random numGen;
+    private final SplitRandom numGen;
+    private final ContextVector contextVector;
 
     // Swarms
     public int totalSubswarms;
@@ -32,11 +33,12 @@ public class CPSO extends Main.Algorithm
     private final MiscUtil miscUtil;
 
 
-    public CPSO(Function f)
+    public CPSO(RunContext context)
     {
+        super(context);
+        Function f = context.getFunction();
         assert f.getDimension() == totalDimensions: "Number of dimensions does not match evaluation function dimensions";
 
-        evalFunc = f;
         maxPos = f.getMax();
         minPos = f.getMin();
         countEval = 0;
@@ -47,7 +49,9 @@ public class CPSO extends Main.Algorithm
         assert totalDimensions % totalDimensionsPerSwarm == 0: "Number of subswarms does not evenly divide dimensions";
 
         Swarms = new Swarm[totalSubswarms];
-        numGen = new Random();
+        numGen = context.createRandom();
+        contextVector = new ContextVector(f, totalDimensions);
+        parallel = ParallelSubpopulations.create(context, contextVector);
         miscUtil = new MiscUtil();
 
         // Get array of randomly shuffled decision variable indices
@@ -61,7 +65,7 @@ public class CPSO extends Main.Algorithm
             System.arraycopy(possibleDecisionVarIndices, totalDimensionsPerSwarm * i,
                     decVars, 0, totalDimensionsPerSwarm);
 
-            Swarms[i] = new Swarm(this, decVars, totalDimensionsPerSwarm, i, numGen);
+            Swarms[i] = new Swarm(this, decVars, totalDimensionsPerSwarm, i, numGen.split());
         }
 
         // Must wait until all swarms are initialized before calculating fitness
@@ -74,51 +78,79 @@ public class CPSO extends Main.Algorithm
         // Loop until max fitness evaluations are reached
         while(countEval < maxEval)
         {
-            for(Swarm s : Swarms)
-                s.updateSwarmPositions();
+            if(parallel != null)
+                updateSwarmsInParallel();
+            else
+            {
+                for(Swarm s : Swarms)
+                    s.updateSwarmPositions();
+            }
         }
         assert totalSubswarms == totalDimensions: "Swarms were not decomposed completely.";
         return overallBestFitness;
     }
 
+    // Updates the sub-swarms in parallel, for one generation or asynchronously until the budget is used up
+    private void updateSwarmsInParallel()
+    {
+        int budget = maxEval - countEval;
+        int evals = parallel.run(Swarms.length, overallBestFitness, budget,
+                new ParallelSubpopulations.Step()
+                {
+                    public void update(int subpopulation)
+                    {
+                        Swarms[subpopulation].updateSwarmPositions();
+                    }
+                });
+        countEval += evals;
+        overallBestFitness = parallel.getBestFitness();
+    }
+
     public double calculateFitness(int swarmIndex, Position posToEval)
     {
-        double[] vector = new double[totalDimensions];
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+            return slot.evaluate(posToEval);
 
-        for(int s = 0; s < totalSubswarms; s++)
+        countEval++;
+        return contextVector.evaluate(posToEval);
+    }
+
+    public void calculateFitness(int swarmIndex, Population candidates, double[] fitnesses)
+    {
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
         {
-            if(s == swarmIndex) // The swarm we're evaluating
-            {
-                for(int i = 0; i < posToEval.getCoordinates().length; i++)
-                {
-                    Coordinate coord = posToEval.getCoordinate(i);
-                    assert vector[coord.getDimIndex()] == 0: "ERROR: Overwriting same dimension in context vector (2)";
-                    vector[coord.getDimIndex()] = coord.getValue();
-                }
-            }
-            else // Not the swarm we're evaluating, use global best position
-            {
-                for(int i = 0; i < Swarms[s].numDimensions; i++)
-                {
-                    Coordinate coord = Swarms[s].getGlobalBestPosition().getCoordinate(i);
-                    assert vector[coord.getDimIndex()] == 0: "ERROR: Overwriting same dimension in context vector (3)";
-                    vector[coord.getDimIndex()] = coord.getValue();
-                }
-            }
+            slot.evaluate(candidates, fitnesses);
+            return;
         }
-        return evaluateVectorFitness(vector);
+
+        int numRows = candidates.getNumRows();
+        countEval += numRows;
+        contextVector.evaluate(candidates, fitnesses);
     }
 
-    private double evaluateVectorFitness(double[] vector)
+    public void updateContextVector(Position best)
     {
-        countEval++;
-        return evalFunc.compute(vector);
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+            slot.updateContextVector(best);
+        else
+            contextVector.update(best);
     }
 
-    public double getOverallBestFitness() { return overallBestFitness;}
+    public double getOverallBestFitness()
+    {
+        ParallelSubpopulations.Slot slot = currentSlot();
+        return (slot != null) ? slot.getBestFitness() : overallBestFitness;
+    }
     public void setOverallBestFitness(double fitness)
     {
-        overallBestFitness = fitness;
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+            slot.setBestFitness(fitness);
+        else
+            overallBestFitness = fitness;
     }
     public int getEvalBetweenDecomp() { return -1; }
     public int getCountEvalForDecomp() { return -1; }
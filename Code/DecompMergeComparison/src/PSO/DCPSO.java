@@ -1,13 +1,13 @@
 package PSO;
 
-
-import java.util.Random;
-
-import Main.Coordinate;
+import Main.ContextVector;
+import Main.Population;
 import Main.MiscUtil;
 import Main.Position;
+import Main.RunContext;
+import Main.ParallelSubpopulations;
+import Main.SplitRandom;
 import func.Function;
-import static Main.Main.*;
 
 
 public class DCPSO extends Main.Algorithm
@@ -17,9 +17,12 @@ public class DCPSO extends Main.Algorithm
     public final double minPos;
     private final int maxEval;
     private int countEval;
-    private final Function evalFunc;
-    private final Random numGen;
+    private final SplitRandom numGen;
+    private final ContextVector contextVector;
     private final MiscUtil miscUtil;
+    private final Population positionStore; // Complete vectors of the particles, the sub-swarms are views of them
+    private final Population velocityStore;
+    private final Population personalBestStore;
 
     // Swarms
     public int totalSubswarms;
@@ -31,9 +34,10 @@ public class DCPSO extends Main.Algorithm
     public int evalBetweenDecomp;
     public int countEvalForDecomp;
 
-    public DCPSO(Function f)
+    public DCPSO(RunContext context)
     {
-        evalFunc = f;
+        super(context);
+        Function f = context.getFunction();
         maxPos = f.getMax();
         minPos = f.getMin();
         countEval = 0;
@@ -43,8 +47,13 @@ public class DCPSO extends Main.Algorithm
         totalDimensionsPerSwarm = totalDimensions / totalSubswarms;
         evalBetweenDecomp = (int) (maxEval / (0 + (Math.log(totalDimensions) / Math.log(2))));
         Swarms = new Swarm[totalSubswarms];
-        numGen = new Random();
+        numGen = context.createRandom();
+        contextVector = new ContextVector(f, totalDimensions);
+        parallel = ParallelSubpopulations.create(context, contextVector);
         miscUtil = new MiscUtil();
+        positionStore = Population.createStore(Swarm.numParticles, totalDimensions);
+        velocityStore = Population.createStore(Swarm.numParticles, totalDimensions);
+        personalBestStore = Population.createStore(Swarm.numParticles, totalDimensions);
 
         assert f.getDimension() == totalDimensions: "Number of DPSO dimensions does not match evaluation function dimensions";
 
@@ -59,7 +68,8 @@ public class DCPSO extends Main.Algorithm
             System.arraycopy(possibleDecisionVarIndices, totalDimensionsPerSwarm * i,
                     decVars, 0, totalDimensionsPerSwarm);
 
-            Swarms[i] = new Swarm(this, decVars, totalDimensionsPerSwarm, i, numGen);
+            Swarms[i] = new Swarm(this, new Population(positionStore, decVars), new Population(velocityStore, decVars),
+                    new Population(personalBestStore, decVars), i, numGen.split());
         }
 
         // Must wait until all swarms are initialized before calculating fitness
@@ -78,8 +88,13 @@ public class DCPSO extends Main.Algorithm
         while(countEval < maxEval)
         {
             //System.out.println("Generation: " + generation + " | Best eval: " + getOverallBestEval());
-            for(Swarm s : Swarms)
-                s.updateSwarmPositions();
+            if(parallel != null)
+                updateSwarmsInParallel();
+            else
+            {
+                for(Swarm s : Swarms)
+                    s.updateSwarmPositions();
+            }
 
             // Perform decomposition
             if(countEvalForDecomp >= evalBetweenDecomp)
@@ -99,60 +114,17 @@ public class DCPSO extends Main.Algorithm
         int[] randomDimensions = getRandomDecisionVarsArray();
         Swarm[] newSwarms = new Swarm[newTotalSubswarm];
 
-        // Let's initialize the new sub-swarms first, then copy over all the info
+        // The sub-swarms are views of the stores, so only their decision variables change
         for(int i = 0; i < minNewTotalSubswarm; i++)
-        {
-            Coordinate[][] posCoords = new Coordinate[Swarm.numParticles][newDimPerSubswarm];
-            Coordinate[][] velocityCoords = new Coordinate[Swarm.numParticles][newDimPerSubswarm];
-            Coordinate[][] particleBestCoords = new Coordinate[Swarm.numParticles][newDimPerSubswarm];
-            Coordinate[] swarmBestCoords = new Coordinate[newDimPerSubswarm];
-
-            for(int d = 0; d < newDimPerSubswarm; d++)
-            {
-                int stealFromIndex = randomDimensions[(i * newDimPerSubswarm)+d];
-                int swarmIndex = stealFromIndex / totalDimensionsPerSwarm; // This makes sense surely
-                int swarmDimIndex = stealFromIndex % totalDimensionsPerSwarm;
-                Swarm targetSwarm = Swarms[swarmIndex];
-
-                for(int p = 0; p < Swarm.numParticles; p++)
-                {
-                    posCoords[p][d] = targetSwarm.getParticle(p).getPosition().getCoordinate(swarmDimIndex);
-                    velocityCoords[p][d] = targetSwarm.getParticle(p).getVelocity().getCoordinate(swarmDimIndex);
-                    particleBestCoords[p][d] = targetSwarm.getParticle(p).getPersonalBest().getCoordinate(swarmDimIndex);
-                }
-                swarmBestCoords[d] = targetSwarm.getGlobalBestPosition().getCoordinate(swarmDimIndex);
-            }
-            newSwarms[i] = new Swarm(this, posCoords, velocityCoords, particleBestCoords,
-                    swarmBestCoords, newDimPerSubswarm, i, numGen);
-        }
+            newSwarms[i] = createSubswarm(randomDimensions, i * newDimPerSubswarm, newDimPerSubswarm, i);
 
         // If not uniform, we have extra dimensions, put these in a new extra swarm
         if(!isUniformDecomp)
         {
-            int extraDim = totalDimensions % newDimPerSubswarm;
-            Coordinate[][] posCoords = new Coordinate[Swarm.numParticles][extraDim];
-            Coordinate[][] velocityCoords = new Coordinate[Swarm.numParticles][extraDim];
-            Coordinate[][] particleBestCoords = new Coordinate[Swarm.numParticles][extraDim];
-            Coordinate[] swarmBestCoords = new Coordinate[extraDim];
-
-            for(int d = 0; d < extraDim; d++)
-            {
-                int stealFromIndex = randomDimensions[(minNewTotalSubswarm * newDimPerSubswarm)+d];
-                int swarmIndex = stealFromIndex / totalDimensionsPerSwarm; // This makes sense surely
-                int swarmDimIndex = stealFromIndex % totalDimensionsPerSwarm;
-                Swarm targetSwarm = Swarms[swarmIndex];
-
-                for(int p = 0; p < Swarm.numParticles; p++)
-                {
-                    posCoords[p][d] = targetSwarm.getParticle(p).getPosition().getCoordinate(swarmDimIndex);
-                    velocityCoords[p][d] = targetSwarm.getParticle(p).getVelocity().getCoordinate(swarmDimIndex);
-                    particleBestCoords[p][d] = targetSwarm.getParticle(p).getPersonalBest().getCoordinate(swarmDimIndex);
-                }
-                swarmBestCoords[d] = targetSwarm.getGlobalBestPosition().getCoordinate(swarmDimIndex);
-            }
-            newSwarms[newTotalSubswarm-1] = new Swarm(this, posCoords, velocityCoords, particleBestCoords,
-                    swarmBestCoords, extraDim, newTotalSubswarm-1, numGen);
+            newSwarms[newTotalSubswarm-1] = createSubswarm(randomDimensions, minNewTotalSubswarm * newDimPerSubswarm,
+                    totalDimensions % newDimPerSubswarm, newTotalSubswarm-1);
         }
+
         Swarms = newSwarms;
         totalSubswarms = newTotalSubswarm;
         totalDimensionsPerSwarm = newDimPerSubswarm;
@@ -161,6 +133,25 @@ public class DCPSO extends Main.Algorithm
             s.calculateSwarmFitness();
     }
 
+    // Creates a sub-swarm of the numDims decision variables picked by randomDimensions from index start on, its best
+    // is the part of the context vector it covers
+    private Swarm createSubswarm(int[] randomDimensions, int start, int numDims, int index)
+    {
+        int[] decVars = new int[numDims];
+        Position swarmBest = new Position(decVars, numDims);
+        for(int d = 0; d < numDims; d++)
+        {
+            int stealFromIndex = randomDimensions[start + d];
+            int swarmIndex = stealFromIndex / totalDimensionsPerSwarm; // This makes sense surely
+            int swarmDimIndex = stealFromIndex % totalDimensionsPerSwarm;
+            decVars[d] = Swarms[swarmIndex].getGlobalBestPosition().getDimIndex(swarmDimIndex);
+            swarmBest.setValue(d, contextVector.getVector()[decVars[d]]);
+        }
+
+        return new Swarm(this, new Population(positionStore, decVars), new Population(velocityStore, decVars),
+                new Population(personalBestStore, decVars), swarmBest, index, numGen.split());
+    }
+
     public int[] getRandomDecisionVarsArray()
     {
         int[] temp = new int[totalDimensions];
@@ -170,45 +161,70 @@ public class DCPSO extends Main.Algorithm
         return temp;
     }
 
+    // Updates the sub-swarms in parallel, for one generation or asynchronously until the budget is used up
+    private void updateSwarmsInParallel()
+    {
+        int budget = Math.min(maxEval - countEval, evalBetweenDecomp - countEvalForDecomp);
+        int evals = parallel.run(Swarms.length, overallBestFitness, budget,
+                new ParallelSubpopulations.Step()
+                {
+                    public void update(int subpopulation)
+                    {
+                        Swarms[subpopulation].updateSwarmPositions();
+                    }
+                });
+        countEval += evals;
+        countEvalForDecomp += evals;
+        overallBestFitness = parallel.getBestFitness();
+    }
+
     public double calculateFitness(int swarmIndex, Position posToEval)
     {
-        double[] vector = new double[totalDimensions];
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+            return slot.evaluate(posToEval);
 
-        for(int s = 0; s < totalSubswarms; s++)
+        countEval++;
+        countEvalForDecomp++;
+        return contextVector.evaluate(posToEval);
+    }
+
+    public void calculateFitness(int swarmIndex, Population candidates, double[] fitnesses)
+    {
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
         {
-            if(s == swarmIndex) // The swarm we're evaluating
-            {
-                for(int i = 0; i < posToEval.getCoordinates().length; i++)
-                {
-                    Coordinate coord = posToEval.getCoordinate(i);
-                    assert vector[coord.getDimIndex()] == 0: "ERROR: Overwriting same dimension in context vector (2)";
-                    vector[coord.getDimIndex()] = coord.getValue();
-                }
-            }
-            else // Not the swarm we're evaluating, use global best position
-            {
-                for(int i = 0; i < Swarms[s].numDimensions; i++)
-                {
-                    Coordinate coord = Swarms[s].getGlobalBestPosition().getCoordinate(i);
-                    assert vector[coord.getDimIndex()] == 0: "ERROR: Overwriting same dimension in context vector (3)";
-                    vector[coord.getDimIndex()] = coord.getValue();
-                }
-            }
+            slot.evaluate(candidates, fitnesses);
+            return;
         }
-        return evaluateVectorFitness(vector);
+
+        int numRows = candidates.getNumRows();
+        countEval += numRows;
+        countEvalForDecomp += numRows;
+        contextVector.evaluate(candidates, fitnesses);
     }
 
-    private double evaluateVectorFitness(double[] vector)
+    public void updateContextVector(Position best)
     {
-        countEval++;
-        countEvalForDecomp++;
-        return evalFunc.compute(vector);
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+            slot.updateContextVector(best);
+        else
+            contextVector.update(best);
     }
 
-    public double getOverallBestFitness() { return overallBestFitness;}
+    public double getOverallBestFitness()
+    {
+        ParallelSubpopulations.Slot slot = currentSlot();
+        return (slot != null) ? slot.getBestFitness() : overallBestFitness;
+    }
     public void setOverallBestFitness(double fitness)
     {
-        overallBestFitness = fitness;
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+            slot.setBestFitness(fitness);
+        else
+            overallBestFitness = fitness;
     }
     public int getEvalBetweenDecomp() { return evalBetweenDecomp; }
     public int getCountEvalForDecomp() { return countEvalForDecomp; }
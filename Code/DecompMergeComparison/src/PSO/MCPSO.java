@@ -3,11 +3,12 @@ package PSO;
 import Main.MiscUtil;
 import func.Function;
 
-import static Main.Main.*;
-
-import java.util.Random;
-import Main.Coordinate;
+import Main.ContextVector;
+import Main.Population;
 import Main.Position;
+import Main.RunContext;
+import Main.ParallelSubpopulations;
+import Main.SplitRandom;
 
 public class MCPSO extends Main.Algorithm
 {
@@ -16,9 +17,12 @@ public class MCPSO extends Main.Algorithm
     public final double minPos;
     private final  int maxEval;
     private int countEval;
-    private final Function evalFunc;
-    private final Random numGen;
+    private final SplitRandom numGen;
+    private final ContextVector contextVector;
     private final MiscUtil miscUtil;
+    private final Population positionStore; // Complete vectors of the particles, the sub-swarms are views of them
+    private final Population velocityStore;
+    private final Population personalBestStore;
 
     // Swarms
     public int totalSubswarms;
@@ -30,9 +34,10 @@ public class MCPSO extends Main.Algorithm
     public int evalBetweenDecomp;
     public int countEvalForDecomp;
 
-    public MCPSO(Function f)
+    public MCPSO(RunContext context)
     {
-        evalFunc = f;
+        super(context);
+        Function f = context.getFunction();
         maxPos = f.getMax();
         minPos = f.getMin();
         countEval = 0;
@@ -42,8 +47,13 @@ public class MCPSO extends Main.Algorithm
         totalDimensionsPerSwarm = 1; // ^
         evalBetweenDecomp = (int) (maxEval / (1 + (Math.log(totalDimensions) / Math.log(2))));
         Swarms = new Swarm[totalSubswarms];
-        numGen = new Random();
+        numGen = context.createRandom();
+        contextVector = new ContextVector(f, totalDimensions);
+        parallel = ParallelSubpopulations.create(context, contextVector);
         miscUtil = new MiscUtil();
+        positionStore = Population.createStore(Swarm.numParticles, totalDimensions);
+        velocityStore = Population.createStore(Swarm.numParticles, totalDimensions);
+        personalBestStore = Population.createStore(Swarm.numParticles, totalDimensions);
 
         assert f.getDimension() == totalDimensions: "Number of DPSO dimensions does not match evaluation function dimensions";
 
@@ -58,7 +68,8 @@ public class MCPSO extends Main.Algorithm
             System.arraycopy(possibleDecisionVarIndices, totalDimensionsPerSwarm * i,
                     decVars, 0, totalDimensionsPerSwarm);
 
-            Swarms[i] = new Swarm(this, decVars, totalDimensionsPerSwarm, i, numGen);
+            Swarms[i] = new Swarm(this, new Population(positionStore, decVars), new Population(velocityStore, decVars),
+                    new Population(personalBestStore, decVars), i, numGen.split());
         }
 
         // Must wait until all swarms are initialized before calculating fitness
@@ -73,8 +84,13 @@ public class MCPSO extends Main.Algorithm
         // Loop until max fitness evaluations are reached
         while(countEval < maxEval)
         {
-            for(Swarm s : Swarms)
-                s.updateSwarmPositions();
+            if(parallel != null)
+                updateSwarmsInParallel();
+            else
+            {
+                for(Swarm s : Swarms)
+                    s.updateSwarmPositions();
+            }
 
             // Perform merging
             if(countEvalForDecomp >= evalBetweenDecomp)
@@ -84,7 +100,7 @@ public class MCPSO extends Main.Algorithm
         return overallBestFitness;
     }
 
-    private void performMerging()
+    public void performMerging()
     {
         // Example
         // 100 x1 -> 50 x2 -> 25 x4 -> 12 x8 + 1x4 -> 6x16 + 1 x4 -> 3 x32 + 1 x4 -> 1 x64 + 1 x36 -> 1 x100
@@ -99,58 +115,15 @@ public class MCPSO extends Main.Algorithm
         int[] randomDimensions = getRandomDecisionVarsArray();
         Swarm[] newSwarms = new Swarm[newTotalSubswarm];
 
-        // Let's initialize the new sub-swarms first, then copy over all the info
+        // The sub-swarms are views of the stores, so only their decision variables change
         for(int i = 0; i < minNewTotalSubswarm; i++)
-        {
-            Coordinate[][] posCoords = new Coordinate[Swarm.numParticles][newDimPerSubswarm];
-            Coordinate[][] velocityCoords = new Coordinate[Swarm.numParticles][newDimPerSubswarm];
-            Coordinate[][] particleBestCoords = new Coordinate[Swarm.numParticles][newDimPerSubswarm];
-            Coordinate[] swarmBestCoords = new Coordinate[newDimPerSubswarm];
-
-            for(int d = 0; d < newDimPerSubswarm; d++)
-            {
-                int stealFromIndex = randomDimensions[(i * newDimPerSubswarm)+d];
-                int swarmIndex = stealFromIndex / totalDimensionsPerSwarm; // This makes sense surely
-                int swarmDimIndex = stealFromIndex % totalDimensionsPerSwarm;
-                Swarm targetSwarm = Swarms[swarmIndex];
+            newSwarms[i] = createSubswarm(randomDimensions, i * newDimPerSubswarm, newDimPerSubswarm, i);
 
-                for(int p = 0; p < Swarm.numParticles; p++)
-                {
-                    posCoords[p][d] = targetSwarm.getParticle(p).getPosition().getCoordinate(swarmDimIndex);
-                    velocityCoords[p][d] = targetSwarm.getParticle(p).getVelocity().getCoordinate(swarmDimIndex);
-                    particleBestCoords[p][d] = targetSwarm.getParticle(p).getPersonalBest().getCoordinate(swarmDimIndex);
-                }
-                swarmBestCoords[d] = targetSwarm.getGlobalBestPosition().getCoordinate(swarmDimIndex);
-            }
-            newSwarms[i] = new Swarm(this, posCoords, velocityCoords, particleBestCoords,
-                    swarmBestCoords, newDimPerSubswarm, i, numGen);
-        }
         // If not uniform, we have extra dimensions, put these in a new extra swarm
         if(!isUniformDecomp)
         {
-            int extraDim = totalDimensions % newDimPerSubswarm;
-            Coordinate[][] posCoords = new Coordinate[Swarm.numParticles][extraDim];
-            Coordinate[][] velocityCoords = new Coordinate[Swarm.numParticles][extraDim];
-            Coordinate[][] particleBestCoords = new Coordinate[Swarm.numParticles][extraDim];
-            Coordinate[] swarmBestCoords = new Coordinate[extraDim];
-
-            for(int d = 0; d < extraDim; d++)
-            {
-                int stealFromIndex = randomDimensions[(minNewTotalSubswarm * newDimPerSubswarm)+d];
-                int swarmIndex = stealFromIndex / totalDimensionsPerSwarm; // This makes sense surely
-                int swarmDimIndex = stealFromIndex % totalDimensionsPerSwarm;
-                Swarm targetSwarm = Swarms[swarmIndex];
-
-                for(int p = 0; p < Swarm.numParticles; p++)
-                {
-                    posCoords[p][d] = targetSwarm.getParticle(p).getPosition().getCoordinate(swarmDimIndex);
-                    velocityCoords[p][d] = targetSwarm.getParticle(p).getVelocity().getCoordinate(swarmDimIndex);
-                    particleBestCoords[p][d] = targetSwarm.getParticle(p).getPersonalBest().getCoordinate(swarmDimIndex);
-                }
-                swarmBestCoords[d] = targetSwarm.getGlobalBestPosition().getCoordinate(swarmDimIndex);
-            }
-            newSwarms[newTotalSubswarm-1] = new Swarm(this, posCoords, velocityCoords, particleBestCoords,
-                    swarmBestCoords, extraDim, newTotalSubswarm-1, numGen);
+            newSwarms[newTotalSubswarm-1] = createSubswarm(randomDimensions, minNewTotalSubswarm * newDimPerSubswarm,
+                    totalDimensions % newDimPerSubswarm, newTotalSubswarm-1);
         }
 
         Swarms = newSwarms;
@@ -161,6 +134,25 @@ public class MCPSO extends Main.Algorithm
             s.calculateSwarmFitness();
     }
 
+    // Creates a sub-swarm of the numDims decision variables picked by randomDimensions from index start on, its best
+    // is the part of the context vector it covers
+    private Swarm createSubswarm(int[] randomDimensions, int start, int numDims, int index)
+    {
+        int[] decVars = new int[numDims];
+        Position swarmBest = new Position(decVars, numDims);
+        for(int d = 0; d < numDims; d++)
+        {
+            int stealFromIndex = randomDimensions[start + d];
+            int swarmIndex = stealFromIndex / totalDimensionsPerSwarm; // This makes sense surely
+            int swarmDimIndex = stealFromIndex % totalDimensionsPerSwarm;
+            decVars[d] = Swarms[swarmIndex].getGlobalBestPosition().getDimIndex(swarmDimIndex);
+            swarmBest.setValue(d, contextVector.getVector()[decVars[d]]);
+        }
+
+        return new Swarm(this, new Population(positionStore, decVars), new Population(velocityStore, decVars),
+                new Population(personalBestStore, decVars), swarmBest, index, numGen.split());
+    }
+
     public int[] getRandomDecisionVarsArray()
     {
         int[] temp = new int[totalDimensions];
@@ -170,45 +162,70 @@ public class MCPSO extends Main.Algorithm
         return temp;
     }
 
+    // Updates the sub-swarms in parallel, for one generation or asynchronously until the budget is used up
+    private void updateSwarmsInParallel()
+    {
+        int budget = Math.min(maxEval - countEval, evalBetweenDecomp - countEvalForDecomp);
+        int evals = parallel.run(Swarms.length, overallBestFitness, budget,
+                new ParallelSubpopulations.Step()
+                {
+                    public void update(int subpopulation)
+                    {
+                        Swarms[subpopulation].updateSwarmPositions();
+                    }
+                });
+        countEval += evals;
+        countEvalForDecomp += evals;
+        overallBestFitness = parallel.getBestFitness();
+    }
+
     public double calculateFitness(int swarmIndex, Position posToEval)
     {
-        double[] vector = new double[totalDimensions];
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+            return slot.evaluate(posToEval);
+
+        countEval++;
+        countEvalForDecomp++;
+        return contextVector.evaluate(posToEval);
+    }
 
-        for(int s = 0; s < totalSubswarms; s++)
+    public void calculateFitness(int swarmIndex, Population candidates, double[] fitnesses)
+    {
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
         {
-            if(s == swarmIndex) // The swarm we're evaluating
-            {
-                for(int i = 0; i < posToEval.getCoordinates().length; i++)
-                {
-                    Coordinate coord = posToEval.getCoordinate(i);
-                    assert vector[coord.getDimIndex()] == 0: "ERROR: Overwriting same dimension in context vector (2)";
-                    vector[coord.getDimIndex()] = coord.getValue();
-                }
-            }
-            else // Not the swarm we're evaluating, use global best position
-            {
-                for(int i = 0; i < Swarms[s].numDimensions; i++)
-                {
-                    Coordinate coord = Swarms[s].getGlobalBestPosition().getCoordinate(i);
-                    assert vector[coord.getDimIndex()] == 0: "ERROR: Overwriting same dimension in context vector (3)";
-                    vector[coord.getDimIndex()] = coord.getValue();
-                }
-            }
+            slot.evaluate(candidates, fitnesses);
+            return;
         }
-        return evaluateVectorFitness(vector);
+
+        int numRows = candidates.getNumRows();
+        countEval += numRows;
+        countEvalForDecomp += numRows;
+        contextVector.evaluate(candidates, fitnesses);
     }
 
-    private double evaluateVectorFitness(double[] vector)
+    public void updateContextVector(Position best)
     {
-        countEval++;
-        countEvalForDecomp++;
-        return evalFunc.compute(vector);
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+            slot.updateContextVector(best);
+        else
+            contextVector.update(best);
     }
 
-    public double getOverallBestFitness() { return overallBestFitness;}
+    public double getOverallBestFitness()
+    {
+        ParallelSubpopulations.Slot slot = currentSlot();
+        return (slot != null) ? slot.getBestFitness() : overallBestFitness;
+    }
     public void setOverallBestFitness(double fitness)
     {
-        overallBestFitness = fitness;
+        ParallelSubpopulations.Slot slot = currentSlot();
+        if(slot != null)
+            slot.setBestFitness(fitness);
+        else
+            overallBestFitness = fitness;
     }
     public int getEvalBetweenDecomp() { return evalBetweenDecomp; }
     public int getCountEvalForDecomp() { return countEvalForDecomp; }
@@ -1,12 +1,11 @@
 package PSO;
 
-import java.util.Random;
-
-import Main.Coordinate;
 import Main.MiscUtil;
+import Main.Population;
 import Main.Position;
+import Main.RunContext;
+import Main.SplitRandom;
 import func.Function;
-import static Main.Main.totalDimensions;
 
 public class PSO extends Main.Algorithm
 {
@@ -16,15 +15,17 @@ public class PSO extends Main.Algorithm
     private final int maxEval;
     private int countEval;
     private final Function evalFunc;
-    private final Random numGen;
+    private final SplitRandom numGen;
     private final Swarm theSwarm;
     private double overallBestFitness;
 
     // Util
     private final MiscUtil miscUtil;
 
-    public PSO(Function f)
+    public PSO(RunContext context)
     {
+        super(context);
+        Function f = context.getFunction();
         evalFunc = f;
         maxPos = f.getMax();
         minPos = f.getMin();
@@ -32,7 +33,7 @@ public class PSO extends Main.Algorithm
         overallBestFitness = Double.MAX_VALUE;
         maxEval = totalDimensions * 3000;
         miscUtil = new MiscUtil();
-        numGen = new Random();
+        numGen = context.createRandom();
 
         assert f.getDimension() == totalDimensions: "Number of DPSO dimensions does not match evaluation function dimensions";
 
@@ -56,17 +57,27 @@ public class PSO extends Main.Algorithm
     {
         double[] vector = new double[totalDimensions];
 
-        for(int i = 0; i < posToEval.getCoordinates().length; i++)
+        for(int i = 0; i < posToEval.getNumDimensions(); i++)
         {
-            Coordinate coord = posToEval.getCoordinate(i);
-            assert vector[coord.getDimIndex()] == 0: "ERROR: Overwriting same dimension in evaluation vector (1)";
-            vector[coord.getDimIndex()] = coord.getValue();
+            int dimIndex = posToEval.getDimIndex(i);
+            assert vector[dimIndex] == 0: "ERROR: Overwriting same dimension in evaluation vector (1)";
+            vector[dimIndex] = posToEval.getValue(i);
         }
         countEval++;
 
         return evalFunc.compute(vector);
     }
 
+    public void calculateFitness(int swarmIndex, Population candidates, double[] fitnesses)
+    {
+        int numRows = candidates.getNumRows();
+        double[] vectors = new double[numRows * totalDimensions];
+        candidates.scatter(vectors, totalDimensions);
+        countEval += numRows;
+
+        evalFunc.compute(vectors, numRows, fitnesses);
+    }
+
     public double getOverallBestFitness() { return overallBestFitness;}
     public void setOverallBestFitness(double fitness)
     {
@@ -1,8 +1,7 @@
 package PSO;
 
-import java.util.Random;
-
 import Main.Position;
+import Main.SplitRandom;
 
 /**
  * This class represents a Particle in the Swarm.
@@ -14,78 +13,82 @@ public class Particle
     private double socialCoefficient; //AKA c2
     private double inertiaWeight; //AKA w
 
-    private Position personalBest; // The position of this particle's best solution found
+    private final Position personalBest; // The position of this particle's best solution found
     private double personalBestFitness; // The fitness evaluation of the best solution found
-    private Position currentPosition; // The current position of the particle on the graph
-    private Position velocity; // The current velocity vector of the particle
+    private final Position currentPosition; // The current position of the particle on the graph
+    private final Position velocity; // The current velocity vector of the particle
     private double fitness; // Evaluation of the current position (its fitness / score)
     private final Swarm parentSwarm;
-    private final Random numGen;
+    private final SplitRandom numGen;
 
-    public Particle(Swarm parentSwarm, int[] decisionVariables, Random numGen)
+    // The particle's vectors are views of row 'row' in the populations of its swarm
+    public Particle(Swarm parentSwarm, int row, SplitRandom numGen)
     {
         this.parentSwarm = parentSwarm;
         this.numGen = numGen;
-        currentPosition = new Position(decisionVariables, parentSwarm.numDimensions);
-        currentPosition.randomize(numGen);
-        velocity = new Position(decisionVariables, parentSwarm.numDimensions);
+        currentPosition = parentSwarm.getPositions().getRow(row);
+        currentPosition.randomize(parentSwarm.parent.getContext(), numGen);
+        velocity = parentSwarm.getVelocities().getRow(row);
         personalBestFitness = Double.MAX_VALUE;
-        personalBest = currentPosition.clone();
+        personalBest = parentSwarm.getPersonalBests().getRow(row);
+        personalBest.copyFrom(currentPosition);
 
         cognitiveCoefficient = 1.49618;
         socialCoefficient = 1.49618;
         inertiaWeight = 0.729844;
     }
 
-    public Particle(Swarm parentSwarm, Position currentPos, Position velocity, Position best, Random numGen)
+    public Particle(Swarm parentSwarm, Position currentPos, Position velocity, Position best, SplitRandom numGen)
     {
         this.parentSwarm = parentSwarm;
         this.numGen = numGen;
-        this.currentPosition = currentPos.clone();
-        this.velocity = velocity.clone();
-        this.personalBest = best.clone();
+        this.currentPosition = currentPos;
+        this.velocity = velocity;
+        this.personalBest = best;
         personalBestFitness = Double.MAX_VALUE;
         //calculateFitness(); < Don't do this, need all swarms initialized first
     }
 
     public void updatePosition()
     {
-        double r1, r2, currentCoord, currentVelocity, newVelocity;
+        double currentCoord, currentVelocity, newVelocity;
+        double[] r1 = parentSwarm.getCognitiveRandoms();
+        double[] r2 = parentSwarm.getSocialRandoms();
+        numGen.fill(r1);
+        numGen.fill(r2);
 
         for(int d = 0; d < parentSwarm.numDimensions; d++)
         {
-            r1 = numGen.nextDouble();
-            r2 = numGen.nextDouble();
-
-            currentCoord = currentPosition.getCoordinate(d).getValue();
-            currentVelocity = velocity.getCoordinate(d).getValue();
+            currentCoord = currentPosition.getValue(d);
+            currentVelocity = velocity.getValue(d);
             newVelocity = (inertiaWeight * currentVelocity) +
-                    (cognitiveCoefficient*r1*(personalBest.getCoordinate(d).getValue() - currentCoord)) +
-                    (socialCoefficient*r2*(parentSwarm.getGlobalBestPosition().getCoordinate(d).getValue() - currentCoord));
+                    (cognitiveCoefficient*r1[d]*(personalBest.getValue(d) - currentCoord)) +
+                    (socialCoefficient*r2[d]*(parentSwarm.getGlobalBestPosition().getValue(d) - currentCoord));
 
-            velocity.getCoordinate(d).setValue(newVelocity);
-            currentPosition.getCoordinate(d).increaseValue(newVelocity);
+            velocity.setValue(d, newVelocity);
+            currentPosition.increaseValue(d, newVelocity);
         }
     }
 
     public void calculateFitness()
     {
-        fitness = parentSwarm.parent.calculateFitness(parentSwarm.getIndex(), currentPosition);
+        updateFitness(parentSwarm.parent.calculateFitness(parentSwarm.getIndex(), currentPosition));
+    }
+
+    // Stores the fitness of the current position and updates the personal best
+    public void updateFitness(double fitness)
+    {
+        this.fitness = fitness;
         if(fitness < personalBestFitness)
         {
             personalBestFitness = fitness;
-            personalBest = currentPosition.clone();
+            personalBest.copyFrom(currentPosition);
         }
     }
 
     public Position getPersonalBest() { return personalBest; }
-    public void setPersonalBest(Position personalBest) { this.personalBest = personalBest; }
-
     public Position getPosition() { return currentPosition; }
-    public void setPosition(Position position) { this.currentPosition = position; }
-
     public Position getVelocity() { return velocity; }
-    public void setVelocity(Position velocity) { this.velocity = velocity; }
 
     public double getFitness() { return fitness; }
     public void setFitness(double fitness) { this.fitness = fitness; }
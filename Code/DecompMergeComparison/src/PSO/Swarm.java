@@ -1,10 +1,9 @@
 package PSO;
 
-import java.util.Random;
-
 import Main.Algorithm;
 import Main.Position;
-import Main.Coordinate;
+import Main.Population;
+import Main.SplitRandom;
 
 /**
  * This class creates a swarm consisting of particle objects.
@@ -16,49 +15,75 @@ public class Swarm
     public int numDimensions;
     public static final int numParticles = 20; // The total number of particles in the swarm
     private final Particle[] particles;
+    private final Population positions; // Backing storage for the particles, one row per particle
+    private final Population velocities;
+    private final Population personalBests;
+    private final double[] fitnesses; // Results of a batch evaluation of the positions
+    private final double[] cognitiveRandoms; // r1 and r2 of the particle being moved, one per dimension
+    private final double[] socialRandoms;
     private Position globalBestPosition;
     public final Algorithm parent;
-    private final Random numGen;
+    private final SplitRandom numGen;
 
-    public Swarm(Algorithm parent, int[] decisionVars, int numDimensions, int index, Random numGen)
+    public Swarm(Algorithm parent, int[] decisionVars, int numDimensions, int index, SplitRandom numGen)
+    {
+        this(parent, new Population(numParticles, decisionVars), new Population(numParticles, decisionVars),
+                new Population(numParticles, decisionVars), index, numGen);
+        assert numDimensions == decisionVars.length: "Number of dimensions != number of decision variable indices";
+    }
+
+    // Creates randomly placed particles in the given populations, ex. views of stores shared by all sub-swarms
+    public Swarm(Algorithm parent, Population positions, Population velocities, Population personalBests, int index,
+                 SplitRandom numGen)
     {
         this.parent = parent;
-        this.numDimensions = numDimensions;
+        this.numDimensions = positions.getNumDimensions();
         this.index = index;
         this.numGen = numGen;
         particles = new Particle[numParticles];
-
-        initializeSwarm(decisionVars);
+        this.positions = positions;
+        this.velocities = velocities;
+        this.personalBests = personalBests;
+        fitnesses = new double[numParticles];
+        cognitiveRandoms = new double[numDimensions];
+        socialRandoms = new double[numDimensions];
+
+        initializeSwarm();
     }
 
-    public Swarm(Algorithm parent, Coordinate[][] currentPos, Coordinate[][] velocity, Coordinate[][] particleBest,
-                 Coordinate[] swarmBest, int numDimensions, int index, Random numGen)
+    public Swarm(Algorithm parent, Population currentPos, Population velocity, Population particleBest,
+                 Position swarmBest, int index, SplitRandom numGen)
     {
-        assert currentPos[0].length == numDimensions: "Swarm initialization failed (Num coordinates != num particles).";
-        assert currentPos.length == numParticles: "Swarm initialization failed (Num coordinates != num dimensions).";
+        assert currentPos.getNumRows() == numParticles: "Swarm initialization failed (Num rows != num particles).";
+        assert velocity.getNumRows() == numParticles && particleBest.getNumRows() == numParticles;
 
         this.parent = parent;
-        this.numDimensions = numDimensions;
+        this.numDimensions = currentPos.getNumDimensions();
         this.index = index;
         this.numGen = numGen;
         particles = new Particle[numParticles];
-        this.globalBestPosition = new Position(swarmBest);
+        positions = currentPos;
+        velocities = velocity;
+        personalBests = particleBest;
+        fitnesses = new double[numParticles];
+        cognitiveRandoms = new double[numDimensions];
+        socialRandoms = new double[numDimensions];
+        setGlobalBestPosition(swarmBest);
 
         for(int p = 0; p < numParticles; p++)
         {
-            particles[p] = new Particle(this, new Position(currentPos[p]), new Position(velocity[p]),
-                    new Position(particleBest[p]), numGen);
+            particles[p] = new Particle(this, positions.getRow(p), velocities.getRow(p), personalBests.getRow(p),
+                    numGen);
         }
     }
 
-    private void initializeSwarm(int[] decisionVars)
+    private void initializeSwarm()
     {
-        assert numDimensions == decisionVars.length: "Number of dimensions != number of decision variable indices";
         for(int i = 0; i < numParticles; i++)
-            particles[i] = new Particle(this, decisionVars, numGen);
+            particles[i] = new Particle(this, i, numGen);
 
         // Must be initialized to calculate fitness via context vector
-        globalBestPosition = particles[0].getPosition().clone();
+        setGlobalBestPosition(particles[0].getPosition().clone());
     }
 
     public void calculateSwarmFitness()
@@ -69,7 +94,7 @@ public class Swarm
 
             if(p.getFitness() < parent.getOverallBestFitness())
             {
-                globalBestPosition = p.getPosition().clone();
+                updateGlobalBestPosition(p.getPosition());
                 //globalBestFitness = p.getFitness();
                 parent.setOverallBestFitness(p.getFitness());
             }
@@ -78,6 +103,11 @@ public class Swarm
 
     public void updateSwarmPositions()
     {
+        if(parent.getContext().isBatchEvaluation())
+        {
+            updateSwarmPositionsInBatch();
+            return;
+        }
 
         for(Particle p: particles)
         {
@@ -86,13 +116,51 @@ public class Swarm
 
             if(p.getFitness() < parent.getOverallBestFitness()) // Check if new particle is fitness better than swarm's best
             {
-                globalBestPosition = p.getPosition().clone();
+                updateGlobalBestPosition(p.getPosition());
                 parent.setOverallBestFitness(p.getFitness());
             }
         }
     }
 
+    // Moves every particle before evaluating the whole swarm with one call, so all particles of an iteration follow
+    // the same global best
+    private void updateSwarmPositionsInBatch()
+    {
+        for(Particle p: particles)
+            p.updatePosition();
+
+        parent.calculateFitness(index, positions, fitnesses);
+        for(int i = 0; i < numParticles; i++)
+        {
+            particles[i].updateFitness(fitnesses[i]);
+
+            if(fitnesses[i] < parent.getOverallBestFitness())
+            {
+                updateGlobalBestPosition(particles[i].getPosition());
+                parent.setOverallBestFitness(fitnesses[i]);
+            }
+        }
+    }
+
+    private void setGlobalBestPosition(Position best)
+    {
+        globalBestPosition = best;
+        parent.updateContextVector(best);
+    }
+
+    // Copies a new global best into the position this swarm already owns instead of cloning it
+    private void updateGlobalBestPosition(Position best)
+    {
+        globalBestPosition.copyFrom(best);
+        parent.updateContextVector(globalBestPosition);
+    }
+
     public Position getGlobalBestPosition() { return globalBestPosition; }
     public Particle getParticle(int index) { return particles[index]; }
+    public Population getPositions() { return positions; }
+    public Population getVelocities() { return velocities; }
+    public Population getPersonalBests() { return personalBests; }
+    public double[] getCognitiveRandoms() { return cognitiveRandoms; }
+    public double[] getSocialRandoms() { return socialRandoms; }
     public int getIndex() { return index; }
 }
@@ -0,0 +1,311 @@
+package func;
+
+/*
+ * Not part of the CEC'2010 benchmark code of Thomas Weise. Like the rest
+ * of the project outside of that code, it is distributed under the MIT
+ * license, see the LICENSE file.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * <p>
+ * A binary storage format for the vectors and matrices of the benchmark
+ * functions which can be memory-mapped and read without any parsing.
+ * Since mapped files are backed by the page cache, multiple processes
+ * reading the same file share a single copy of it.
+ * </p>
+ * <p>
+ * A file consists of a header of four little-endian <code>int</code>s,
+ * namely the {@link #MAGIC magic number}, the element type (
+ * {@link #DOUBLE} or {@link #INT}), the number of elements, and a zero
+ * padding the header to 16 bytes, followed by the little-endian elements.
+ * The elements are stored exactly as the loaders in {@link Utils} return
+ * them, i.e., permutation vectors are zero-based and rotation matrices
+ * are flattened row by row.
+ * </p>
+ */
+public final class BinaryData {
+
+  /** the magic number identifying a binary data file: &quot;BDAT&quot; */
+  public static final int MAGIC = 0x54414442;
+
+  /** the element type of <code>double</code> vectors and matrices */
+  public static final int DOUBLE = 1;
+
+  /** the element type of <code>int</code> vectors */
+  public static final int INT = 2;
+
+  /** the suffix of binary data files */
+  public static final String SUFFIX = ".bin"; //$NON-NLS-1$
+
+  /** the suffix of the text files converted */
+  private static final String TEXT_SUFFIX = ".txt"; //$NON-NLS-1$
+
+  /** the size of the header */
+  private static final int HEADER = 16;
+
+  /**
+   * Map the elements of a binary <code>double</code> file
+   *
+   * @param file
+   *          the file
+   * @return a read-only view of the elements
+   */
+  public static final DoubleBuffer mapDoubles(final File file) {
+    return map(file, DOUBLE).asDoubleBuffer();
+  }
+
+  /**
+   * Map the elements of a binary <code>int</code> file
+   *
+   * @param file
+   *          the file
+   * @return a read-only view of the elements
+   */
+  public static final IntBuffer mapInts(final File file) {
+    return map(file, INT).asIntBuffer();
+  }
+
+  /**
+   * Load a <code>double</code> vector or matrix from a binary file
+   *
+   * @param file
+   *          the file
+   * @return the elements
+   */
+  public static final double[] loadDoubles(final File file) {
+    final DoubleBuffer b;
+    final double[] d;
+
+    b = mapDoubles(file);
+    d = new double[b.remaining()];
+    b.get(d);
+    return d;
+  }
+
+  /**
+   * Load an <code>int</code> vector from a binary file
+   *
+   * @param file
+   *          the file
+   * @return the elements
+   */
+  public static final int[] loadInts(final File file) {
+    final IntBuffer b;
+    final int[] d;
+
+    b = mapInts(file);
+    d = new int[b.remaining()];
+    b.get(d);
+    return d;
+  }
+
+  /**
+   * Store a <code>double</code> vector or matrix to a binary file
+   *
+   * @param file
+   *          the file
+   * @param d
+   *          the elements
+   */
+  public static final void store(final File file, final double[] d) {
+    final ByteBuffer b;
+
+    b = header(DOUBLE, d.length, d.length << 3);
+    b.asDoubleBuffer().put(d);
+    write(file, b);
+  }
+
+  /**
+   * Store an <code>int</code> vector to a binary file
+   *
+   * @param file
+   *          the file
+   * @param d
+   *          the elements
+   */
+  public static final void store(final File file, final int[] d) {
+    final ByteBuffer b;
+
+    b = header(INT, d.length, d.length << 2);
+    b.asIntBuffer().put(d);
+    write(file, b);
+  }
+
+  /**
+   * Obtain the binary counterpart of a text data file
+   *
+   * @param text
+   *          the text file
+   * @return the binary file, which may not exist
+   */
+  public static final File binaryFile(final File text) {
+    String s;
+
+    s = text.getName();
+    if (s.endsWith(TEXT_SUFFIX)) {
+      s = s.substring(0, s.length() - TEXT_SUFFIX.length());
+    }
+    return new File(text.getParentFile(), s + SUFFIX);
+  }
+
+  /**
+   * Convert a text data file of the CEC'2013 format, i.e., named
+   * <code>F&lt;id&gt;-&lt;suffix&gt;.txt</code>, to the binary format
+   *
+   * @param text
+   *          the text file
+   * @return the binary file written
+   */
+  public static final File convert(final File text) {
+    final String s;
+    final File f;
+
+    s = text.getName();
+    f = binaryFile(text);
+    if (s.endsWith("-p" + TEXT_SUFFIX)) { //$NON-NLS-1$
+      store(f, Utils.loadPermVector(text.getPath()));
+    } else if (s.indexOf("-R") >= 0) { //$NON-NLS-1$
+      store(f, Utils.loadRotMatrix(text.getPath()));
+    } else {
+      store(f, Utils.loadShiftVector(text.getPath()));
+    }
+    return f;
+  }
+
+  /**
+   * Map the elements of a binary file
+   *
+   * @param file
+   *          the file
+   * @param type
+   *          the expected element type
+   * @return the little-endian buffer holding exactly the elements
+   */
+  private static final ByteBuffer map(final File file, final int type) {
+    final RandomAccessFile r;
+    final MappedByteBuffer m;
+    final int n, size;
+
+    try {
+      r = new RandomAccessFile(file, "r"); //$NON-NLS-1$
+      try {
+        // the mapping stays valid after the channel is closed
+        m = r.getChannel().map(FileChannel.MapMode.READ_ONLY, 0,
+            r.length());
+      } finally {
+        r.close();
+      }
+    } catch (RuntimeException t) {
+      throw t;
+    } catch (Throwable t) {
+      throw new RuntimeException(t); // bypass exception checking
+    }
+
+    m.order(ByteOrder.LITTLE_ENDIAN);
+    if ((m.capacity() < HEADER) || (m.getInt(0) != MAGIC)
+        || (m.getInt(4) != type)) {
+      throw new IllegalArgumentException(file
+          + " is not a binary data file of the expected type."); //$NON-NLS-1$
+    }
+
+    n = m.getInt(8);
+    size = (n * ((type == DOUBLE) ? 8 : 4));
+    if (m.capacity() != (HEADER + size)) {
+      throw new IllegalArgumentException(file + " is truncated."); //$NON-NLS-1$
+    }
+
+    m.position(HEADER);
+    return m.slice().order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /**
+   * Allocate a buffer for a binary file and write its header
+   *
+   * @param type
+   *          the element type
+   * @param n
+   *          the number of elements
+   * @param size
+   *          the size of the elements in bytes
+   * @return the buffer, positioned at the first element
+   */
+  private static final ByteBuffer header(final int type, final int n,
+      final int size) {
+    final ByteBuffer b;
+
+    b = ByteBuffer.allocate(HEADER + size).order(ByteOrder.LITTLE_ENDIAN);
+    b.putInt(MAGIC);
+    b.putInt(type);
+    b.putInt(n);
+    b.putInt(0);
+    return b;
+  }
+
+  /**
+   * Write a buffer to a file
+   *
+   * @param file
+   *          the file
+   * @param b
+   *          the buffer, with the elements written after the header
+   */
+  private static final void write(final File file, final ByteBuffer b) {
+    final FileOutputStream o;
+
+    try {
+      o = new FileOutputStream(file);
+      try {
+        o.write(b.array());
+      } finally {
+        o.close();
+      }
+    } catch (RuntimeException t) {
+      throw t;
+    } catch (Throwable t) {
+      throw new RuntimeException(t); // bypass exception checking
+    }
+  }
+
+  /**
+   * Convert all text data files in the given directories, or in
+   * <code>cdatafiles</code> if none are given, to the binary format. This
+   * needs to be done only once; afterwards the binary files are used
+   * instead of the text files.
+   *
+   * @param params
+   *          the directories
+   */
+  public static final void main(final String[] params) {
+    final String[] dirs;
+    File[] files;
+    File f;
+    int i, j;
+
+    dirs = ((params.length > 0) ? params : //
+        new String[] { "cdatafiles" }); //$NON-NLS-1$
+    for (i = 0; i < dirs.length; i++) {
+      files = new File(dirs[i]).listFiles();
+      if (files == null) {
+        System.out.println(dirs[i] + " is not a directory."); //$NON-NLS-1$
+        continue;
+      }
+
+      for (j = 0; j < files.length; j++) {
+        if (files[j].getName().endsWith(TEXT_SUFFIX)) {
+          f = convert(files[j]);
+          System.out.println(files[j] + " -> " + f); //$NON-NLS-1$
+        }
+      }
+    }
+  }
+}
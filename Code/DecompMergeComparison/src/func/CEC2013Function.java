@@ -0,0 +1,773 @@
+package func;
+
+/*
+ * A Java port of the reference implementation of the benchmark functions
+ * of the CEC'2013 Special Session and Competition on Large-Scale Global
+ * Optimization by Xiaodong Li, Ke Tang, Mohammad N. Omidvar, Zhenyu Yang
+ * and Kai Qin, as built into the libcec2013lsgo library of Giovanni Iacca
+ * (giovanniiaccca@incas3.eu) in the "lib" folder. It is not part of the
+ * CEC'2010 benchmark code of Thomas Weise. See the LICENSE file.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.net.URL;
+
+/**
+ * A pure Java implementation of the fifteen benchmark functions of the
+ * &quot;Benchmark Functions for the CEC'2013 Special Session and
+ * Competition on Large-Scale Global Optimization&quot; (Xiaodong Li, Ke
+ * Tang, Mohammad N. Omidvar, Zhenyu Yang, and Kai Qin). It reads the same
+ * data files as the native <code>libcec2013lsgo</code> library and
+ * reproduces its results, but is evaluated without crossing into native
+ * code for every candidate solution. Unlike the native library, an
+ * instance keeps its temporary vectors in a workspace of the calling
+ * thread and can thus be shared by multiple threads.
+ */
+public final class CEC2013Function extends Function {
+
+  /** the serial version id */
+  private static final long serialVersionUID = 1;
+
+  /** the directory of the data files inside the class path */
+  private static final String DATA_RESOURCE = "/javacec2013/cdatafiles/"; //$NON-NLS-1$
+
+  /** the directory the native library extracts the data files to */
+  private static final String DATA_DIR = "cdatafiles"; //$NON-NLS-1$
+
+  /** the shifted elliptic base function */
+  private static final int ELLIPTIC = 0;
+
+  /** the shifted rastrigin base function */
+  private static final int RASTRIGIN = 1;
+
+  /** the shifted ackley base function */
+  private static final int ACKLEY = 2;
+
+  /** the shifted schwefel 1.2 base function */
+  private static final int SCHWEFEL = 3;
+
+  /** the shifted rosenbrock base function */
+  private static final int ROSENBROCK = 4;
+
+  /** the sphere base function */
+  private static final int SPHERE = 5;
+
+  /** no base function */
+  private static final int NONE = -1;
+
+  /** the overlap of the subcomponents of f13 and f14 */
+  private static final int OVERLAP = 5;
+
+  /** the number of the function, in 1..15 */
+  private final int m_id;
+
+  /** the base function of the (non-separable) subcomponents */
+  private final int m_base;
+
+  /** the base function of the separable part, or {@link #NONE} */
+  private final int m_rest;
+
+  /**
+   * the shifted global optimum; for f14 the shifts of the subcomponents
+   * one after another
+   */
+  private final double[] m_o;
+
+  /** the permutation vector, or <code>null</code> */
+  private final int[] m_p;
+
+  /** the sizes of the subcomponents, or <code>null</code> */
+  private final int[] m_s;
+
+  /** the weights of the subcomponents, or <code>null</code> */
+  private final double[] m_w;
+
+  /** the 25x25 rotation matrix, or <code>null</code> */
+  private final double[] m_r25;
+
+  /** the 50x50 rotation matrix, or <code>null</code> */
+  private final double[] m_r50;
+
+  /** the 100x100 rotation matrix, or <code>null</code> */
+  private final double[] m_r100;
+
+  /** the overlap of consecutive subcomponents */
+  private final int m_overlap;
+
+  /**
+   * Obtain the instance of the CEC'2013 benchmark function with the given
+   * number that is shared by the whole process. Loading the data files
+   * is expensive, so prefer it over creating a new instance.
+   *
+   * @param id
+   *          the number of the function, in 1..15
+   * @return the shared function
+   */
+  public static final CEC2013Function getInstance(final int id) {
+    return InstanceData.getCEC2013(id);
+  }
+
+  /**
+   * Create the CEC'2013 benchmark function with the given number
+   *
+   * @param id
+   *          the number of the function, in 1..15
+   */
+  public CEC2013Function(final int id) {
+    super(((id == 13) || (id == 14)) ? 905 : 1000, -bound(id), bound(id));
+
+    final double[] s;
+    int i;
+
+    this.m_id = id;
+
+    switch (id) {
+      case 1:
+      case 4:
+      case 8: {
+        this.m_base = ELLIPTIC;
+        break;
+      }
+      case 2:
+      case 5:
+      case 9: {
+        this.m_base = RASTRIGIN;
+        break;
+      }
+      case 3:
+      case 6:
+      case 10: {
+        this.m_base = ACKLEY;
+        break;
+      }
+      case 12: {
+        this.m_base = ROSENBROCK;
+        break;
+      }
+      case 7:
+      case 11:
+      case 13:
+      case 14:
+      case 15: {
+        this.m_base = SCHWEFEL;
+        break;
+      }
+      default: {
+        throw new IllegalArgumentException(
+            "There is no CEC'2013 function " + id); //$NON-NLS-1$
+      }
+    }
+
+    this.m_o = loadDoubles(id, "xopt"); //$NON-NLS-1$
+
+    if ((id <= 3) || (id == 12) || (id == 15)) {
+      this.m_rest = NONE;
+      this.m_p = null;
+      this.m_s = null;
+      this.m_w = null;
+      this.m_r25 = null;
+      this.m_r50 = null;
+      this.m_r100 = null;
+      this.m_overlap = 0;
+      return;
+    }
+
+    if (id <= 7) {
+      this.m_rest = ((id == 7) ? SPHERE : this.m_base);
+    } else {
+      this.m_rest = NONE;
+    }
+    this.m_overlap = ((id >= 13) ? OVERLAP : 0);
+
+    this.m_p = loadInts(id, "p"); //$NON-NLS-1$
+    this.m_w = loadDoubles(id, "w"); //$NON-NLS-1$
+    s = loadDoubles(id, "s"); //$NON-NLS-1$
+    this.m_s = new int[s.length];
+    for (i = s.length; (--i) >= 0;) {
+      this.m_s[i] = ((int) (s[i]));
+    }
+
+    this.m_r25 = loadDoubles(id, "R25"); //$NON-NLS-1$
+    this.m_r50 = loadDoubles(id, "R50"); //$NON-NLS-1$
+    this.m_r100 = loadDoubles(id, "R100"); //$NON-NLS-1$
+  }
+
+  /**
+   * Obtain the bound of the search space of a function
+   *
+   * @param id
+   *          the number of the function
+   * @return the bound
+   */
+  private static final double bound(final int id) {
+    switch (id) {
+      case 2:
+      case 5:
+      case 9: {
+        return 5d;
+      }
+      case 3:
+      case 6:
+      case 10: {
+        return 32d;
+      }
+      default: {
+        return 100d;
+      }
+    }
+  }
+
+  /**
+   * Load a vector or matrix of <code>double</code>s of a function. A file
+   * in the {@link BinaryData binary format} is mapped if there is one,
+   * otherwise the text file is parsed.
+   *
+   * @param id
+   *          the number of the function
+   * @param suffix
+   *          the suffix of the data file
+   * @return the elements
+   */
+  private static final double[] loadDoubles(final int id,
+      final String suffix) {
+    final File f;
+
+    f = binary(id, suffix);
+    if (f != null) {
+      return BinaryData.loadDoubles(f);
+    }
+    if (suffix.charAt(0) == 'R') {
+      return Utils.loadRotMatrix(open(id, suffix));
+    }
+    return Utils.loadShiftVector(open(id, suffix));
+  }
+
+  /**
+   * Load the permutation vector of a function. A file in the
+   * {@link BinaryData binary format} is mapped if there is one, otherwise
+   * the text file is parsed.
+   *
+   * @param id
+   *          the number of the function
+   * @param suffix
+   *          the suffix of the data file
+   * @return the zero-based permutation vector
+   */
+  private static final int[] loadInts(final int id, final String suffix) {
+    final File f;
+
+    f = binary(id, suffix);
+    if (f != null) {
+      return BinaryData.loadInts(f);
+    }
+    return Utils.loadPermVector(open(id, suffix));
+  }
+
+  /**
+   * Find the binary data file of a function, either in a directory of the
+   * class path or in the directory the native library extracts the data
+   * files to. Binary files inside jars cannot be mapped and are ignored.
+   *
+   * @param id
+   *          the number of the function
+   * @param suffix
+   *          the suffix of the data file
+   * @return the binary file, or <code>null</code> if there is none
+   */
+  private static final File binary(final int id, final String suffix) {
+    final String name;
+    final URL u;
+    File f;
+
+    name = "F" + id + '-' + suffix + BinaryData.SUFFIX; //$NON-NLS-1$
+    u = CEC2013Function.class.getResource(DATA_RESOURCE + name);
+    if ((u != null) && "file".equals(u.getProtocol())) { //$NON-NLS-1$
+      try {
+        f = new File(u.toURI());
+        if (f.isFile()) {
+          return f;
+        }
+      } catch (Throwable t) {
+        // fall back to the extraction directory
+      }
+    }
+
+    f = new File(DATA_DIR, name);
+    return (f.isFile() ? f : null);
+  }
+
+  /**
+   * Open a data file of a function, either from the class path or from the
+   * directory the native library extracts them to
+   *
+   * @param id
+   *          the number of the function
+   * @param suffix
+   *          the suffix of the data file
+   * @return the input stream to read from
+   */
+  private static final InputStream open(final int id, final String suffix) {
+    final String name;
+    InputStream is;
+
+    name = "F" + id + '-' + suffix + ".txt"; //$NON-NLS-1$//$NON-NLS-2$
+    is = CEC2013Function.class.getResourceAsStream(DATA_RESOURCE + name);
+    if (is != null) {
+      return is;
+    }
+
+    try {
+      return new FileInputStream(DATA_DIR + File.separatorChar + name);
+    } catch (Throwable t) {
+      throw new RuntimeException(t); // bypass exception checking
+    }
+  }
+
+  /**
+   * Compute the value of the benchmark function.
+   *
+   * @param x
+   *          the candidate solution vector
+   * @return the value of the function
+   */
+  // @Override
+  public final double compute(final double[] x) {
+    return this.compute(x, 0);
+  }
+
+  /**
+   * Compute the value of the function for the candidate vector stored in
+   * <code>x</code> starting at index <code>offset</code>.
+   *
+   * @param x
+   *          the array holding the candidate solution vector
+   * @param offset
+   *          the index of the first element of the candidate vector
+   * @return the value of the function
+   */
+  // @Override
+  public final double compute(final double[] x, final int offset) {
+    final Workspace ws;
+    final double[] z, o;
+    final int[] p, s;
+    final int dim;
+    double[] rz;
+    double res;
+    int i, j, c, start, shift, size;
+
+    ws = Workspace.get();
+    z = ws.getTmp(this.m_dimension);
+    o = this.m_o;
+    dim = this.m_dimension;
+
+    s = this.m_s;
+    if (s == null) {
+      for (i = dim; (--i) >= 0;) {
+        z[i] = (x[offset + i] - o[i]);
+      }
+      return base(this.m_base, z, dim);
+    }
+
+    rz = ws.getTmp2(100);
+    p = this.m_p;
+    res = 0d;
+    c = 0;
+    for (i = 0; i < s.length; i++) {
+      size = s[i];
+      start = (c - (i * this.m_overlap));
+
+      if (this.m_id == 14) {
+        // conflicting subcomponents: each has its own shift vector
+        for (j = 0; j < size; j++) {
+          z[j] = (x[offset + p[start + j]] - o[c + j]);
+        }
+      } else {
+        for (j = 0; j < size; j++) {
+          shift = p[start + j];
+          z[j] = (x[offset + shift] - o[shift]);
+        }
+      }
+
+      res += (this.m_w[i] * //
+          base(this.m_base, this.rotate(z, rz, size), size));
+      c += size;
+    }
+
+    if (this.m_rest != NONE) {
+      size = (dim - c);
+      for (j = 0; j < size; j++) {
+        shift = p[c + j];
+        z[j] = (x[offset + shift] - o[shift]);
+      }
+      res += base(this.m_rest, z, size);
+    }
+
+    return res;
+  }
+
+  /**
+   * Rotate the first <code>size</code> elements of a vector with the
+   * rotation matrix of the matching size.
+   *
+   * @param z
+   *          the vector
+   * @param rz
+   *          the temporary vector to receive the rotated subcomponent
+   * @param size
+   *          the size of the subcomponent, either 25, 50, or 100
+   * @return <code>rz</code>
+   */
+  private final double[] rotate(final double[] z, final double[] rz,
+      final int size) {
+    final double[] m;
+    double d0, d1, d2, d3, zj;
+    int i, j, k;
+
+    switch (size) {
+      case 25: {
+        m = this.m_r25;
+        break;
+      }
+      case 50: {
+        m = this.m_r50;
+        break;
+      }
+      case 100: {
+        m = this.m_r100;
+        break;
+      }
+      default: {
+        throw new IllegalStateException(
+            "Size of rotation matrix out of range: " + size); //$NON-NLS-1$
+      }
+    }
+
+    // four rows at once, so that each element of z is loaded once for them
+    for (i = 0, k = 0; i < (size - 3); i += 4, k += (size << 2)) {
+      d0 = d1 = d2 = d3 = 0d;
+      for (j = 0; j < size; j++) {
+        zj = z[j];
+        d0 += (zj * m[k + j]);
+        d1 += (zj * m[k + size + j]);
+        d2 += (zj * m[k + (size << 1) + j]);
+        d3 += (zj * m[k + (3 * size) + j]);
+      }
+      rz[i] = d0;
+      rz[i + 1] = d1;
+      rz[i + 2] = d2;
+      rz[i + 3] = d3;
+    }
+
+    for (; i < size; i++, k += size) {
+      d0 = 0d;
+      for (j = 0; j < size; j++) {
+        d0 += (z[j] * m[k + j]);
+      }
+      rz[i] = d0;
+    }
+
+    return rz;
+  }
+
+  /**
+   * Compute a base function on the first <code>dim</code> elements of a
+   * vector, which may be transformed in place.
+   *
+   * @param base
+   *          the base function
+   * @param z
+   *          the (already shifted) vector
+   * @param dim
+   *          the number of elements to use
+   * @return the value of the base function
+   */
+  private static final double base(final int base, final double[] z,
+      final int dim) {
+    switch (base) {
+      case ELLIPTIC: {
+        return elliptic(z, dim);
+      }
+      case RASTRIGIN: {
+        return rastrigin(z, dim);
+      }
+      case ACKLEY: {
+        return ackley(z, dim);
+      }
+      case SCHWEFEL: {
+        return schwefel(z, dim);
+      }
+      case ROSENBROCK: {
+        return rosenbrock(z, dim);
+      }
+      default: {
+        return sphere(z, dim);
+      }
+    }
+  }
+
+  /**
+   * The elliptic function with the oscillation transformation.
+   *
+   * @param z
+   *          the vector, transformed in place
+   * @param dim
+   *          the number of elements to use
+   * @return the function value
+   */
+  private static final double elliptic(final double[] z, final int dim) {
+    double res;
+    int i;
+
+    transformOsz(z, dim);
+
+    res = 0d;
+    for (i = (dim - 1); i >= 0; i--) {
+      res += (Math.pow(1.0e6, i / ((double) (dim - 1))) * z[i] * z[i]);
+    }
+
+    return res;
+  }
+
+  /**
+   * The rastrigin function with the oscillation, asymmetry, and
+   * ill-conditioning transformations.
+   *
+   * @param z
+   *          the vector, transformed in place
+   * @param dim
+   *          the number of elements to use
+   * @return the function value
+   */
+  private static final double rastrigin(final double[] z, final int dim) {
+    double res;
+    int i;
+
+    transformOsz(z, dim);
+    transformAsy(z, 0.2, dim);
+    lambda(z, 10d, dim);
+
+    res = 0d;
+    for (i = (dim - 1); i >= 0; i--) {
+      res += ((z[i] * z[i]) - (10d * Math.cos(2d * Math.PI * z[i])) + 10d);
+    }
+
+    return res;
+  }
+
+  /**
+   * The ackley function with the oscillation, asymmetry, and
+   * ill-conditioning transformations.
+   *
+   * @param z
+   *          the vector, transformed in place
+   * @param dim
+   *          the number of elements to use
+   * @return the function value
+   */
+  private static final double ackley(final double[] z, final int dim) {
+    double sum1, sum2;
+    int i;
+
+    transformOsz(z, dim);
+    transformAsy(z, 0.2, dim);
+    lambda(z, 10d, dim);
+
+    sum1 = 0d;
+    sum2 = 0d;
+    for (i = (dim - 1); i >= 0; i--) {
+      sum1 += (z[i] * z[i]);
+      sum2 += Math.cos(2d * Math.PI * z[i]);
+    }
+
+    return ((-20d * Math.exp(-0.2 * Math.sqrt(sum1 / dim)))
+        - Math.exp(sum2 / dim) + 20d + Math.E);
+  }
+
+  /**
+   * Schwefel's problem 1.2 with the oscillation and asymmetry
+   * transformations.
+   *
+   * @param z
+   *          the vector, transformed in place
+   * @param dim
+   *          the number of elements to use
+   * @return the function value
+   */
+  private static final double schwefel(final double[] z, final int dim) {
+    double s1, s2;
+    int i;
+
+    transformOsz(z, dim);
+    transformAsy(z, 0.2, dim);
+
+    s1 = 0d;
+    s2 = 0d;
+    for (i = 0; i < dim; i++) {
+      s1 += z[i];
+      s2 += (s1 * s1);
+    }
+
+    return s2;
+  }
+
+  /**
+   * The rosenbrock function.
+   *
+   * @param z
+   *          the vector
+   * @param dim
+   *          the number of elements to use
+   * @return the function value
+   */
+  private static final double rosenbrock(final double[] z, final int dim) {
+    double res, t;
+    int i;
+
+    res = 0d;
+    for (i = (dim - 2); i >= 0; i--) {
+      t = ((z[i] * z[i]) - z[i + 1]);
+      res += (100d * t * t);
+      t = (z[i] - 1d);
+      res += (t * t);
+    }
+
+    return res;
+  }
+
+  /**
+   * The sphere function.
+   *
+   * @param z
+   *          the vector
+   * @param dim
+   *          the number of elements to use
+   * @return the function value
+   */
+  private static final double sphere(final double[] z, final int dim) {
+    double res;
+    int i;
+
+    res = 0d;
+    for (i = (dim - 1); i >= 0; i--) {
+      res += (z[i] * z[i]);
+    }
+
+    return res;
+  }
+
+  /**
+   * The oscillation transformation T_osz, applied in place.
+   *
+   * @param z
+   *          the vector
+   * @param dim
+   *          the number of elements to use
+   */
+  private static final void transformOsz(final double[] z, final int dim) {
+    double v, h;
+    int i;
+
+    for (i = (dim - 1); i >= 0; i--) {
+      v = z[i];
+      if (v > 0d) {
+        h = Math.log(v);
+        z[i] = Math.exp(h + (0.049 * (Math.sin(10d * h) + Math.sin(7.9 * h))));
+      } else if (v < 0d) {
+        h = Math.log(-v);
+        z[i] = -Math.exp(h + (0.049 * (Math.sin(5.5 * h) + Math.sin(3.1 * h))));
+      }
+    }
+  }
+
+  /**
+   * The asymmetry transformation T_asy, applied in place.
+   *
+   * @param z
+   *          the vector
+   * @param beta
+   *          the asymmetry
+   * @param dim
+   *          the number of elements to use
+   */
+  private static final void transformAsy(final double[] z,
+      final double beta, final int dim) {
+    double v;
+    int i;
+
+    for (i = (dim - 1); i >= 0; i--) {
+      v = z[i];
+      if (v > 0d) {
+        z[i] = Math.pow(v, 1d + ((beta * i) / ((double) (dim - 1)))
+            * Math.sqrt(v));
+      }
+    }
+  }
+
+  /**
+   * The ill-conditioning transformation, applied in place.
+   *
+   * @param z
+   *          the vector
+   * @param alpha
+   *          the conditioning
+   * @param dim
+   *          the number of elements to use
+   */
+  private static final void lambda(final double[] z, final double alpha,
+      final int dim) {
+    int i;
+
+    for (i = (dim - 1); i >= 0; i--) {
+      z[i] *= Math.pow(alpha, (0.5 * i) / ((double) (dim - 1)));
+    }
+  }
+
+  /**
+   * Obtain the optimum vector of the benchmark function. The subcomponents
+   * of f14 are shifted in conflicting directions, so it has no common
+   * shifted optimum and <code>null</code> is returned.
+   *
+   * @return the optimum vector of the benchmark function
+   */
+  // @Override
+  public final double[] getOptimum() {
+    final double[] o;
+    int i;
+
+    if (this.m_id == 14) {
+      return null;
+    }
+    if (this.m_id != 12) {
+      return this.m_o.clone();
+    }
+
+    // the rosenbrock function is minimal at z = 1, not z = 0
+    o = this.m_o.clone();
+    for (i = o.length; (--i) >= 0;) {
+      o[i] += 1d;
+    }
+    return o;
+  }
+
+  /**
+   * Obtain the full name of the benchmark function
+   *
+   * @return the full name of the benchmark function
+   */
+  // @Override
+  public final String getFullName() {
+    return "CEC'2013 LSGO Function " + this.m_id; //$NON-NLS-1$
+  }
+
+  /**
+   * Obtain the short name of the benchmark function
+   *
+   * @return the short name of the benchmark function
+   */
+  // @Override
+  public final String getShortName() {
+    return "F" + this.m_id; //$NON-NLS-1$
+  }
+}
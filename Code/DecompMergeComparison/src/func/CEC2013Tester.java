@@ -0,0 +1,104 @@
+package func;
+
+/*
+ * Not part of the CEC'2010 benchmark code of Thomas Weise. Like the rest
+ * of the project outside of that code, it is distributed under the MIT
+ * license, see the LICENSE file.
+ */
+
+import java.util.Random;
+
+import javacec2013.JNIfgeneric2013;
+
+/**
+ * The tester comparing the pure Java implementation of the CEC'2013
+ * benchmark functions ({@link CEC2013Function}) with the native
+ * <code>libcec2013lsgo</code> library. Like the library, it must be run
+ * from a directory where the data files can be extracted to
+ * <code>cdatafiles</code>. The parameters are the numbers of the
+ * functions to test; all fifteen are tested if none are given.
+ */
+public class CEC2013Tester {
+
+  /** the number of random points tested per function */
+  private static final int POINTS = 100;
+
+  /** the largest relative error accepted */
+  private static final double TOLERANCE = 1e-9;
+
+  /**
+   * Compare the pure Java and the native results at the global optimum,
+   * at the origin, and at random points within the bounds.
+   *
+   * @param params
+   *          the numbers of the functions to test
+   */
+  public static final void main(final String[] params) {
+    final Random r;
+    int[] ids;
+    int i, j, k, failed;
+    CEC2013Function f;
+    JNIfgeneric2013 n;
+    double[] x, o;
+    double a, b, err, worst;
+
+    if (params.length > 0) {
+      ids = new int[params.length];
+      for (i = ids.length; (--i) >= 0;) {
+        ids[i] = Integer.parseInt(params[i]);
+      }
+    } else {
+      ids = new int[15];
+      for (i = ids.length; (--i) >= 0;) {
+        ids[i] = (i + 1);
+      }
+    }
+
+    r = new Random(2013);
+    failed = 0;
+    for (i = 0; i < ids.length; i++) {
+      f = new CEC2013Function(ids[i]);
+      n = new JNIfgeneric2013(ids[i], f.getDimension());
+      x = new double[f.getDimension()];
+      o = f.getOptimum();
+      worst = 0d;
+
+      try {
+        for (j = 0; j < (POINTS + 2); j++) {
+          for (k = x.length; (--k) >= 0;) {
+            if (j == 0) {
+              x[k] = ((o == null) ? 0d : o[k]);
+            } else if (j == 1) {
+              x[k] = 0d;
+            } else {
+              x[k] = f.getMin()
+                  + (r.nextDouble() * (f.getMax() - f.getMin()));
+            }
+          }
+
+          a = f.compute(x);
+          b = n.evaluate(x);
+          err = Math.abs(a - b) / Math.max(1d, Math.abs(b));
+          if (err > worst) {
+            worst = err;
+          }
+        }
+      } finally {
+        n.destroy();
+      }
+
+      System.out.print(f.getShortName());
+      System.out.print('\t');
+      System.out.print(worst);
+      if (worst > TOLERANCE) {
+        failed++;
+        System.out.print("\tFAILED"); //$NON-NLS-1$
+      }
+      System.out.println();
+    }
+
+    if (failed > 0) {
+      System.exit(1);
+    }
+  }
+}
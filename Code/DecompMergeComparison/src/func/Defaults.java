@@ -16,11 +16,11 @@ package func;
  */
 public class Defaults {
 
-  /** the default dimension */
-  public static int DEFAULT_DIM = 123;
-
-  /** 2013 or 2011 benchmark */
-  public static boolean benchmark2013 = false;
+  /**
+   * the dimension of the instances created by the constructors without a
+   * dimension parameter
+   */
+  public static final int DEFAULT_DIM = 123;
 
   /** the default m */
   static int DEFAULT_M = 25;
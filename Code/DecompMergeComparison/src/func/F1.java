@@ -8,10 +8,6 @@ package func;
  * GNU LESSER GENERAL PUBLIC LICENSE (Version 2.1, February 1999)
  */
 
-import javacec2013.JNIfgeneric2013;
-
-import static func.Defaults.benchmark2013;
-
 /**
  * The shifted elliptic function: F1.
  * 
@@ -31,8 +27,6 @@ public final class F1 extends ShiftedFunction {
   /** the lookup table */
   private final double[] m_lookup;
 
-  private JNIfgeneric2013 func;
-
   /**
    * Create a new shifted elliptic function
    * 
@@ -43,10 +37,7 @@ public final class F1 extends ShiftedFunction {
   {
     super(o, MIN, MAX);
     this.m_lookup = Kernel.createPowLookup(this.m_dimension);
-    if(benchmark2013)
-    {
-      func = new JNIfgeneric2013(1, Defaults.DEFAULT_DIM);
-    }
+    this.setGroups(null, 0, 0, this.m_dimension, Defaults.DEFAULT_M);
   }
 
   /**
@@ -65,7 +56,30 @@ public final class F1 extends ShiftedFunction {
    */
   public F1()
   {
-    this(Defaults.getRandomizer(F1.class));
+    this(Defaults.DEFAULT_DIM);
+  }
+
+  /**
+   * Create a default instance of F1 of the given dimension.
+   * 
+   * @param dim
+   *          the dimension
+   */
+  public F1(final int dim)
+  {
+    this(InstanceData.get(F1.class, dim, MIN, MAX,//
+        InstanceData.SHIFTED));
+  }
+
+  /**
+   * Create a default instance of F1 from the shared instance data.
+   * 
+   * @param d
+   *          the instance data
+   */
+  private F1(final InstanceData d)
+  {
+    this(d.m_o);
   }
 
   /**
@@ -80,11 +94,42 @@ public final class F1 extends ShiftedFunction {
   // @Override
   public final double compute(final double[] x)
   {
-    if(benchmark2013)
-      return func.evaluate(x);
+    return this.compute(x, 0);
+  }
+
+  /**
+   * Compute the value of the function for the candidate vector stored in
+   * <code>x</code> starting at index <code>offset</code>.
+   * 
+   * @param x
+   *          the array holding the candidate solution vector
+   * @param offset
+   *          the index of the first element of the candidate vector
+   * @return the value of the function
+   */
+  // @Override
+  public final double compute(final double[] x, final int offset) {
+    return Kernel.shiftedElliptic(x, offset, this.m_o, 0, this.m_dimension,
+        this.m_lookup, 0);
+  }
+
+  /**
+   * Compute the contribution of a single group to the function value.
+   * The groups are consecutive blocks of the separable function.
+   * 
+   * @param x
+   *          the candidate solution vector
+   * @param group
+   *          the group
+   * @return the contribution of the group
+   */
+  // @Override
+  public final double computeGroup(final double[] x, final int group) {
+    final int start;
 
-    return Kernel.shiftedElliptic(x, this.m_o, 0, this.m_dimension,
-        this.m_lookup);
+    start = this.m_groupStart[group];
+    return Kernel.shiftedElliptic(x, 0, this.m_o, start,//
+        this.m_groupStart[group + 1] - start, this.m_lookup, start);
   }
 
   /**
@@ -7,20 +7,10 @@ package func;
  * GNU LESSER GENERAL PUBLIC LICENSE (Version 2.1, February 1999)
  */
 
-import javacec2013.JNIfgeneric2013;
-
-import static func.Defaults.benchmark2013;
-
 /**
  * <p>
  * The D/2m-group Shifted and m-rotated Rastrigin�s Function: F10.
  * </p>
- * <p>
- * This function is not <warning>not threadsafe</warning> because it uses
- * internal temporary variables. Therefore, you should always use each
- * instance of this function for one single {#link java.lang.Thread} only.
- * You may clone or serialize function instances to use multiple threads.
- * <p>
  * 
  * @author Thomas Weise
  */
@@ -30,14 +20,11 @@ public final class F10 extends ShiftedPermutatedRotatedFunction {
   private static final long serialVersionUID = 1;
 
   /** the maximum value */
-  public static final double MAX = (benchmark2013)?32d:5d;
-  //public static final double MAX = 32d; // 2013
+  public static final double MAX = 5d;
 
   /** the minimum value */
   public static final double MIN = (-MAX);
 
-  private JNIfgeneric2013 func;
-
   /**
    * Create a new D/2m-group Shifted and m-rotated Rastrigin�s Function
    * 
@@ -51,10 +38,8 @@ public final class F10 extends ShiftedPermutatedRotatedFunction {
   public F10(final double[] o, final int[] p, final double[] m) {
     super(o, p, m, MIN, MAX);
 
-    if(benchmark2013)
-    {
-      func = new JNIfgeneric2013(10, Defaults.DEFAULT_DIM);
-    }
+    this.setGroups(this.m_p, this.m_dimension / (this.m_matDim << 1),//
+        this.m_matDim, this.m_dimension, this.m_matDim);
   }
 
   /**
@@ -73,7 +58,28 @@ public final class F10 extends ShiftedPermutatedRotatedFunction {
    * Create a default instance of F10.
    */
   public F10() {
-    this(Defaults.getRandomizer(F10.class));
+    this(Defaults.DEFAULT_DIM);
+  }
+
+  /**
+   * Create a default instance of F10 of the given dimension.
+   * 
+   * @param dim
+   *          the dimension
+   */
+  public F10(final int dim) {
+    this(InstanceData.get(F10.class, dim, MIN, MAX,//
+        InstanceData.ROTATED));
+  }
+
+  /**
+   * Create a default instance of F10 from the shared instance data.
+   * 
+   * @param d
+   *          the instance data
+   */
+  private F10(final InstanceData d) {
+    this(d.m_o, d.m_p, d.m_m);
   }
 
   /**
@@ -88,16 +94,21 @@ public final class F10 extends ShiftedPermutatedRotatedFunction {
   // @Override
   public final double compute(final double[] x)
   {
-    if(benchmark2013)
-    {
-      double eval = func.evaluate(x);
-      if(Double.isNaN(eval))
-      {
-        eval = Double.MAX_VALUE;
-      }
-      return eval;
-    }
+    return this.compute(x, 0);
+  }
 
+  /**
+   * Compute the value of the function for the candidate vector stored in
+   * <code>x</code> starting at index <code>offset</code>.
+   * 
+   * @param x
+   *          the array holding the candidate solution vector
+   * @param offset
+   *          the index of the first element of the candidate vector
+   * @return the value of the function
+   */
+  // @Override
+  public final double compute(final double[] x, final int offset) {
     final int max, gs, d;
     double s;
     int i, e;
@@ -109,15 +120,40 @@ public final class F10 extends ShiftedPermutatedRotatedFunction {
     s = 0d;
     e = 0;
     for (i = 0; i < max; i++) {
-      s += Kernel.shiftedPermRotRastrigin(x, this.m_o, this.m_p, this.m_m,//
-          e, gs, this.m_tmp); //
+      s += Kernel.shiftedPermRotRastrigin(x, offset, this.m_o, this.m_p,//
+          this.m_mt, e, gs, this.getTmp()); //
       e += gs;
     }
 
-    return (s + Kernel.shiftedPermRastrigin(x, this.m_o, this.m_p, e,
+    return (s + Kernel.shiftedPermRastrigin(x, offset, this.m_o, this.m_p, e,
         this.m_dimension - e));
   }
 
+  /**
+   * Compute the contribution of a single group to the function value.
+   * The first D/2m groups are the non-separable parts, the others are
+   * blocks of the separable part.
+   * 
+   * @param x
+   *          the candidate solution vector
+   * @param group
+   *          the group
+   * @return the contribution of the group
+   */
+  // @Override
+  public final double computeGroup(final double[] x, final int group) {
+    final int start, max;
+
+    start = this.m_groupStart[group];
+    max = (this.m_dimension / (this.m_matDim << 1));
+    if (group < max) {
+      return Kernel.shiftedPermRotRastrigin(x, 0, this.m_o, this.m_p,//
+          this.m_mt, start, this.m_matDim, this.getTmp());
+    }
+    return Kernel.shiftedPermRastrigin(x, 0, this.m_o, this.m_p, start,//
+        this.m_groupStart[group + 1] - start);
+  }
+
   /**
    * Obtain the full name of the benchmark function (according to
    * &quot;Benchmark Functions for the CEC�2010 Special Session and
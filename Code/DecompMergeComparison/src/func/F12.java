@@ -7,10 +7,6 @@ package func;
  * GNU LESSER GENERAL PUBLIC LICENSE (Version 2.1, February 1999)
  */
 
-import javacec2013.JNIfgeneric2013;
-
-import static func.Defaults.benchmark2013;
-
 /**
  * The D/2m-group Shifted m-dimensional Schwefel�s Problem 1.2: F12.
  * 
@@ -30,8 +26,6 @@ public final class F12 extends ShiftedPermutatedFunction {
   /** the m-value */
   private final int m_m;
 
-  private JNIfgeneric2013 func;
-
   /**
    * Create a new D/2m--group Shifted m-dimensional Schwefel�s Problem 1.2
    * 
@@ -46,10 +40,8 @@ public final class F12 extends ShiftedPermutatedFunction {
     super(o, p, MIN, MAX);
     this.m_m = m;
 
-    if(benchmark2013)
-    {
-      func = new JNIfgeneric2013(12, Defaults.DEFAULT_DIM);
-    }
+    this.setGroups(this.m_p, this.m_dimension / (this.m_m << 1),//
+        this.m_m, this.m_dimension, this.m_m);
   }
 
   /**
@@ -68,7 +60,28 @@ public final class F12 extends ShiftedPermutatedFunction {
    * Create a default instance of F1.
    */
   public F12() {
-    this(Defaults.getRandomizer(F12.class));
+    this(Defaults.DEFAULT_DIM);
+  }
+
+  /**
+   * Create a default instance of F12 of the given dimension.
+   * 
+   * @param dim
+   *          the dimension
+   */
+  public F12(final int dim) {
+    this(InstanceData.get(F12.class, dim, MIN, MAX,//
+        InstanceData.PERMUTATED));
+  }
+
+  /**
+   * Create a default instance of F12 from the shared instance data.
+   * 
+   * @param d
+   *          the instance data
+   */
+  private F12(final InstanceData d) {
+    this(d.m_o, d.m_p, Defaults.DEFAULT_M);
   }
 
   /**
@@ -83,9 +96,21 @@ public final class F12 extends ShiftedPermutatedFunction {
   // @Override
   public final double compute(final double[] x)
   {
-    if(benchmark2013)
-      return func.evaluate(x);
+    return this.compute(x, 0);
+  }
 
+  /**
+   * Compute the value of the function for the candidate vector stored in
+   * <code>x</code> starting at index <code>offset</code>.
+   * 
+   * @param x
+   *          the array holding the candidate solution vector
+   * @param offset
+   *          the index of the first element of the candidate vector
+   * @return the value of the function
+   */
+  // @Override
+  public final double compute(final double[] x, final int offset) {
     final int max, gs, d;
     double s;
     int i, e;
@@ -97,14 +122,40 @@ public final class F12 extends ShiftedPermutatedFunction {
     s = 0d;
     e = 0;
     for (i = 0; i < max; i++) {
-      s += Kernel.shiftedPermSchwefel12(x, this.m_o, this.m_p, e, gs); //
+      s += Kernel.shiftedPermSchwefel12(x, offset, this.m_o, this.m_p,//
+          e, gs); //
       e += gs;
     }
 
-    return (s + Kernel.shiftedPermSphere(x, this.m_o, this.m_p, e,
+    return (s + Kernel.shiftedPermSphere(x, offset, this.m_o, this.m_p, e,
         this.m_dimension - e));
   }
 
+  /**
+   * Compute the contribution of a single group to the function value.
+   * The first D/2m groups are the non-separable parts, the others are
+   * blocks of the separable part.
+   * 
+   * @param x
+   *          the candidate solution vector
+   * @param group
+   *          the group
+   * @return the contribution of the group
+   */
+  // @Override
+  public final double computeGroup(final double[] x, final int group) {
+    final int start, max;
+
+    start = this.m_groupStart[group];
+    max = (this.m_dimension / (this.m_m << 1));
+    if (group < max) {
+      return Kernel.shiftedPermSchwefel12(x, 0, this.m_o, this.m_p, start,//
+          this.m_m);
+    }
+    return Kernel.shiftedPermSphere(x, 0, this.m_o, this.m_p, start,//
+        this.m_groupStart[group + 1] - start);
+  }
+
   /**
    * Obtain the full name of the benchmark function (according to
    * &quot;Benchmark Functions for the CEC�2010 Special Session and
@@ -7,10 +7,6 @@ package func;
  * GNU LESSER GENERAL PUBLIC LICENSE (Version 2.1, February 1999)
  */
 
-import javacec2013.JNIfgeneric2013;
-
-import static func.Defaults.benchmark2013;
-
 /**
  * The D/2m-group Shifted m-dimensional Rosenbrock�s Function: F13.
  * 
@@ -31,9 +27,7 @@ public final class F13 extends ShiftedPermutatedFunction {
   private final int m_m;
   
   /** the optimum vector */
-  private transient double[] m_opt;
-
-  private JNIfgeneric2013 func;
+  private transient volatile double[] m_opt;
 
   /**
    * Create a new D/2m--group v
@@ -49,10 +43,8 @@ public final class F13 extends ShiftedPermutatedFunction {
     super(o, p, MIN, MAX);
     this.m_m = m;
 
-    if(benchmark2013)
-    {
-      func = new JNIfgeneric2013(13, Defaults.DEFAULT_DIM);
-    }
+    this.setGroups(this.m_p, this.m_dimension / (this.m_m << 1),//
+        this.m_m, this.m_dimension, this.m_m);
   }
 
   /**
@@ -71,7 +63,28 @@ public final class F13 extends ShiftedPermutatedFunction {
    * Create a default instance of F13.
    */
   public F13() {
-    this(Defaults.getRandomizer(F13.class));
+    this(Defaults.DEFAULT_DIM);
+  }
+
+  /**
+   * Create a default instance of F13 of the given dimension.
+   * 
+   * @param dim
+   *          the dimension
+   */
+  public F13(final int dim) {
+    this(InstanceData.get(F13.class, dim, MIN, MAX - 1d,//
+        InstanceData.PERMUTATED));
+  }
+
+  /**
+   * Create a default instance of F13 from the shared instance data.
+   * 
+   * @param d
+   *          the instance data
+   */
+  private F13(final InstanceData d) {
+    this(d.m_o, d.m_p, Defaults.DEFAULT_M);
   }
 
   /**
@@ -86,9 +99,21 @@ public final class F13 extends ShiftedPermutatedFunction {
   // @Override
   public final double compute(final double[] x)
   {
-    if(benchmark2013)
-      return func.evaluate(x);
+    return this.compute(x, 0);
+  }
 
+  /**
+   * Compute the value of the function for the candidate vector stored in
+   * <code>x</code> starting at index <code>offset</code>.
+   * 
+   * @param x
+   *          the array holding the candidate solution vector
+   * @param offset
+   *          the index of the first element of the candidate vector
+   * @return the value of the function
+   */
+  // @Override
+  public final double compute(final double[] x, final int offset) {
     final int max, gs, d;
     double s;
     int i, e;
@@ -100,14 +125,40 @@ public final class F13 extends ShiftedPermutatedFunction {
     s = 0d;
     e = 0;
     for (i = 0; i < max; i++) {
-      s += Kernel.shiftedPermRosenbrock(x, this.m_o, this.m_p, e, gs); //
+      s += Kernel.shiftedPermRosenbrock(x, offset, this.m_o, this.m_p,//
+          e, gs); //
       e += gs;
     }
 
-    return (s + Kernel.shiftedPermSphere(x, this.m_o, this.m_p, e,
+    return (s + Kernel.shiftedPermSphere(x, offset, this.m_o, this.m_p, e,
         this.m_dimension - e));
   }
 
+  /**
+   * Compute the contribution of a single group to the function value.
+   * The first D/2m groups are the non-separable parts, the others are
+   * blocks of the separable part.
+   * 
+   * @param x
+   *          the candidate solution vector
+   * @param group
+   *          the group
+   * @return the contribution of the group
+   */
+  // @Override
+  public final double computeGroup(final double[] x, final int group) {
+    final int start, max;
+
+    start = this.m_groupStart[group];
+    max = (this.m_dimension / (this.m_m << 1));
+    if (group < max) {
+      return Kernel.shiftedPermRosenbrock(x, 0, this.m_o, this.m_p, start,//
+          this.m_m);
+    }
+    return Kernel.shiftedPermSphere(x, 0, this.m_o, this.m_p, start,//
+        this.m_groupStart[group + 1] - start);
+  }
+
   /**
    * Obtain the full name of the benchmark function (according to
    * &quot;Benchmark Functions for the CEC�2010 Special Session and
@@ -148,7 +199,7 @@ public final class F13 extends ShiftedPermutatedFunction {
 
     d = this.m_opt;
     if (d != null) {
-      return d;
+      return ((double[]) (d.clone()));
     }
 
     d = ((double[]) (this.m_o.clone()));
@@ -160,6 +211,7 @@ public final class F13 extends ShiftedPermutatedFunction {
     }
  
 
-    return (this.m_opt = d);
+    this.m_opt = d;
+    return ((double[]) (d.clone()));
   }
 }
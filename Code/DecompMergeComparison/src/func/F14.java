@@ -7,20 +7,10 @@ package func;
  * GNU LESSER GENERAL PUBLIC LICENSE (Version 2.1, February 1999)
  */
 
-import javacec2013.JNIfgeneric2013;
-
-import static func.Defaults.benchmark2013;
-
 /**
  * <p>
  * The D/m-group group Shifted and m-rotated Elliptic Function: F14.
  * </p>
- * <p>
- * This function is not <warning>not threadsafe</warning> because it uses
- * internal temporary variables. Therefore, you should always use each
- * instance of this function for one single {#link java.lang.Thread} only.
- * You may clone or serialize function instances to use multiple threads.
- * <p>
  * 
  * @author Thomas Weise
  */
@@ -38,8 +28,6 @@ public final class F14 extends ShiftedPermutatedRotatedFunction {
   /** the lookup table */
   private final double[] m_lookup;
 
-  private JNIfgeneric2013 func;
-
   /**
    * Create a new D/m-group group Shifted and m-rotated Elliptic Function
    * 
@@ -54,10 +42,9 @@ public final class F14 extends ShiftedPermutatedRotatedFunction {
     super(o, p, m, MIN, MAX);
     this.m_lookup = Kernel.createPowLookup(this.m_matDim);
 
-    if(benchmark2013)
-    {
-      func = new JNIfgeneric2013(14, Defaults.DEFAULT_DIM);
-    }
+    this.setGroups(this.m_p, this.m_dimension / this.m_matDim,//
+        this.m_matDim, this.m_matDim * (this.m_dimension / this.m_matDim),//
+        1);
   }
 
   /**
@@ -76,7 +63,28 @@ public final class F14 extends ShiftedPermutatedRotatedFunction {
    * Create a default instance of F14.
    */
   public F14() {
-    this(Defaults.getRandomizer(F14.class));
+    this(Defaults.DEFAULT_DIM);
+  }
+
+  /**
+   * Create a default instance of F14 of the given dimension.
+   * 
+   * @param dim
+   *          the dimension
+   */
+  public F14(final int dim) {
+    this(InstanceData.get(F14.class, dim, MIN, MAX,//
+        InstanceData.ROTATED));
+  }
+
+  /**
+   * Create a default instance of F14 from the shared instance data.
+   * 
+   * @param d
+   *          the instance data
+   */
+  private F14(final InstanceData d) {
+    this(d.m_o, d.m_p, d.m_m);
   }
 
   /**
@@ -91,9 +99,21 @@ public final class F14 extends ShiftedPermutatedRotatedFunction {
   // @Override
   public final double compute(final double[] x)
   {
-    if(benchmark2013)
-      return func.evaluate(x);
+    return this.compute(x, 0);
+  }
 
+  /**
+   * Compute the value of the function for the candidate vector stored in
+   * <code>x</code> starting at index <code>offset</code>.
+   * 
+   * @param x
+   *          the array holding the candidate solution vector
+   * @param offset
+   *          the index of the first element of the candidate vector
+   * @return the value of the function
+   */
+  // @Override
+  public final double compute(final double[] x, final int offset) {
     final int max, gs, d;
     double s;
     int i, e;
@@ -105,8 +125,8 @@ public final class F14 extends ShiftedPermutatedRotatedFunction {
     s = 0d;
     e = 0;
     for (i = 0; i < max; i++) {
-      s += Kernel.shiftedPermRotElliptic(x, this.m_o, this.m_p, this.m_m,//
-          e, gs, this.m_tmp, this.m_lookup); //
+      s += Kernel.shiftedPermRotElliptic(x, offset, this.m_o, this.m_p,//
+          this.m_mt, e, gs, this.getTmp(), this.m_lookup); //
       e += gs;
     }
 
@@ -116,6 +136,22 @@ public final class F14 extends ShiftedPermutatedRotatedFunction {
                */);
   }
 
+  /**
+   * Compute the contribution of a single group to the function value.
+   * Each group is one of the D/m non-separable parts.
+   * 
+   * @param x
+   *          the candidate solution vector
+   * @param group
+   *          the group
+   * @return the contribution of the group
+   */
+  // @Override
+  public final double computeGroup(final double[] x, final int group) {
+    return Kernel.shiftedPermRotElliptic(x, 0, this.m_o, this.m_p, this.m_mt,//
+        this.m_groupStart[group], this.m_matDim, this.getTmp(), this.m_lookup);
+  }
+
   /**
    * Obtain the full name of the benchmark function (according to
    * &quot;Benchmark Functions for the CEC�2010 Special Session and
@@ -7,20 +7,10 @@ package func;
  * GNU LESSER GENERAL PUBLIC LICENSE (Version 2.1, February 1999)
  */
 
-import javacec2013.JNIfgeneric2013;
-
-import static func.Defaults.benchmark2013;
-
 /**
  * <p>
  * The D/m-group group Shifted and m-rotated Rastrigin�s Function: F15.
  * </p>
- * <p>
- * This function is not <warning>not threadsafe</warning> because it uses
- * internal temporary variables. Therefore, you should always use each
- * instance of this function for one single {#link java.lang.Thread} only.
- * You may clone or serialize function instances to use multiple threads.
- * <p>
  * 
  * @author Thomas Weise
  */
@@ -30,14 +20,11 @@ public final class F15 extends ShiftedPermutatedRotatedFunction {
   private static final long serialVersionUID = 1;
 
   /** the maximum value */
-  public static final double MAX = (benchmark2013)?100d:5d; // 2010
-  //public static final double MAX = 100d; // 2013
+  public static final double MAX = 5d;
 
   /** the minimum value */
   public static final double MIN = (-MAX);
 
-  private JNIfgeneric2013 func;
-
   /**
    * Create a new D/m-group group Shifted and m-rotated Rastrigin�s
    * Function
@@ -52,10 +39,9 @@ public final class F15 extends ShiftedPermutatedRotatedFunction {
   public F15(final double[] o, final int[] p, final double[] m) {
     super(o, p, m, MIN, MAX);
 
-    if(benchmark2013)
-    {
-      func = new JNIfgeneric2013(15, Defaults.DEFAULT_DIM);
-    }
+    this.setGroups(this.m_p, this.m_dimension / this.m_matDim,//
+        this.m_matDim, this.m_matDim * (this.m_dimension / this.m_matDim),//
+        1);
   }
 
   /**
@@ -74,7 +60,28 @@ public final class F15 extends ShiftedPermutatedRotatedFunction {
    * Create a default instance of F15.
    */
   public F15() {
-    this(Defaults.getRandomizer(F15.class));
+    this(Defaults.DEFAULT_DIM);
+  }
+
+  /**
+   * Create a default instance of F15 of the given dimension.
+   * 
+   * @param dim
+   *          the dimension
+   */
+  public F15(final int dim) {
+    this(InstanceData.get(F15.class, dim, MIN, MAX,//
+        InstanceData.ROTATED));
+  }
+
+  /**
+   * Create a default instance of F15 from the shared instance data.
+   * 
+   * @param d
+   *          the instance data
+   */
+  private F15(final InstanceData d) {
+    this(d.m_o, d.m_p, d.m_m);
   }
 
   /**
@@ -89,9 +96,21 @@ public final class F15 extends ShiftedPermutatedRotatedFunction {
   // @Override
   public final double compute(final double[] x)
   {
-    if(benchmark2013)
-      return func.evaluate(x);
+    return this.compute(x, 0);
+  }
 
+  /**
+   * Compute the value of the function for the candidate vector stored in
+   * <code>x</code> starting at index <code>offset</code>.
+   * 
+   * @param x
+   *          the array holding the candidate solution vector
+   * @param offset
+   *          the index of the first element of the candidate vector
+   * @return the value of the function
+   */
+  // @Override
+  public final double compute(final double[] x, final int offset) {
     final int max, gs, d;
     double s;
     int i, e;
@@ -103,8 +122,8 @@ public final class F15 extends ShiftedPermutatedRotatedFunction {
     s = 0d;
     e = 0;
     for (i = 0; i < max; i++) {
-      s += Kernel.shiftedPermRotRastrigin(x, this.m_o, this.m_p, this.m_m,//
-          e, gs, this.m_tmp); //
+      s += Kernel.shiftedPermRotRastrigin(x, offset, this.m_o, this.m_p,//
+          this.m_mt, e, gs, this.getTmp()); //
       e += gs;
     }
 
@@ -114,6 +133,22 @@ public final class F15 extends ShiftedPermutatedRotatedFunction {
                */);
   }
 
+  /**
+   * Compute the contribution of a single group to the function value.
+   * Each group is one of the D/m non-separable parts.
+   * 
+   * @param x
+   *          the candidate solution vector
+   * @param group
+   *          the group
+   * @return the contribution of the group
+   */
+  // @Override
+  public final double computeGroup(final double[] x, final int group) {
+    return Kernel.shiftedPermRotRastrigin(x, 0, this.m_o, this.m_p, this.m_mt,//
+        this.m_groupStart[group], this.m_matDim, this.getTmp());
+  }
+
   /**
    * Obtain the full name of the benchmark function (according to
    * &quot;Benchmark Functions for the CEC�2010 Special Session and
@@ -7,18 +7,10 @@ package func;
  * GNU LESSER GENERAL PUBLIC LICENSE (Version 2.1, February 1999)
  */
 
-import static func.Defaults.benchmark2013;
-
 /**
  * <p>
  * The D/m-group group Shifted and m-rotated Ackley�s Function: F16.
  * </p>
- * <p>
- * This function is not <warning>not threadsafe</warning> because it uses
- * internal temporary variables. Therefore, you should always use each
- * instance of this function for one single {#link java.lang.Thread} only.
- * You may clone or serialize function instances to use multiple threads.
- * <p>
  * 
  * @author Thomas Weise
  */
@@ -45,6 +37,10 @@ public final class F16 extends ShiftedPermutatedRotatedFunction {
    */
   public F16(final double[] o, final int[] p, final double[] m) {
     super(o, p, m, MIN, MAX);
+
+    this.setGroups(this.m_p, this.m_dimension / this.m_matDim,//
+        this.m_matDim, this.m_matDim * (this.m_dimension / this.m_matDim),//
+        1);
   }
 
   /**
@@ -63,7 +59,27 @@ public final class F16 extends ShiftedPermutatedRotatedFunction {
    * Create a default instance of F16.
    */
   public F16() {
-    this(Defaults.getRandomizer(F16.class));
+    this(Defaults.DEFAULT_DIM);
+  }
+
+  /**
+   * Create a default instance of F16 of the given dimension.
+   * 
+   * @param dim
+   *          the dimension
+   */
+  public F16(final int dim) {
+    this(InstanceData.get(F16.class, dim, MIN, MAX, InstanceData.ROTATED));
+  }
+
+  /**
+   * Create a default instance of F16 from the shared instance data.
+   * 
+   * @param d
+   *          the instance data
+   */
+  private F16(final InstanceData d) {
+    this(d.m_o, d.m_p, d.m_m);
   }
 
   /**
@@ -78,12 +94,21 @@ public final class F16 extends ShiftedPermutatedRotatedFunction {
   // @Override
   public final double compute(final double[] x)
   {
-    if(benchmark2013)
-    {
-      System.out.println("2013 benchmark suite does not have a function 16.");
-      System.exit(0);
-    }
+    return this.compute(x, 0);
+  }
 
+  /**
+   * Compute the value of the function for the candidate vector stored in
+   * <code>x</code> starting at index <code>offset</code>.
+   * 
+   * @param x
+   *          the array holding the candidate solution vector
+   * @param offset
+   *          the index of the first element of the candidate vector
+   * @return the value of the function
+   */
+  // @Override
+  public final double compute(final double[] x, final int offset) {
     final int max, gs, d;
     double s;
     int i, e;
@@ -95,8 +120,8 @@ public final class F16 extends ShiftedPermutatedRotatedFunction {
     s = 0d;
     e = 0;
     for (i = 0; i < max; i++) {
-      s += Kernel.shiftedPermRotAckley(x, this.m_o, this.m_p, this.m_m,//
-          e, gs, this.m_tmp); //
+      s += Kernel.shiftedPermRotAckley(x, offset, this.m_o, this.m_p,//
+          this.m_mt, e, gs, this.getTmp()); //
       e += gs;
     }
 
@@ -106,6 +131,22 @@ public final class F16 extends ShiftedPermutatedRotatedFunction {
                */);
   }
 
+  /**
+   * Compute the contribution of a single group to the function value.
+   * Each group is one of the D/m non-separable parts.
+   * 
+   * @param x
+   *          the candidate solution vector
+   * @param group
+   *          the group
+   * @return the contribution of the group
+   */
+  // @Override
+  public final double computeGroup(final double[] x, final int group) {
+    return Kernel.shiftedPermRotAckley(x, 0, this.m_o, this.m_p, this.m_mt,//
+        this.m_groupStart[group], this.m_matDim, this.getTmp());
+  }
+
   /**
    * Obtain the full name of the benchmark function (according to
    * &quot;Benchmark Functions for the CEC�2010 Special Session and
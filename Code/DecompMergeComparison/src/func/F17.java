@@ -7,8 +7,6 @@ package func;
  * GNU LESSER GENERAL PUBLIC LICENSE (Version 2.1, February 1999)
  */
 
-import static func.Defaults.benchmark2013;
-
 /**
  * The D/m-group Shifted m-dimensional Schwefel�s Problem 1.2: F17.
  * 
@@ -41,6 +39,9 @@ public final class F17 extends ShiftedPermutatedFunction {
   public F17(final double[] o, final int[] p, final int m) {
     super(o, p, MIN, MAX);
     this.m_m = m;
+
+    this.setGroups(this.m_p, this.m_dimension / this.m_m, this.m_m,//
+        this.m_m * (this.m_dimension / this.m_m), 1);
   }
 
   /**
@@ -59,7 +60,27 @@ public final class F17 extends ShiftedPermutatedFunction {
    * Create a default instance of F17.
    */
   public F17() {
-    this(Defaults.getRandomizer(F17.class));
+    this(Defaults.DEFAULT_DIM);
+  }
+
+  /**
+   * Create a default instance of F17 of the given dimension.
+   * 
+   * @param dim
+   *          the dimension
+   */
+  public F17(final int dim) {
+    this(InstanceData.get(F17.class, dim, MIN, MAX, InstanceData.PERMUTATED));
+  }
+
+  /**
+   * Create a default instance of F17 from the shared instance data.
+   * 
+   * @param d
+   *          the instance data
+   */
+  private F17(final InstanceData d) {
+    this(d.m_o, d.m_p, Defaults.DEFAULT_M);
   }
 
   /**
@@ -74,12 +95,21 @@ public final class F17 extends ShiftedPermutatedFunction {
   // @Override
   public final double compute(final double[] x)
   {
-    if(benchmark2013)
-    {
-      System.out.println("2013 benchmark suite does not have a function 17.");
-      System.exit(0);
-    }
+    return this.compute(x, 0);
+  }
 
+  /**
+   * Compute the value of the function for the candidate vector stored in
+   * <code>x</code> starting at index <code>offset</code>.
+   * 
+   * @param x
+   *          the array holding the candidate solution vector
+   * @param offset
+   *          the index of the first element of the candidate vector
+   * @return the value of the function
+   */
+  // @Override
+  public final double compute(final double[] x, final int offset) {
     final int max, gs, d;
     double s;
     int i, e;
@@ -91,7 +121,8 @@ public final class F17 extends ShiftedPermutatedFunction {
     s = 0d;
     e = 0;
     for (i = 0; i < max; i++) {
-      s += Kernel.shiftedPermSchwefel12(x, this.m_o, this.m_p, e, gs); //
+      s += Kernel.shiftedPermSchwefel12(x, offset, this.m_o, this.m_p,//
+          e, gs); //
       e += gs;
     }
 
@@ -101,6 +132,22 @@ public final class F17 extends ShiftedPermutatedFunction {
                */);
   }
 
+  /**
+   * Compute the contribution of a single group to the function value.
+   * Each group is one of the D/m non-separable parts.
+   * 
+   * @param x
+   *          the candidate solution vector
+   * @param group
+   *          the group
+   * @return the contribution of the group
+   */
+  // @Override
+  public final double computeGroup(final double[] x, final int group) {
+    return Kernel.shiftedPermSchwefel12(x, 0, this.m_o, this.m_p,//
+        this.m_groupStart[group], this.m_m);
+  }
+
   /**
    * Obtain the full name of the benchmark function (according to
    * &quot;Benchmark Functions for the CEC�2010 Special Session and
@@ -7,8 +7,6 @@ package func;
  * GNU LESSER GENERAL PUBLIC LICENSE (Version 2.1, February 1999)
  */
 
-import static func.Defaults.benchmark2013;
-
 /**
  * The D/m-group Shifted m-dimensional Rosenbrock�s Function: F18.
  * 
@@ -29,7 +27,7 @@ public final class F18 extends ShiftedPermutatedFunction {
   private final int m_m;
   
   /** the optimum vector */
-  private transient double[] m_opt;
+  private transient volatile double[] m_opt;
 
   /**
    * Create a new D/m--group Shifted m-dimensional Rosenbrock�s Function
@@ -44,6 +42,9 @@ public final class F18 extends ShiftedPermutatedFunction {
   public F18(final double[] o, final int[] p, final int m) {
     super(o, p, MIN, MAX);
     this.m_m = m;
+
+    this.setGroups(this.m_p, this.m_dimension / this.m_m, this.m_m,//
+        this.m_m * (this.m_dimension / this.m_m), 1);
   }
 
   /**
@@ -62,7 +63,27 @@ public final class F18 extends ShiftedPermutatedFunction {
    * Create a default instance of F18.
    */
   public F18() {
-    this(Defaults.getRandomizer(F18.class));
+    this(Defaults.DEFAULT_DIM);
+  }
+
+  /**
+   * Create a default instance of F18 of the given dimension.
+   * 
+   * @param dim
+   *          the dimension
+   */
+  public F18(final int dim) {
+    this(InstanceData.get(F18.class, dim, MIN, MAX - 1d, InstanceData.PERMUTATED));
+  }
+
+  /**
+   * Create a default instance of F18 from the shared instance data.
+   * 
+   * @param d
+   *          the instance data
+   */
+  private F18(final InstanceData d) {
+    this(d.m_o, d.m_p, Defaults.DEFAULT_M);
   }
 
   /**
@@ -77,12 +98,21 @@ public final class F18 extends ShiftedPermutatedFunction {
   // @Override
   public final double compute(final double[] x)
   {
-    if(benchmark2013)
-    {
-      System.out.println("2013 benchmark suite does not have a function 18.");
-      System.exit(0);
-    }
+    return this.compute(x, 0);
+  }
 
+  /**
+   * Compute the value of the function for the candidate vector stored in
+   * <code>x</code> starting at index <code>offset</code>.
+   * 
+   * @param x
+   *          the array holding the candidate solution vector
+   * @param offset
+   *          the index of the first element of the candidate vector
+   * @return the value of the function
+   */
+  // @Override
+  public final double compute(final double[] x, final int offset) {
     final int max, gs, d;
     double s;
     int i, e;
@@ -94,7 +124,8 @@ public final class F18 extends ShiftedPermutatedFunction {
     s = 0d;
     e = 0;
     for (i = 0; i < max; i++) {
-      s += Kernel.shiftedPermRosenbrock(x, this.m_o, this.m_p, e, gs); //
+      s += Kernel.shiftedPermRosenbrock(x, offset, this.m_o, this.m_p,//
+          e, gs); //
       e += gs;
     }
 
@@ -104,6 +135,22 @@ public final class F18 extends ShiftedPermutatedFunction {
                */);
   }
 
+  /**
+   * Compute the contribution of a single group to the function value.
+   * Each group is one of the D/m non-separable parts.
+   * 
+   * @param x
+   *          the candidate solution vector
+   * @param group
+   *          the group
+   * @return the contribution of the group
+   */
+  // @Override
+  public final double computeGroup(final double[] x, final int group) {
+    return Kernel.shiftedPermRosenbrock(x, 0, this.m_o, this.m_p,//
+        this.m_groupStart[group], this.m_m);
+  }
+
   /**
    * Obtain the full name of the benchmark function (according to
    * &quot;Benchmark Functions for the CEC�2010 Special Session and
@@ -142,7 +189,7 @@ public final class F18 extends ShiftedPermutatedFunction {
 
     d = this.m_opt;
     if (d != null) {
-      return d;
+      return ((double[]) (d.clone()));
     }
 
     d = ((double[]) (this.m_o.clone()));
@@ -150,6 +197,7 @@ public final class F18 extends ShiftedPermutatedFunction {
       d[i] += 1d;
     }
 
-    return (this.m_opt = d);
+    this.m_opt = d;
+    return ((double[]) (d.clone()));
   }
 }
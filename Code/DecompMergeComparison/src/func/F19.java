@@ -7,8 +7,6 @@ package func;
  * GNU LESSER GENERAL PUBLIC LICENSE (Version 2.1, February 1999)
  */
 
-import static func.Defaults.benchmark2013;
-
 /**
  * The Shifted Schwefel�s Problem 1.2: F19.
  * 
@@ -49,7 +47,27 @@ public final class F19 extends ShiftedFunction {
    * Create a default instance of F19.
    */
   public F19() {
-    this(Defaults.getRandomizer(F19.class));
+    this(Defaults.DEFAULT_DIM);
+  }
+
+  /**
+   * Create a default instance of F19 of the given dimension.
+   * 
+   * @param dim
+   *          the dimension
+   */
+  public F19(final int dim) {
+    this(InstanceData.get(F19.class, dim, MIN, MAX, InstanceData.SHIFTED));
+  }
+
+  /**
+   * Create a default instance of F19 from the shared instance data.
+   * 
+   * @param d
+   *          the instance data
+   */
+  private F19(final InstanceData d) {
+    this(d.m_o);
   }
 
   /**
@@ -64,13 +82,22 @@ public final class F19 extends ShiftedFunction {
   // @Override
   public final double compute(final double[] x)
   {
-    if(benchmark2013)
-    {
-      System.out.println("2013 benchmark suite does not have a function 19.");
-      System.exit(0);
-    }
+    return this.compute(x, 0);
+  }
 
-    return Kernel.shiftedSchwefel12(x, this.m_o, 0, this.m_dimension);
+  /**
+   * Compute the value of the function for the candidate vector stored in
+   * <code>x</code> starting at index <code>offset</code>.
+   * 
+   * @param x
+   *          the array holding the candidate solution vector
+   * @param offset
+   *          the index of the first element of the candidate vector
+   * @return the value of the function
+   */
+  // @Override
+  public final double compute(final double[] x, final int offset) {
+    return Kernel.shiftedSchwefel12(x, offset, this.m_o, 0, this.m_dimension);
   }
 
   /**
@@ -7,10 +7,6 @@ package func;
  * GNU LESSER GENERAL PUBLIC LICENSE (Version 2.1, February 1999)
  */
 
-import javacec2013.JNIfgeneric2013;
-
-import static func.Defaults.benchmark2013;
-
 /**
  * The shifted rastrigin's function: F2.
  * 
@@ -27,8 +23,6 @@ public final class F2 extends ShiftedFunction {
   /** the minimum value */
   public static final double MIN = (-MAX);
 
-  private JNIfgeneric2013 func;
-
   /**
    * Create a new shifted rastrigin's function
    * 
@@ -37,10 +31,7 @@ public final class F2 extends ShiftedFunction {
    */
   public F2(final double[] o) {
     super(o, MIN, MAX);
-    if(benchmark2013)
-    {
-      func = new JNIfgeneric2013(2, Defaults.DEFAULT_DIM);
-    }
+    this.setGroups(null, 0, 0, this.m_dimension, Defaults.DEFAULT_M);
   }
 
   /**
@@ -57,7 +48,28 @@ public final class F2 extends ShiftedFunction {
    * Create a default instance of F2.
    */
   public F2() {
-    this(Defaults.getRandomizer(F2.class));
+    this(Defaults.DEFAULT_DIM);
+  }
+
+  /**
+   * Create a default instance of F2 of the given dimension.
+   * 
+   * @param dim
+   *          the dimension
+   */
+  public F2(final int dim) {
+    this(InstanceData.get(F2.class, dim, MIN, MAX,//
+        InstanceData.SHIFTED));
+  }
+
+  /**
+   * Create a default instance of F2 from the shared instance data.
+   * 
+   * @param d
+   *          the instance data
+   */
+  private F2(final InstanceData d) {
+    this(d.m_o);
   }
 
   /**
@@ -72,9 +84,41 @@ public final class F2 extends ShiftedFunction {
   // @Override
   public final double compute(final double[] x)
   {
-    if(benchmark2013)
-      return func.evaluate(x);
-    return Kernel.shiftedRastrigin(x, this.m_o, 0, this.m_dimension);
+    return this.compute(x, 0);
+  }
+
+  /**
+   * Compute the value of the function for the candidate vector stored in
+   * <code>x</code> starting at index <code>offset</code>.
+   * 
+   * @param x
+   *          the array holding the candidate solution vector
+   * @param offset
+   *          the index of the first element of the candidate vector
+   * @return the value of the function
+   */
+  // @Override
+  public final double compute(final double[] x, final int offset) {
+    return Kernel.shiftedRastrigin(x, offset, this.m_o, 0, this.m_dimension);
+  }
+
+  /**
+   * Compute the contribution of a single group to the function value.
+   * The groups are consecutive blocks of the separable function.
+   * 
+   * @param x
+   *          the candidate solution vector
+   * @param group
+   *          the group
+   * @return the contribution of the group
+   */
+  // @Override
+  public final double computeGroup(final double[] x, final int group) {
+    final int start;
+
+    start = this.m_groupStart[group];
+    return Kernel.shiftedRastrigin(x, 0, this.m_o, start,//
+        this.m_groupStart[group + 1] - start);
   }
 
   /**
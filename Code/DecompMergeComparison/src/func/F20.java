@@ -7,8 +7,6 @@ package func;
  * GNU LESSER GENERAL PUBLIC LICENSE (Version 2.1, February 1999)
  */
 
-import static func.Defaults.benchmark2013;
-
 /**
  * The Shifted Rosenbrock�s Function: F20.
  * 
@@ -26,7 +24,7 @@ public final class F20 extends ShiftedFunction {
   public static final double MIN = (-MAX);
 
   /** the optimum */
-  private transient double[] m_opt;
+  private transient volatile double[] m_opt;
 
   /**
    * Create a new Shifted Rosenbrock�s Function
@@ -52,7 +50,27 @@ public final class F20 extends ShiftedFunction {
    * Create a default instance of F20.
    */
   public F20() {
-    this(Defaults.getRandomizer(F20.class));
+    this(Defaults.DEFAULT_DIM);
+  }
+
+  /**
+   * Create a default instance of F20 of the given dimension.
+   * 
+   * @param dim
+   *          the dimension
+   */
+  public F20(final int dim) {
+    this(InstanceData.get(F20.class, dim, MIN, MAX - 1d, InstanceData.SHIFTED));
+  }
+
+  /**
+   * Create a default instance of F20 from the shared instance data.
+   * 
+   * @param d
+   *          the instance data
+   */
+  private F20(final InstanceData d) {
+    this(d.m_o);
   }
 
   /**
@@ -67,13 +85,22 @@ public final class F20 extends ShiftedFunction {
   // @Override
   public final double compute(final double[] x)
   {
-    if(benchmark2013)
-    {
-      System.out.println("2013 benchmark suite does not have a function 20.");
-      System.exit(0);
-    }
+    return this.compute(x, 0);
+  }
 
-    return Kernel.shiftedRosenbrock(x, this.m_o, 0, this.m_dimension);
+  /**
+   * Compute the value of the function for the candidate vector stored in
+   * <code>x</code> starting at index <code>offset</code>.
+   * 
+   * @param x
+   *          the array holding the candidate solution vector
+   * @param offset
+   *          the index of the first element of the candidate vector
+   * @return the value of the function
+   */
+  // @Override
+  public final double compute(final double[] x, final int offset) {
+    return Kernel.shiftedRosenbrock(x, offset, this.m_o, 0, this.m_dimension);
   }
 
   /**
@@ -115,7 +142,7 @@ public final class F20 extends ShiftedFunction {
 
     d = this.m_opt;
     if (d != null) {
-      return d;
+      return ((double[]) (d.clone()));
     }
 
     d = ((double[]) (this.m_o.clone()));
@@ -123,6 +150,7 @@ public final class F20 extends ShiftedFunction {
       d[i] += 1d;
     }
 
-    return (this.m_opt = d);
+    this.m_opt = d;
+    return ((double[]) (d.clone()));
   }
 }
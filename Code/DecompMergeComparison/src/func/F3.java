@@ -7,10 +7,6 @@ package func;
  * GNU LESSER GENERAL PUBLIC LICENSE (Version 2.1, February 1999)
  */
 
-import javacec2013.JNIfgeneric2013;
-
-import static func.Defaults.benchmark2013;
-
 /**
  * The shifted ackley's function: F3.
  * 
@@ -27,8 +23,6 @@ public final class F3 extends ShiftedFunction {
   /** the minimum value */
   public static final double MIN = (-MAX);
 
-  private JNIfgeneric2013 func;
-
   /**
    * Create a new shifted ackley's function
    * 
@@ -37,10 +31,6 @@ public final class F3 extends ShiftedFunction {
    */
   public F3(final double[] o) {
     super(o, MIN, MAX);
-    if(benchmark2013)
-    {
-      func = new JNIfgeneric2013(3, Defaults.DEFAULT_DIM);
-    }
   }
 
   /**
@@ -57,7 +47,28 @@ public final class F3 extends ShiftedFunction {
    * Create a default instance of F3.
    */
   public F3() {
-    this(Defaults.getRandomizer(F3.class));
+    this(Defaults.DEFAULT_DIM);
+  }
+
+  /**
+   * Create a default instance of F3 of the given dimension.
+   * 
+   * @param dim
+   *          the dimension
+   */
+  public F3(final int dim) {
+    this(InstanceData.get(F3.class, dim, MIN, MAX,//
+        InstanceData.SHIFTED));
+  }
+
+  /**
+   * Create a default instance of F3 from the shared instance data.
+   * 
+   * @param d
+   *          the instance data
+   */
+  private F3(final InstanceData d) {
+    this(d.m_o);
   }
 
   /**
@@ -72,9 +83,22 @@ public final class F3 extends ShiftedFunction {
   // @Override
   public final double compute(final double[] x)
   {
-    if(benchmark2013)
-      return func.evaluate(x);
-    return Kernel.shiftedAckley(x, this.m_o, 0, this.m_dimension);
+    return this.compute(x, 0);
+  }
+
+  /**
+   * Compute the value of the function for the candidate vector stored in
+   * <code>x</code> starting at index <code>offset</code>.
+   * 
+   * @param x
+   *          the array holding the candidate solution vector
+   * @param offset
+   *          the index of the first element of the candidate vector
+   * @return the value of the function
+   */
+  // @Override
+  public final double compute(final double[] x, final int offset) {
+    return Kernel.shiftedAckley(x, offset, this.m_o, 0, this.m_dimension);
   }
 
   /**
@@ -7,10 +7,6 @@ package func;
  * GNU LESSER GENERAL PUBLIC LICENSE (Version 2.1, February 1999)
  */
 
-import javacec2013.JNIfgeneric2013;
-
-import static func.Defaults.benchmark2013;
-
 /**
  * <p>
  * The Single-group Shifted and m-rotated Elliptic Function: F4.
@@ -38,8 +34,6 @@ public final class F4 extends ShiftedPermutatedRotatedFunction {
   /** the second lookup table */
   private final double[] m_lookup2;
 
-  private JNIfgeneric2013 func;
-
   /**
    * Create a new Single-group Shifted and m-rotated Elliptic Function
    * 
@@ -64,10 +58,8 @@ public final class F4 extends ShiftedPermutatedRotatedFunction {
       this.m_lookup2 = this.m_lookup;
     }
 
-    if(benchmark2013)
-    {
-      func = new JNIfgeneric2013(4, Defaults.DEFAULT_DIM);
-    }
+    this.setGroups(this.m_p, 1, this.m_matDim, this.m_dimension,//
+        this.m_matDim);
   }
 
   /**
@@ -86,7 +78,28 @@ public final class F4 extends ShiftedPermutatedRotatedFunction {
    * Create a default instance of F4.
    */
   public F4() {
-    this(Defaults.getRandomizer(F4.class));
+    this(Defaults.DEFAULT_DIM);
+  }
+
+  /**
+   * Create a default instance of F4 of the given dimension.
+   * 
+   * @param dim
+   *          the dimension
+   */
+  public F4(final int dim) {
+    this(InstanceData.get(F4.class, dim, MIN, MAX,//
+        InstanceData.ROTATED));
+  }
+
+  /**
+   * Create a default instance of F4 from the shared instance data.
+   * 
+   * @param d
+   *          the instance data
+   */
+  private F4(final InstanceData d) {
+    this(d.m_o, d.m_p, d.m_m);
   }
 
   /**
@@ -101,13 +114,50 @@ public final class F4 extends ShiftedPermutatedRotatedFunction {
   // @Override
   public final double compute(final double[] x)
   {
-    if(benchmark2013)
-      return func.evaluate(x);
+    return this.compute(x, 0);
+  }
 
-    return (Kernel.shiftedPermRotElliptic(x, this.m_o, this.m_p, this.m_m,//
-        0, this.m_matDim, this.m_tmp, this.m_lookup) * 1e6) + //
-        Kernel.shiftedPermElliptic(x, this.m_o, this.m_p, this.m_matDim,//
-            this.m_dimension - this.m_matDim, this.m_lookup2);
+  /**
+   * Compute the value of the function for the candidate vector stored in
+   * <code>x</code> starting at index <code>offset</code>.
+   * 
+   * @param x
+   *          the array holding the candidate solution vector
+   * @param offset
+   *          the index of the first element of the candidate vector
+   * @return the value of the function
+   */
+  // @Override
+  public final double compute(final double[] x, final int offset) {
+    return (Kernel.shiftedPermRotElliptic(x, offset, this.m_o, this.m_p,//
+        this.m_mt, 0, this.m_matDim, this.getTmp(), this.m_lookup) * 1e6) + //
+        Kernel.shiftedPermElliptic(x, offset, this.m_o, this.m_p,//
+            this.m_matDim, this.m_dimension - this.m_matDim, this.m_lookup2, 0);
+  }
+
+  /**
+   * Compute the contribution of a single group to the function value.
+   * The first group is the non-separable part, the others are blocks of
+   * the separable part.
+   * 
+   * @param x
+   *          the candidate solution vector
+   * @param group
+   *          the group
+   * @return the contribution of the group
+   */
+  // @Override
+  public final double computeGroup(final double[] x, final int group) {
+    final int start;
+
+    start = this.m_groupStart[group];
+    if (group == 0) {
+      return (Kernel.shiftedPermRotElliptic(x, 0, this.m_o, this.m_p,//
+          this.m_mt, 0, this.m_matDim, this.getTmp(), this.m_lookup) * 1e6);
+    }
+    return Kernel.shiftedPermElliptic(x, 0, this.m_o, this.m_p, start,//
+        this.m_groupStart[group + 1] - start, this.m_lookup2,//
+        start - this.m_matDim);
   }
 
   /**
@@ -7,10 +7,6 @@ package func;
  * GNU LESSER GENERAL PUBLIC LICENSE (Version 2.1, February 1999)
  */
 
-import javacec2013.JNIfgeneric2013;
-
-import static func.Defaults.benchmark2013;
-
 /**
 
  * 
@@ -28,8 +24,6 @@ public final class F5 extends ShiftedPermutatedRotatedFunction {
   /** the minimum value */
   public static final double MIN = (-MAX);
 
-  private JNIfgeneric2013 func;
-
   /**
    * Create a new Single-group Shifted and m-rotated Rastri Function
    * 
@@ -43,10 +37,8 @@ public final class F5 extends ShiftedPermutatedRotatedFunction {
   public F5(final double[] o, final int[] p, final double[] m) {
     super(o, p, m, MIN, MAX);
 
-    if(benchmark2013)
-    {
-      func = new JNIfgeneric2013(5, Defaults.DEFAULT_DIM);
-    }
+    this.setGroups(this.m_p, 1, this.m_matDim, this.m_dimension,//
+        this.m_matDim);
   }
 
   /**
@@ -65,7 +57,28 @@ public final class F5 extends ShiftedPermutatedRotatedFunction {
    * Create a default instance of F5.
    */
   public F5() {
-    this(Defaults.getRandomizer(F5.class));
+    this(Defaults.DEFAULT_DIM);
+  }
+
+  /**
+   * Create a default instance of F5 of the given dimension.
+   * 
+   * @param dim
+   *          the dimension
+   */
+  public F5(final int dim) {
+    this(InstanceData.get(F5.class, dim, MIN, MAX,//
+        InstanceData.ROTATED));
+  }
+
+  /**
+   * Create a default instance of F5 from the shared instance data.
+   * 
+   * @param d
+   *          the instance data
+   */
+  private F5(final InstanceData d) {
+    this(d.m_o, d.m_p, d.m_m);
   }
 
   /**
@@ -80,13 +93,49 @@ public final class F5 extends ShiftedPermutatedRotatedFunction {
   // @Override
   public final double compute(final double[] x)
   {
-    if(benchmark2013)
-      return func.evaluate(x);
+    return this.compute(x, 0);
+  }
 
-    return (Kernel.shiftedPermRotRastrigin(x, this.m_o, this.m_p,//
-        this.m_m, 0, this.m_matDim, this.m_tmp) * 1e6) + //
-        Kernel.shiftedPermRastrigin(x, this.m_o, this.m_p, this.m_matDim,//
-            this.m_dimension - this.m_matDim);
+  /**
+   * Compute the value of the function for the candidate vector stored in
+   * <code>x</code> starting at index <code>offset</code>.
+   * 
+   * @param x
+   *          the array holding the candidate solution vector
+   * @param offset
+   *          the index of the first element of the candidate vector
+   * @return the value of the function
+   */
+  // @Override
+  public final double compute(final double[] x, final int offset) {
+    return (Kernel.shiftedPermRotRastrigin(x, offset, this.m_o, this.m_p,//
+        this.m_mt, 0, this.m_matDim, this.getTmp()) * 1e6) + //
+        Kernel.shiftedPermRastrigin(x, offset, this.m_o, this.m_p,//
+            this.m_matDim, this.m_dimension - this.m_matDim);
+  }
+
+  /**
+   * Compute the contribution of a single group to the function value.
+   * The first group is the non-separable part, the others are blocks of
+   * the separable part.
+   * 
+   * @param x
+   *          the candidate solution vector
+   * @param group
+   *          the group
+   * @return the contribution of the group
+   */
+  // @Override
+  public final double computeGroup(final double[] x, final int group) {
+    final int start;
+
+    start = this.m_groupStart[group];
+    if (group == 0) {
+      return (Kernel.shiftedPermRotRastrigin(x, 0, this.m_o, this.m_p,//
+          this.m_mt, 0, this.m_matDim, this.getTmp()) * 1e6);
+    }
+    return Kernel.shiftedPermRastrigin(x, 0, this.m_o, this.m_p, start,//
+        this.m_groupStart[group + 1] - start);
   }
 
   /**
@@ -7,18 +7,10 @@ package func;
  * GNU LESSER GENERAL PUBLIC LICENSE (Version 2.1, February 1999)
  */
 
-import javacec2013.JNIfgeneric2013;
-
-import static func.Defaults.benchmark2013;
-
 /**
  * <p>
  * The Single-group Shifted and m-rotated Ackley�s Function: F6.
  * </p>
- * <p>
- 
- * You may clone or serialize function instances to use multiple threads.
- * <p>
  * 
  * @author Thomas Weise
  */
@@ -33,8 +25,6 @@ public final class F6 extends ShiftedPermutatedRotatedFunction {
   /** the minimum value */
   public static final double MIN = (-MAX);
 
-  private JNIfgeneric2013 func;
-
   /**
    * Create a new Single-group Shifted and m-rotated Ackley�s Function
    * 
@@ -48,10 +38,8 @@ public final class F6 extends ShiftedPermutatedRotatedFunction {
   public F6(final double[] o, final int[] p, final double[] m) {
     super(o, p, m, MIN, MAX);
 
-    if(benchmark2013)
-    {
-      func = new JNIfgeneric2013(6, Defaults.DEFAULT_DIM);
-    }
+    this.setGroups(this.m_p, 1, this.m_matDim, this.m_dimension,//
+        this.m_dimension);
   }
 
   /**
@@ -70,7 +58,28 @@ public final class F6 extends ShiftedPermutatedRotatedFunction {
    * Create a default instance of F6.
    */
   public F6() {
-    this(Defaults.getRandomizer(F6.class));
+    this(Defaults.DEFAULT_DIM);
+  }
+
+  /**
+   * Create a default instance of F6 of the given dimension.
+   * 
+   * @param dim
+   *          the dimension
+   */
+  public F6(final int dim) {
+    this(InstanceData.get(F6.class, dim, MIN, MAX,//
+        InstanceData.ROTATED));
+  }
+
+  /**
+   * Create a default instance of F6 from the shared instance data.
+   * 
+   * @param d
+   *          the instance data
+   */
+  private F6(final InstanceData d) {
+    this(d.m_o, d.m_p, d.m_m);
   }
 
   /**
@@ -85,20 +94,46 @@ public final class F6 extends ShiftedPermutatedRotatedFunction {
   // @Override
   public final double compute(final double[] x)
   {
-    if(benchmark2013)
-    {
-      double eval = func.evaluate(x);
-      if(Double.isNaN(eval))
-      {
-        eval = Double.MAX_VALUE;
-      }
-      return eval;
-    }
+    return this.compute(x, 0);
+  }
+
+  /**
+   * Compute the value of the function for the candidate vector stored in
+   * <code>x</code> starting at index <code>offset</code>.
+   * 
+   * @param x
+   *          the array holding the candidate solution vector
+   * @param offset
+   *          the index of the first element of the candidate vector
+   * @return the value of the function
+   */
+  // @Override
+  public final double compute(final double[] x, final int offset) {
+    return (Kernel.shiftedPermRotAckley(x, offset, this.m_o, this.m_p,//
+        this.m_mt, 0, this.m_matDim, this.getTmp()) * 1e6) + //
+        Kernel.shiftedPermAckley(x, offset, this.m_o, this.m_p,//
+            this.m_matDim, this.m_dimension - this.m_matDim);
+  }
 
-    return (Kernel.shiftedPermRotAckley(x, this.m_o, this.m_p, this.m_m,//
-        0, this.m_matDim, this.m_tmp) * 1e6) + //
-        Kernel.shiftedPermAckley(x, this.m_o, this.m_p, this.m_matDim,//
-            this.m_dimension - this.m_matDim);
+  /**
+   * Compute the contribution of a single group to the function value.
+   * The first group is the non-separable part, the Ackley function of
+   * the remaining variables is the second group.
+   * 
+   * @param x
+   *          the candidate solution vector
+   * @param group
+   *          the group
+   * @return the contribution of the group
+   */
+  // @Override
+  public final double computeGroup(final double[] x, final int group) {
+    if (group == 0) {
+      return (Kernel.shiftedPermRotAckley(x, 0, this.m_o, this.m_p,//
+          this.m_mt, 0, this.m_matDim, this.getTmp()) * 1e6);
+    }
+    return Kernel.shiftedPermAckley(x, 0, this.m_o, this.m_p, this.m_matDim,//
+        this.m_dimension - this.m_matDim);
   }
 
   /**
@@ -7,12 +7,8 @@ package func;
  * GNU LESSER GENERAL PUBLIC LICENSE (Version 2.1, February 1999)
  */
 
-import javacec2013.JNIfgeneric2013;
-
 import java.io.BufferedWriter;
 
-import static func.Defaults.benchmark2013;
-
 /**
  * The Single-group Shifted m-dimensional Schw Problem 1.2: F7.
  * 
@@ -32,8 +28,6 @@ public final class F7 extends ShiftedPermutatedFunction {
   /** the m-value */
   private final int m_m;
 
-  private JNIfgeneric2013 func;
-
   /**
    * Create a new Single-group Shifted m-dimensional Schwefe Problem 1.2
    * 
@@ -48,10 +42,7 @@ public final class F7 extends ShiftedPermutatedFunction {
     super(o, p, MIN, MAX);
     this.m_m = m;
 
-    if(benchmark2013)
-    {
-      func = new JNIfgeneric2013(7, Defaults.DEFAULT_DIM);
-    }
+    this.setGroups(this.m_p, 1, this.m_m, this.m_dimension, this.m_m);
   }
 
   /**
@@ -70,7 +61,28 @@ public final class F7 extends ShiftedPermutatedFunction {
    * Create a default instance of F7.
    */
   public F7() {
-    this(Defaults.getRandomizer(F7.class));
+    this(Defaults.DEFAULT_DIM);
+  }
+
+  /**
+   * Create a default instance of F7 of the given dimension.
+   * 
+   * @param dim
+   *          the dimension
+   */
+  public F7(final int dim) {
+    this(InstanceData.get(F7.class, dim, MIN, MAX,//
+        InstanceData.PERMUTATED));
+  }
+
+  /**
+   * Create a default instance of F7 from the shared instance data.
+   * 
+   * @param d
+   *          the instance data
+   */
+  private F7(final InstanceData d) {
+    this(d.m_o, d.m_p, Defaults.DEFAULT_M);
   }
 
   /**
@@ -85,15 +97,51 @@ public final class F7 extends ShiftedPermutatedFunction {
   // @Override
   public final double compute(final double[] x)
   {
-    if(benchmark2013)
-      return func.evaluate(x);
+    return this.compute(x, 0);
+  }
 
-    return (Kernel.shiftedPermSchwefel12(x, this.m_o, this.m_p, //
+  /**
+   * Compute the value of the function for the candidate vector stored in
+   * <code>x</code> starting at index <code>offset</code>.
+   * 
+   * @param x
+   *          the array holding the candidate solution vector
+   * @param offset
+   *          the index of the first element of the candidate vector
+   * @return the value of the function
+   */
+  // @Override
+  public final double compute(final double[] x, final int offset) {
+    return (Kernel.shiftedPermSchwefel12(x, offset, this.m_o, this.m_p, //
         0, this.m_m) * 1e6) + //
-        Kernel.shiftedPermSphere(x, this.m_o, this.m_p, this.m_m,//
+        Kernel.shiftedPermSphere(x, offset, this.m_o, this.m_p, this.m_m,//
             this.m_dimension - this.m_m);
   }
 
+  /**
+   * Compute the contribution of a single group to the function value.
+   * The first group is the non-separable part, the others are blocks of
+   * the separable part.
+   * 
+   * @param x
+   *          the candidate solution vector
+   * @param group
+   *          the group
+   * @return the contribution of the group
+   */
+  // @Override
+  public final double computeGroup(final double[] x, final int group) {
+    final int start;
+
+    start = this.m_groupStart[group];
+    if (group == 0) {
+      return (Kernel.shiftedPermSchwefel12(x, 0, this.m_o, this.m_p, //
+          0, this.m_m) * 1e6);
+    }
+    return Kernel.shiftedPermSphere(x, 0, this.m_o, this.m_p, start,//
+        this.m_groupStart[group + 1] - start);
+  }
+
   /**
    * Obtain the full name of the benchmark function (according to
    * &quot;Benchmark Functions for the CEC�2010 Special Session and
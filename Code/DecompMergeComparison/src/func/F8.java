@@ -7,12 +7,8 @@ package func;
  * GNU LESSER GENERAL PUBLIC LICENSE (Version 2.1, February 1999)
  */
 
-import javacec2013.JNIfgeneric2013;
-
 import java.io.BufferedWriter;
 
-import static func.Defaults.benchmark2013;
-
 /**
  * The Single-group Shifted m-dimensional Rosenbrock�s Function: F8.
  * 
@@ -33,9 +29,7 @@ public final class F8 extends ShiftedPermutatedFunction {
   private final int m_m;
 
   /** the optimum vector */
-  private transient double[] m_opt;
-
-  private JNIfgeneric2013 func;
+  private transient volatile double[] m_opt;
 
   /**
    * Create a new Single-group Shifted m-dimensional Rosenbrock�s Function
@@ -51,10 +45,7 @@ public final class F8 extends ShiftedPermutatedFunction {
     super(o, p, MIN, MAX);
     this.m_m = m;
 
-    if(benchmark2013)
-    {
-      func = new JNIfgeneric2013(8, Defaults.DEFAULT_DIM);
-    }
+    this.setGroups(this.m_p, 1, this.m_m, this.m_dimension, this.m_m);
   }
 
   // /**
@@ -87,7 +78,28 @@ public final class F8 extends ShiftedPermutatedFunction {
    * Create a default instance of F8.
    */
   public F8() {
-    this(Defaults.getRandomizer(F8.class));
+    this(Defaults.DEFAULT_DIM);
+  }
+
+  /**
+   * Create a default instance of F8 of the given dimension.
+   * 
+   * @param dim
+   *          the dimension
+   */
+  public F8(final int dim) {
+    this(InstanceData.get(F8.class, dim, MIN, MAX - 1d,//
+        InstanceData.PERMUTATED));
+  }
+
+  /**
+   * Create a default instance of F8 from the shared instance data.
+   * 
+   * @param d
+   *          the instance data
+   */
+  private F8(final InstanceData d) {
+    this(d.m_o, d.m_p, Defaults.DEFAULT_M);
   }
 
   /**
@@ -102,15 +114,51 @@ public final class F8 extends ShiftedPermutatedFunction {
   // @Override
   public final double compute(final double[] x)
   {
-    if(benchmark2013)
-      return func.evaluate(x);
+    return this.compute(x, 0);
+  }
 
-    return (Kernel.shiftedPermRosenbrock(x, this.m_o, this.m_p, //
+  /**
+   * Compute the value of the function for the candidate vector stored in
+   * <code>x</code> starting at index <code>offset</code>.
+   * 
+   * @param x
+   *          the array holding the candidate solution vector
+   * @param offset
+   *          the index of the first element of the candidate vector
+   * @return the value of the function
+   */
+  // @Override
+  public final double compute(final double[] x, final int offset) {
+    return (Kernel.shiftedPermRosenbrock(x, offset, this.m_o, this.m_p, //
         0, this.m_m) * 1e6) + //
-        Kernel.shiftedPermSphere(x, this.m_o, this.m_p, this.m_m,//
+        Kernel.shiftedPermSphere(x, offset, this.m_o, this.m_p, this.m_m,//
             this.m_dimension - this.m_m);
   }
 
+  /**
+   * Compute the contribution of a single group to the function value.
+   * The first group is the non-separable part, the others are blocks of
+   * the separable part.
+   * 
+   * @param x
+   *          the candidate solution vector
+   * @param group
+   *          the group
+   * @return the contribution of the group
+   */
+  // @Override
+  public final double computeGroup(final double[] x, final int group) {
+    final int start;
+
+    start = this.m_groupStart[group];
+    if (group == 0) {
+      return (Kernel.shiftedPermRosenbrock(x, 0, this.m_o, this.m_p, //
+          0, this.m_m) * 1e6);
+    }
+    return Kernel.shiftedPermSphere(x, 0, this.m_o, this.m_p, start,//
+        this.m_groupStart[group + 1] - start);
+  }
+
   /**
    * Obtain the full name of the benchmark function (according to
    * &quot;Benchmark Functions for the CEC�2010 Special Session and
@@ -169,7 +217,7 @@ public final class F8 extends ShiftedPermutatedFunction {
 
     d = this.m_opt;
     if (d != null) {
-      return d;
+      return ((double[]) (d.clone()));
     }
 
     d = ((double[]) (this.m_o.clone()));
@@ -178,6 +226,7 @@ public final class F8 extends ShiftedPermutatedFunction {
       d[perm[i]] += 1d;
     }
 
-    return (this.m_opt = d);
+    this.m_opt = d;
+    return ((double[]) (d.clone()));
   }
 }
\ No newline at end of file
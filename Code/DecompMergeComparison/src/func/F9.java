@@ -7,20 +7,10 @@ package func;
  * GNU LESSER GENERAL PUBLIC LICENSE (Version 2.1, February 1999)
  */
 
-import javacec2013.JNIfgeneric2013;
-
-import static func.Defaults.benchmark2013;
-
 /**
  * <p>
  * The D/2m-group Shifted and m-rotated Elliptic Function: F9.
  * </p>
- * <p>
- * This function is not <warning>not threadsafe</warning> because it uses
- * internal temporary variables. Therefore, you should always use each
- * instance of this function for one single {#link java.lang.Thread} only.
- * You may clone or serialize function instances to use multiple threads.
- * <p>
  * 
  * @author Thomas Weise
  */
@@ -30,12 +20,10 @@ public final class F9 extends ShiftedPermutatedRotatedFunction {
   private static final long serialVersionUID = 1;
 
   /** the maximum value */
-  public static double MAX = (benchmark2013)?5d:100d; // 2010
-  //public static final double MAX = 100d; // 2010
-  //public static final double MAX = 5d; // 2013
+  public static final double MAX = 100d;
 
   /** the minimum value */
-  public static double MIN = (-MAX);
+  public static final double MIN = (-MAX);
 
   /** the lookup table */
   private final double[] m_lookup;
@@ -43,8 +31,6 @@ public final class F9 extends ShiftedPermutatedRotatedFunction {
   /** the second lookup table */
   private final double[] m_lookup2;
 
-  private JNIfgeneric2013 func;
-
   /**
    * Create a new D/2m-group Shifted and m-rotated Elliptic Function
    * 
@@ -71,10 +57,8 @@ public final class F9 extends ShiftedPermutatedRotatedFunction {
       this.m_lookup2 = this.m_lookup;
     }
 
-    if(benchmark2013)
-    {
-      func = new JNIfgeneric2013(9, Defaults.DEFAULT_DIM);
-    }
+    this.setGroups(this.m_p, this.m_dimension / (this.m_matDim << 1),//
+        this.m_matDim, this.m_dimension, this.m_matDim);
   }
 
   /**
@@ -93,7 +77,28 @@ public final class F9 extends ShiftedPermutatedRotatedFunction {
    * Create a default instance of F9.
    */
   public F9() {
-    this(Defaults.getRandomizer(F9.class));
+    this(Defaults.DEFAULT_DIM);
+  }
+
+  /**
+   * Create a default instance of F9 of the given dimension.
+   * 
+   * @param dim
+   *          the dimension
+   */
+  public F9(final int dim) {
+    this(InstanceData.get(F9.class, dim, MIN, MAX,//
+        InstanceData.ROTATED));
+  }
+
+  /**
+   * Create a default instance of F9 from the shared instance data.
+   * 
+   * @param d
+   *          the instance data
+   */
+  private F9(final InstanceData d) {
+    this(d.m_o, d.m_p, d.m_m);
   }
 
   /**
@@ -108,9 +113,21 @@ public final class F9 extends ShiftedPermutatedRotatedFunction {
   // @Override
   public final double compute(final double[] x)
   {
-    if(benchmark2013)
-      return func.evaluate(x);
+    return this.compute(x, 0);
+  }
 
+  /**
+   * Compute the value of the function for the candidate vector stored in
+   * <code>x</code> starting at index <code>offset</code>.
+   * 
+   * @param x
+   *          the array holding the candidate solution vector
+   * @param offset
+   *          the index of the first element of the candidate vector
+   * @return the value of the function
+   */
+  // @Override
+  public final double compute(final double[] x, final int offset) {
     final int max, gs, d;
     double s;
     int i, e;
@@ -122,13 +139,39 @@ public final class F9 extends ShiftedPermutatedRotatedFunction {
     s = 0d;
     e = 0;
     for (i = 0; i < max; i++) {
-      s += Kernel.shiftedPermRotElliptic(x, this.m_o, this.m_p, this.m_m,//
-          e, gs, this.m_tmp, this.m_lookup); //
+      s += Kernel.shiftedPermRotElliptic(x, offset, this.m_o, this.m_p,//
+          this.m_mt, e, gs, this.getTmp(), this.m_lookup); //
       e += gs;
     }
 
-    return (s + Kernel.shiftedPermElliptic(x, this.m_o, this.m_p, e,
-        this.m_dimension - e, this.m_lookup2));
+    return (s + Kernel.shiftedPermElliptic(x, offset, this.m_o, this.m_p, e,
+        this.m_dimension - e, this.m_lookup2, 0));
+  }
+
+  /**
+   * Compute the contribution of a single group to the function value.
+   * The first D/2m groups are the non-separable parts, the others are
+   * blocks of the separable part.
+   * 
+   * @param x
+   *          the candidate solution vector
+   * @param group
+   *          the group
+   * @return the contribution of the group
+   */
+  // @Override
+  public final double computeGroup(final double[] x, final int group) {
+    final int start, max;
+
+    start = this.m_groupStart[group];
+    max = (this.m_dimension / (this.m_matDim << 1));
+    if (group < max) {
+      return Kernel.shiftedPermRotElliptic(x, 0, this.m_o, this.m_p,//
+          this.m_mt, start, this.m_matDim, this.getTmp(), this.m_lookup);
+    }
+    return Kernel.shiftedPermElliptic(x, 0, this.m_o, this.m_p, start,//
+        this.m_groupStart[group + 1] - start, this.m_lookup2,//
+        start - (max * this.m_matDim));
   }
 
   /**
@@ -12,14 +12,17 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.Serializable;
+import java.util.Arrays;
 
 /**
  * The base class for benchmark functions. All benchmark functions are for
- * minimization and have the same global optimum: <code>0</code>. Some
- * benchmark functions may use internal temporary variables and
- * <warning>not be threadsafe</warning>. Therefore, you should always use
- * each instance of a function for one single {#link java.lang.Thread}
- * only. You may clone or serialize function instances.
+ * minimization and have the same global optimum: <code>0</code>. Function
+ * instances are not modified after construction: the temporary vectors
+ * needed during an evaluation are held per {@link java.lang.Thread}, not
+ * per instance. A single instance, together with its shift, permutation, and
+ * rotation data, can therefore be shared by all threads evaluating it.
+ * You may serialize function instances; cloning returns the instance
+ * itself.
  * 
  * @author Thomas Weise
  */
@@ -43,6 +46,15 @@ public abstract class Function implements Serializable, Cloneable {
   /** the maximum value which the decision variables can take on */
   public final double m_max;
 
+  /**
+   * the first permutation position of each group, followed by the end of
+   * the last group, or <code>null</code> if the function is a single group
+   */
+  int[] m_groupStart;
+
+  /** the group of each decision variable, <code>-1</code> if unused */
+  int[] m_groupOf;
+
   /**
    * Create the benchmark function
    * 
@@ -99,6 +111,212 @@ public abstract class Function implements Serializable, Cloneable {
    */
   public abstract double compute(final double[] x);
 
+  /**
+   * Compute the value of the benchmark function for the candidate vector
+   * stored in <code>x</code> starting at index <code>offset</code>. The
+   * default implementation copies the vector into a new array, functions
+   * which can read it in place should override this method.
+   * 
+   * @param x
+   *          the array holding the candidate solution vector
+   * @param offset
+   *          the index of the first element of the candidate vector
+   * @return the value of the function
+   */
+  public double compute(final double[] x, final int offset) {
+    final double[] v;
+
+    if (offset == 0) {
+      return this.compute(x);
+    }
+    v = new double[this.m_dimension];
+    System.arraycopy(x, offset, v, 0, v.length);
+    return this.compute(v);
+  }
+
+  /**
+   * Compute the value of the benchmark function for several candidate
+   * vectors at once. The vectors are stored one after the other in
+   * <code>xs</code>, each occupying {@link #getDimension()} elements.
+   * 
+   * @param xs
+   *          the candidate solution vectors
+   * @param count
+   *          the number of candidate solution vectors
+   * @param out
+   *          the destination for the values, <code>out[i]</code> receives
+   *          the value of the <code>i</code>th vector
+   */
+  public void compute(final double[] xs, final int count,
+      final double[] out) {
+    final int d;
+    int i, offset;
+
+    d = this.m_dimension;
+    for (i = 0, offset = 0; i < count; i++, offset += d) {
+      out[i] = this.compute(xs, offset);
+    }
+  }
+
+  /**
+   * Obtain the number of groups of the function. The value of the
+   * function is the sum of the values of its groups, and each decision
+   * variable influences at most one group. Functions which do not declare
+   * a group structure consist of one single group.
+   * 
+   * @return the number of groups of the function
+   */
+  public final int getGroupCount() {
+    return ((this.m_groupStart == null) ? 1
+        : (this.m_groupStart.length - 1));
+  }
+
+  /**
+   * Obtain the group which a decision variable belongs to.
+   * 
+   * @param index
+   *          the index of the decision variable
+   * @return the group of the decision variable, or <code>-1</code> if it
+   *         does not influence the function value
+   */
+  public final int getGroupOf(final int index) {
+    return ((this.m_groupOf == null) ? 0 : this.m_groupOf[index]);
+  }
+
+  /**
+   * Compute the contribution of a single group to the function value.
+   * Functions which declare a group structure must override this method.
+   * 
+   * @param x
+   *          the candidate solution vector
+   * @param group
+   *          the group
+   * @return the contribution of the group
+   */
+  public double computeGroup(final double[] x, final int group) {
+    return this.compute(x);
+  }
+
+  /**
+   * Compute the value of the function and store the contribution of each
+   * group in <code>partials</code>, which must have at least
+   * {@link #getGroupCount()} elements.
+   * 
+   * @param x
+   *          the candidate solution vector
+   * @param partials
+   *          the destination for the contributions of the groups
+   * @return the value of the function
+   */
+  public final double computePartials(final double[] x,
+      final double[] partials) {
+    final int count;
+    int g;
+    double s;
+
+    count = this.getGroupCount();
+    s = 0d;
+    for (g = 0; g < count; g++) {
+      s += (partials[g] = this.computeGroup(x, g));
+    }
+    return s;
+  }
+
+  /**
+   * Incrementally compute the value of the function. <code>partials</code>
+   * must hold the group contributions of a previous vector which differs
+   * from <code>x</code> only in the decision variables listed in
+   * <code>changed</code>. Only the groups influenced by these variables
+   * are recomputed, <code>partials</code> is updated accordingly.
+   * 
+   * @param x
+   *          the new candidate solution vector
+   * @param partials
+   *          the group contributions of the previous vector
+   * @param changed
+   *          the indices of the changed decision variables
+   * @param changedCount
+   *          the number of valid elements in <code>changed</code>
+   * @return the value of the function
+   */
+  public final double computeDelta(final double[] x,
+      final double[] partials, final int[] changed, final int changedCount) {
+    final int count;
+    int i, g;
+    double s;
+
+    if (this.m_groupOf == null) {
+      return (partials[0] = this.compute(x));
+    }
+
+    // mark the groups which need to be recomputed
+    for (i = (changedCount - 1); i >= 0; i--) {
+      g = this.m_groupOf[changed[i]];
+      if (g >= 0) {
+        partials[g] = Double.NaN;
+      }
+    }
+
+    count = this.getGroupCount();
+    s = 0d;
+    for (g = 0; g < count; g++) {
+      if (Double.isNaN(partials[g])) {
+        partials[g] = this.computeGroup(x, g);
+      }
+      s += partials[g];
+    }
+    return s;
+  }
+
+  /**
+   * Declare the group structure of the function: the first
+   * <code>nonSep</code> groups have <code>size</code> elements each, the
+   * following permutation positions up to <code>end</code> are split into
+   * groups of at most <code>blockSize</code> elements. It may only be
+   * called by the constructors of the subclasses.
+   * 
+   * @param P
+   *          the permutation, or <code>null</code> for the identity
+   * @param nonSep
+   *          the number of leading groups
+   * @param size
+   *          the size of the leading groups
+   * @param end
+   *          the end of the last group
+   * @param blockSize
+   *          the maximum size of the trailing groups
+   */
+  final void setGroups(final int[] P, final int nonSep, final int size,
+      final int end, final int blockSize) {
+    final int[] starts, groupOf;
+    int count, g, e, i;
+
+    e = (nonSep * size);
+    count = nonSep;
+    if (e < end) {
+      count += (((end - e) + blockSize - 1) / blockSize);
+    }
+
+    starts = new int[count + 1];
+    for (g = 0; g <= nonSep; g++) {
+      starts[g] = (g * size);
+    }
+    for (; g <= count; g++) {
+      starts[g] = Math.min(starts[g - 1] + blockSize, end);
+    }
+
+    groupOf = new int[this.m_dimension];
+    Arrays.fill(groupOf, -1);
+    for (g = (count - 1); g >= 0; g--) {
+      for (i = (starts[g + 1] - 1); i >= starts[g]; i--) {
+        groupOf[(P == null) ? i : P[i]] = g;
+      }
+    }
+
+    this.m_groupStart = starts;
+    this.m_groupOf = groupOf;
+  }
+
   /**
    * Obtain the full name of the benchmark function (according to
    * Benchmark Functions for the  Special Session and
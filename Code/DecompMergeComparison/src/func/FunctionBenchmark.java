@@ -0,0 +1,408 @@
+package func;
+
+/*
+ * Not part of the CEC'2010 benchmark code of Thomas Weise. Like the rest
+ * of the project outside of that code, it is distributed under the MIT
+ * license, see the LICENSE file.
+ */
+
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * The benchmark measuring the cost of a function evaluation: the
+ * {@link Function#compute(double[])} of the CEC'2010 functions F1-F20 at
+ * several dimensions, of the fifteen CEC'2013 functions (whose dimension
+ * is fixed by their data files), and of every {@link Kernel} routine on
+ * its own. Each case is first run until a batch of calls takes
+ * {@link #BATCH_NS}, which also warms up the compiler, then timed over
+ * {@link #ROUNDS} batches. The median time per call and the bytes
+ * allocated per call are written as tab-separated lines, so that the
+ * files of two versions can be compared line by line. The allocated
+ * bytes are <code>-1</code> if the virtual machine cannot count them.
+ */
+public class FunctionBenchmark {
+
+  /** the default dimensions of the CEC'2010 functions */
+  private static final int[] DIMENSIONS = new int[] { 100, 500, 1000,
+      2000, 10000 };
+
+  /** the minimum duration of a timed batch in nanoseconds */
+  private static final long BATCH_NS = 20000000L;
+
+  /** the number of timed batches */
+  private static final int ROUNDS = 15;
+
+  /** the counter of allocated bytes, or <code>null</code> */
+  private static final com.sun.management.ThreadMXBean ALLOCATION = //
+  allocationCounter();
+
+  /**
+   * Run the benchmark. The first parameter is the file to write the
+   * results to, <code>-</code> for the console; the remaining parameters
+   * are the dimensions of the CEC'2010 functions and the kernels.
+   *
+   * @param params
+   *          the parameters
+   */
+  public static final void main(final String[] params) {
+    final PrintStream out;
+    final int[] dims;
+    int i;
+
+    if (params.length > 1) {
+      dims = new int[params.length - 1];
+      for (i = dims.length; (--i) >= 0;) {
+        dims[i] = Integer.parseInt(params[i + 1]);
+      }
+    } else {
+      dims = DIMENSIONS;
+    }
+
+    try {
+      out = (((params.length <= 0) || "-".equals(params[0])) ? System.out//$NON-NLS-1$
+          : new PrintStream(new FileOutputStream(params[0])));
+      try {
+        out.println("suite\tcase\tdimension\tns/op\tbytes/op"); //$NON-NLS-1$
+        for (i = 0; i < dims.length; i++) {
+          benchmarkKernels(out, dims[i]);
+        }
+        for (i = 0; i < dims.length; i++) {
+          benchmarkCEC2010(out, dims[i]);
+        }
+        benchmarkCEC2013(out);
+      } finally {
+        if (out != System.out) {
+          out.close();
+        }
+      }
+    } catch (Throwable t) {
+      throw new RuntimeException(t); // bypass exception checking
+    }
+  }
+
+  /**
+   * Benchmark the CEC'2010 functions of the given dimension
+   *
+   * @param out
+   *          the destination of the results
+   * @param dim
+   *          the dimension
+   * @throws Exception
+   *           if a function cannot be created
+   */
+  private static final void benchmarkCEC2010(final PrintStream out,
+      final int dim) throws Exception {
+    Class<?> c;
+    Function f;
+    int id;
+
+    for (id = 1; id <= 20; id++) {
+      c = Class.forName("func.F" + id); //$NON-NLS-1$
+      try {
+        f = ((Function) (c.getConstructor(int.class, boolean.class)
+            .newInstance(Integer.valueOf(dim), Boolean.FALSE)));
+      } catch (NoSuchMethodException nsme) {
+        f = ((Function) (c.getConstructor(int.class).newInstance(Integer
+            .valueOf(dim))));
+      }
+      report(out, "CEC2010", f.getShortName(), dim, computeCase(f)); //$NON-NLS-1$
+    }
+  }
+
+  /**
+   * Benchmark the CEC'2013 functions, as evaluated by the algorithms
+   *
+   * @param out
+   *          the destination of the results
+   */
+  private static final void benchmarkCEC2013(final PrintStream out) {
+    Function f;
+    int id;
+
+    for (id = 1; id <= 15; id++) {
+      f = InstanceData.getCEC2013(id);
+      report(out, "CEC2013", "F" + id, f.getDimension(), computeCase(f)); //$NON-NLS-1$//$NON-NLS-2$
+    }
+  }
+
+  /**
+   * Create the case evaluating a function at random points
+   *
+   * @param f
+   *          the function
+   * @return the case
+   */
+  private static final Case computeCase(final Function f) {
+    final double[] x;
+    final Randomizer r;
+
+    r = new Randomizer(f.getDimension());
+    x = r.createShiftVector(f.getDimension(), f.getMin(), f.getMax());
+
+    return new Case(x) {
+      @Override
+      final double run() {
+        return f.compute(x);
+      }
+    };
+  }
+
+  /**
+   * Benchmark the kernels on vectors of the given dimension; the rotated
+   * kernels work on a single group of {@link Defaults#DEFAULT_M}
+   * elements, like in the functions.
+   *
+   * @param out
+   *          the destination of the results
+   * @param dim
+   *          the dimension
+   */
+  private static final void benchmarkKernels(final PrintStream out,
+      final int dim) {
+    final double[] x, o, mt, z, lookup, rotLookup;
+    final int[] p;
+    final Randomizer r;
+    final int m;
+
+    r = new Randomizer(dim);
+    m = Math.min(Defaults.DEFAULT_M, dim);
+    x = r.createShiftVector(dim, -5d, 5d);
+    o = r.createShiftVector(dim, -5d, 5d);
+    p = r.createPermVector(dim);
+    mt = Kernel.transpose(r.createRotMatrix1D(m), m);
+    z = new double[m];
+    lookup = Kernel.createPowLookup(dim);
+    rotLookup = Kernel.createPowLookup(m);
+
+    report(out, "Kernel", "shiftedSphere", dim, new Case(x) { //$NON-NLS-1$//$NON-NLS-2$
+          @Override
+          final double run() {
+            return Kernel.shiftedSphere(x, 0, o, 0, dim);
+          }
+        });
+    report(out, "Kernel", "shiftedPermSphere", dim, new Case(x) { //$NON-NLS-1$//$NON-NLS-2$
+          @Override
+          final double run() {
+            return Kernel.shiftedPermSphere(x, 0, o, p, 0, dim);
+          }
+        });
+    report(out, "Kernel", "shiftedElliptic", dim, new Case(x) { //$NON-NLS-1$//$NON-NLS-2$
+          @Override
+          final double run() {
+            return Kernel.shiftedElliptic(x, 0, o, 0, dim, lookup, 0);
+          }
+        });
+    report(out, "Kernel", "shiftedPermElliptic", dim, new Case(x) { //$NON-NLS-1$//$NON-NLS-2$
+          @Override
+          final double run() {
+            return Kernel.shiftedPermElliptic(x, 0, o, p, 0, dim, lookup, 0);
+          }
+        });
+    report(out, "Kernel", "shiftedPermRotElliptic", m, new Case(x) { //$NON-NLS-1$//$NON-NLS-2$
+          @Override
+          final double run() {
+            return Kernel.shiftedPermRotElliptic(x, 0, o, p, mt, 0, m, z,
+                rotLookup);
+          }
+        });
+    report(out, "Kernel", "shiftedRastrigin", dim, new Case(x) { //$NON-NLS-1$//$NON-NLS-2$
+          @Override
+          final double run() {
+            return Kernel.shiftedRastrigin(x, 0, o, 0, dim);
+          }
+        });
+    report(out, "Kernel", "shiftedPermRastrigin", dim, new Case(x) { //$NON-NLS-1$//$NON-NLS-2$
+          @Override
+          final double run() {
+            return Kernel.shiftedPermRastrigin(x, 0, o, p, 0, dim);
+          }
+        });
+    report(out, "Kernel", "shiftedPermRotRastrigin", m, new Case(x) { //$NON-NLS-1$//$NON-NLS-2$
+          @Override
+          final double run() {
+            return Kernel.shiftedPermRotRastrigin(x, 0, o, p, mt, 0, m, z);
+          }
+        });
+    report(out, "Kernel", "shiftedAckley", dim, new Case(x) { //$NON-NLS-1$//$NON-NLS-2$
+          @Override
+          final double run() {
+            return Kernel.shiftedAckley(x, 0, o, 0, dim);
+          }
+        });
+    report(out, "Kernel", "shiftedPermAckley", dim, new Case(x) { //$NON-NLS-1$//$NON-NLS-2$
+          @Override
+          final double run() {
+            return Kernel.shiftedPermAckley(x, 0, o, p, 0, dim);
+          }
+        });
+    report(out, "Kernel", "shiftedPermRotAckley", m, new Case(x) { //$NON-NLS-1$//$NON-NLS-2$
+          @Override
+          final double run() {
+            return Kernel.shiftedPermRotAckley(x, 0, o, p, mt, 0, m, z);
+          }
+        });
+    report(out, "Kernel", "shiftedSchwefel12", dim, new Case(x) { //$NON-NLS-1$//$NON-NLS-2$
+          @Override
+          final double run() {
+            return Kernel.shiftedSchwefel12(x, 0, o, 0, dim);
+          }
+        });
+    report(out, "Kernel", "shiftedPermSchwefel12", dim, new Case(x) { //$NON-NLS-1$//$NON-NLS-2$
+          @Override
+          final double run() {
+            return Kernel.shiftedPermSchwefel12(x, 0, o, p, 0, dim);
+          }
+        });
+    report(out, "Kernel", "shiftedRosenbrock", dim, new Case(x) { //$NON-NLS-1$//$NON-NLS-2$
+          @Override
+          final double run() {
+            return Kernel.shiftedRosenbrock(x, 0, o, 0, dim);
+          }
+        });
+    report(out, "Kernel", "shiftedPermRosenbrock", dim, new Case(x) { //$NON-NLS-1$//$NON-NLS-2$
+          @Override
+          final double run() {
+            return Kernel.shiftedPermRosenbrock(x, 0, o, p, 0, dim);
+          }
+        });
+  }
+
+  /**
+   * Measure a case and write its result line
+   *
+   * @param out
+   *          the destination of the results
+   * @param suite
+   *          the suite of the case
+   * @param name
+   *          the name of the case
+   * @param dim
+   *          the dimension
+   * @param c
+   *          the case
+   */
+  private static final void report(final PrintStream out,
+      final String suite, final String name, final int dim, final Case c) {
+    final long[] times;
+    final long id;
+    long calls, t, bytes;
+    int round;
+
+    // grow the batch until it is long enough, warming up the compiler
+    for (calls = 1L;; calls <<= 1) {
+      if (c.time(calls) >= BATCH_NS) {
+        break;
+      }
+    }
+
+    times = new long[ROUNDS];
+    id = Thread.currentThread().getId();
+    bytes = ((ALLOCATION != null) ? ALLOCATION.getThreadAllocatedBytes(id)
+        : 0L);
+    for (round = 0; round < ROUNDS; round++) {
+      times[round] = c.time(calls);
+    }
+    bytes = ((ALLOCATION != null) ? ((ALLOCATION
+        .getThreadAllocatedBytes(id) - bytes) / (calls * ROUNDS)) : -1L);
+
+    Arrays.sort(times);
+    t = (times[ROUNDS >>> 1] / calls);
+
+    out.print(suite);
+    out.print('\t');
+    out.print(name);
+    out.print('\t');
+    out.print(dim);
+    out.print('\t');
+    out.print(t);
+    out.print('\t');
+    out.println(bytes);
+    c.check();
+  }
+
+  /**
+   * Obtain the counter of the bytes allocated by a thread
+   *
+   * @return the counter, or <code>null</code> if it is not supported
+   */
+  private static final com.sun.management.ThreadMXBean allocationCounter() {
+    final Object bean;
+    final com.sun.management.ThreadMXBean counter;
+
+    try {
+      bean = ManagementFactory.getThreadMXBean();
+      if (bean instanceof com.sun.management.ThreadMXBean) {
+        counter = ((com.sun.management.ThreadMXBean) bean);
+        if (counter.isThreadAllocatedMemorySupported()) {
+          counter.setThreadAllocatedMemoryEnabled(true);
+          return counter;
+        }
+      }
+    } catch (Throwable t) {
+      // not a HotSpot virtual machine
+    }
+    return null;
+  }
+
+  /** A measured call */
+  private static abstract class Case {
+
+    /** the input vector, perturbed before each call */
+    private final double[] m_x;
+
+    /** the sum of the results, keeps them alive */
+    private double m_sum;
+
+    /**
+     * Create the case
+     *
+     * @param x
+     *          the input vector
+     */
+    Case(final double[] x) {
+      super();
+      this.m_x = x;
+    }
+
+    /**
+     * Perform the measured call
+     *
+     * @return the result
+     */
+    abstract double run();
+
+    /**
+     * Time a batch of calls
+     *
+     * @param calls
+     *          the number of calls
+     * @return the duration in nanoseconds
+     */
+    final long time(final long calls) {
+      final double[] x;
+      long i, t;
+      double s;
+
+      x = this.m_x;
+      s = 0d;
+      t = System.nanoTime();
+      for (i = calls; i > 0L; i--) {
+        x[(int) (i % x.length)] += 1e-12; // defeat hoisting the call
+        s += this.run();
+      }
+      t = (System.nanoTime() - t);
+      this.m_sum += s;
+      return t;
+    }
+
+    /** Use the results, so that the calls are not removed */
+    final void check() {
+      if (this.m_sum == 0d) {
+        System.err.println(this.m_sum);
+      }
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package func;
+
+/*
+ * Not part of the CEC'2010 benchmark code of Thomas Weise. Like the rest
+ * of the project outside of that code, it is distributed under the MIT
+ * license, see the LICENSE file.
+ */
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * The shift vector, permutation vector, and rotation matrix of a default
+ * benchmark function instance. Creating this data is the expensive part
+ * of constructing a function, in particular the Gram-Schmidt
+ * orthonormalization of the rotation matrix. Since function instances
+ * never modify it, it is created only once per process and shared by
+ * all instances: The process-wide registry is keyed by the function
+ * class, the dimension, and the rotation matrix size, so instances of
+ * different dimensions can be used side by side. The data of the
+ * CEC'2013 suite does not depend on the dimension and is registered
+ * under the function number alone. Different keys are built
+ * concurrently by the threads first requesting them, while threads
+ * requesting a key under construction wait for its result.
+ */
+final class InstanceData {
+
+  /** only a shift vector is needed */
+  static final int SHIFTED = 0;
+
+  /** a shift and a permutation vector are needed */
+  static final int PERMUTATED = 1;
+
+  /** a shift vector, a permutation vector, and a rotation matrix */
+  static final int ROTATED = 2;
+
+  /** the registry */
+  private static final ConcurrentHashMap<String, FutureTask<Object>> //
+  REGISTRY = new ConcurrentHashMap<String, FutureTask<Object>>();
+
+  /** the shift vector */
+  final double[] m_o;
+
+  /** the permutation vector, or <code>null</code> */
+  final int[] m_p;
+
+  /** the rotation matrix, or <code>null</code> */
+  final double[] m_m;
+
+  /**
+   * Create the instance data
+   *
+   * @param o
+   *          the shift vector
+   * @param p
+   *          the permutation vector
+   * @param m
+   *          the rotation matrix
+   */
+  private InstanceData(final double[] o, final int[] p, final double[] m) {
+    super();
+    this.m_o = o;
+    this.m_p = p;
+    this.m_m = m;
+  }
+
+  /**
+   * Obtain the shared data of the default instance of a benchmark
+   * function of the given dimension and {@link Defaults#DEFAULT_M}. The
+   * data is created exactly as by the function's {@link Randomizer}-based
+   * constructor.
+   *
+   * @param c
+   *          the function class
+   * @param dim
+   *          the dimension
+   * @param min
+   *          the minimum value of the shift vector elements
+   * @param max
+   *          the maximum value of the shift vector elements
+   * @param kind
+   *          {@link #SHIFTED}, {@link #PERMUTATED}, or {@link #ROTATED}
+   * @return the shared instance data
+   */
+  static final InstanceData get(final Class<?> c, final int dim,
+      final double min, final double max, final int kind) {
+    final int m;
+
+    m = Defaults.DEFAULT_M;
+
+    return ((InstanceData) (lookup(c.getName() + '/' + dim + '/' + m,
+        new Callable<Object>() {
+          public final Object call() {
+            final Randomizer r;
+            final double[] o;
+            final int[] p;
+
+            r = Defaults.getRandomizer(c);
+            o = r.createShiftVector(dim, min, max);
+            if (kind == SHIFTED) {
+              return new InstanceData(o, null, null);
+            }
+            p = r.createPermVector(dim);
+            return new InstanceData(o, p,
+                ((kind == ROTATED) ? r.createRotMatrix1D(m) : null));
+          }
+        })));
+  }
+
+  /**
+   * Obtain the shared pure Java implementation of a CEC'2013 benchmark
+   * function. It is immutable and can be used by any number of threads.
+   *
+   * @param id
+   *          the number of the function, in 1..15
+   * @return the shared function
+   */
+  static final CEC2013Function getCEC2013(final int id) {
+    return ((CEC2013Function) (lookup("CEC2013/" + id, //$NON-NLS-1$
+        new Callable<Object>() {
+          public final Object call() {
+            return new CEC2013Function(id);
+          }
+        })));
+  }
+
+  /**
+   * Look up a registry entry, building it in the calling thread if it is
+   * not present yet. If building it fails, the entry is removed again so
+   * that the next request retries.
+   *
+   * @param key
+   *          the key
+   * @param builder
+   *          the builder of the entry
+   * @return the entry
+   */
+  private static final Object lookup(final String key,
+      final Callable<Object> builder) {
+    FutureTask<Object> f, g;
+
+    f = REGISTRY.get(key);
+    if (f == null) {
+      g = new FutureTask<Object>(builder);
+      f = REGISTRY.putIfAbsent(key, g);
+      if (f == null) {
+        f = g;
+        g.run();
+      }
+    }
+
+    try {
+      return f.get();
+    } catch (ExecutionException e) {
+      REGISTRY.remove(key, f);
+      throw new RuntimeException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+  }
+}
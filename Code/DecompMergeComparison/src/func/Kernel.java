@@ -47,11 +47,38 @@ final class Kernel {
     }
   }
 
+  /**
+   * Transpose a square rotation matrix. The rotated kernels walk the
+   * columns of the matrix in their inner loop; in the transposed matrix,
+   * these columns are contiguous rows.
+   * 
+   * @param m
+   *          the matrix
+   * @param dim
+   *          the width (and height) of the matrix
+   * @return the transposed matrix
+   */
+  static final double[] transpose(final double[] m, final int dim) {
+    final double[] t;
+    int i, j;
+
+    t = new double[dim * dim];
+    for (i = 0; i < dim; i++) {
+      for (j = 0; j < dim; j++) {
+        t[(i * dim) + j] = m[(j * dim) + i];
+      }
+    }
+
+    return t;
+  }
+
   /**
    * Compute the shifted sphere function
    * 
    * @param x
    *          the input vector
+   * @param xOff
+   *          the index of the first element of the input vector in x
    * @param o
    *          the global optimum
    * @param start
@@ -60,15 +87,15 @@ final class Kernel {
    *          the number of elements to consider in the computation
    * @return the result
    */
-  static final double shiftedSphere(final double[] x, final double[] o,
-      final int start, final int count) {
+  static final double shiftedSphere(final double[] x, final int xOff,
+      final double[] o, final int start, final int count) {
     int j;
     double s, z;
 
     s = 0d;
     j = (count - 1 + start);
     for (; j >= start; j--) {
-      z = (x[j] - o[j]);
+      z = (x[xOff + j] - o[j]);
       s += (z * z);
     }
 
@@ -80,6 +107,8 @@ final class Kernel {
    * 
    * @param x
    *          the input vector
+   * @param xOff
+   *          the index of the first element of the input vector in x
    * @param o
    *          the global optimum
    * @param P
@@ -90,7 +119,7 @@ final class Kernel {
    *          the number of elements to consider in the computation
    * @return the result
    */
-  static final double shiftedPermSphere(final double[] x,
+  static final double shiftedPermSphere(final double[] x, final int xOff,
       final double[] o, final int[] P, final int start, final int count) {
     int j, k;
     double s, z;
@@ -99,7 +128,7 @@ final class Kernel {
     j = (count - 1 + start);
     for (; j >= start; j--) {
       k = P[j];
-      z = (x[k] - o[k]);
+      z = (x[xOff + k] - o[k]);
       s += (z * z);
     }
 
@@ -168,6 +197,8 @@ final class Kernel {
    * 
    * @param x
    *          the input vector
+   * @param xOff
+   *          the index of the first element of the input vector in x
    * @param o
    *          the global optimum
    * @param start
@@ -176,10 +207,13 @@ final class Kernel {
    *          the number of elements to consider in the computation
    * @param lookup
    *          the lookup table
+   * @param lookupStart
+   *          the index in the lookup table of the first element
    * @return the result
    */
-  static final double shiftedElliptic(final double[] x, final double[] o,
-      final int start, final int count, final double[] lookup) {
+  static final double shiftedElliptic(final double[] x, final int xOff,
+      final double[] o, final int start, final int count,
+      final double[] lookup, final int lookupStart) {
     int i, j;
     // final double pow;
     double s, z;
@@ -189,8 +223,8 @@ final class Kernel {
     j = (i + start);
     // pow = (1d / i);
     for (; i >= 0; i--, j--) {
-      z = (x[j] - o[j]);
-      s += (/* Math.pow(1e6, i pow) */lookup[i] * z * z);
+      z = (x[xOff + j] - o[j]);
+      s += (/* Math.pow(1e6, i pow) */lookup[lookupStart + i] * z * z);
     }
 
     return s;
@@ -201,6 +235,8 @@ final class Kernel {
    * 
    * @param x
    *          the input vector
+   * @param xOff
+   *          the index of the first element of the input vector in x
    * @param o
    *          the global optimum
    * @param P
@@ -211,11 +247,13 @@ final class Kernel {
    *          the number of elements to consider in the computation
    * @param lookup
    *          the lookup table
+   * @param lookupStart
+   *          the index in the lookup table of the first element
    * @return the result
    */
-  static final double shiftedPermElliptic(final double[] x,
+  static final double shiftedPermElliptic(final double[] x, final int xOff,
       final double[] o, final int[] P, final int start, final int count,
-      final double[] lookup) {
+      final double[] lookup, final int lookupStart) {
     int i, j, k;
     // final double pow;
     double s, z;
@@ -226,24 +264,30 @@ final class Kernel {
     // pow = (1d / i);
     for (; i >= 0; i--, j--) {
       k = P[j];
-      z = (x[k] - o[k]);
-      s += (/* Math.pow(1e6, i pow) */lookup[i] * z * z);
+      z = (x[xOff + k] - o[k]);
+      s += (/* Math.pow(1e6, i pow) */lookup[lookupStart + i] * z * z);
     }
 
     return s;
   }
 
   /**
-   * Compute the shifted, permutated, and rotated elliptic function
+   * Compute the shifted, permutated, and rotated elliptic function. Four
+   * rows of the rotation are computed at once, so that each element of the
+   * shifted vector is loaded once for four rows, and the rotated values are
+   * fed into the function without being stored.
    * 
    * @param x
    *          the input vector
+   * @param xOff
+   *          the index of the first element of the input vector in x
    * @param o
    *          the global optimum
    * @param P
    *          the permutation
-   * @param M
-   *          the rotation matrix
+   * @param MT
+   *          the transposed rotation matrix, see
+   *          {@link #transpose(double[], int)}
    * @param start
    *          the start index
    * @param count
@@ -254,36 +298,46 @@ final class Kernel {
    *          the lookup table
    * @return the result
    */
-  static final double shiftedPermRotElliptic(final double[] x,
-      final double[] o, final int[] P, final double[] M, final int start,
+  static final double shiftedPermRotElliptic(final double[] x, final int xOff,
+      final double[] o, final int[] P, final double[] MT, final int start,
       final int count, final double[] z, final double[] lookup) {
-    final int upper, max;
-    int i, j, k;
+    int i, j, k, r;
     // final double pow;
-    double rz, s;
+    double rz0, rz1, rz2, rz3, zk, s;
 
     // compute z
-    i = upper = (count - 1);
-    j = (i + start);
-    for (; i >= 0; i--, j--) {
+    for (i = 0, j = start; i < count; i++, j++) {
       k = P[j];
-      z[i] = (x[k] - o[k]);
+      z[i] = (x[xOff + k] - o[k]);
     }
 
     // rotate and compute function at the same time:
-    max = (count * upper);
     // pow = (1d / upper);
     s = 0d;
-    for (i = upper; i >= 0; i--) {
+    for (i = 0, r = 0; i < (count - 3); i += 4, r += (count << 2)) {
 
       // rotate
-      rz = 0d;
-      for (k = upper, j = max + i; k >= 0; k--, j -= count) {
-        rz += (M[j] * z[k]);
+      rz0 = rz1 = rz2 = rz3 = 0d;
+      for (k = 0, j = r; k < count; k++, j++) {
+        zk = z[k];
+        rz0 += (MT[j] * zk);
+        rz1 += (MT[j + count] * zk);
+        rz2 += (MT[j + (count << 1)] * zk);
+        rz3 += (MT[j + (3 * count)] * zk);
       }
 
       // compute function
-      s += (/* Math.pow(1e6, i pow) */lookup[i] * rz * rz);
+      s += (/* Math.pow(1e6, i pow) */(lookup[i] * rz0 * rz0)
+          + (lookup[i + 1] * rz1 * rz1) + (lookup[i + 2] * rz2 * rz2)
+          + (lookup[i + 3] * rz3 * rz3));
+    }
+
+    for (; i < count; i++, r += count) {
+      rz0 = 0d;
+      for (k = 0, j = r; k < count; k++, j++) {
+        rz0 += (MT[j] * z[k]);
+      }
+      s += (lookup[i] * rz0 * rz0);
     }
 
     return s;
@@ -294,6 +348,8 @@ final class Kernel {
    * 
    * @param x
    *          the input vector
+   * @param xOff
+   *          the index of the first element of the input vector in x
    * @param o
    *          the global optimum
    * @param start
@@ -302,15 +358,15 @@ final class Kernel {
    *          the number of elements to consider in the computation
    * @return the result
    */
-  static final double shiftedRastrigin(final double[] x, final double[] o,
-      final int start, final int count) {
+  static final double shiftedRastrigin(final double[] x, final int xOff,
+      final double[] o, final int start, final int count) {
     int j;
     double s, z;
 
     s = 0d;
     j = (count - 1 + start);
     for (; j >= start; j--) {
-      z = (x[j] - o[j]);
+      z = (x[xOff + j] - o[j]);
       s += ((z * z) - (10d * Math.cos(TPI * z)) + 10d);
     }
 
@@ -322,6 +378,8 @@ final class Kernel {
    * 
    * @param x
    *          the input vector
+   * @param xOff
+   *          the index of the first element of the input vector in x
    * @param o
    *          the global optimum
    * @param P
@@ -332,7 +390,7 @@ final class Kernel {
    *          the number of elements to consider in the computation
    * @return the result
    */
-  static final double shiftedPermRastrigin(final double[] x,
+  static final double shiftedPermRastrigin(final double[] x, final int xOff,
       final double[] o, final int[] P, final int start, final int count) {
     int j, k;
     double s, z;
@@ -341,7 +399,7 @@ final class Kernel {
     j = (count - 1 + start);
     for (; j >= start; j--) {
       k = P[j];
-      z = (x[k] - o[k]);
+      z = (x[xOff + k] - o[k]);
       s += ((z * z) - (10d * Math.cos(TPI * z)) + 10d);
     }
 
@@ -349,16 +407,22 @@ final class Kernel {
   }
 
   /**
-   * Compute the shifted, permutated, and rotated rastrigin function
+   * Compute the shifted, permutated, and rotated rastrigin function. Four
+   * rows of the rotation are computed at once, so that each element of the
+   * shifted vector is loaded once for four rows, and the rotated values are
+   * fed into the function without being stored.
    * 
    * @param x
    *          the input vector
+   * @param xOff
+   *          the index of the first element of the input vector in x
    * @param o
    *          the global optimum
    * @param P
    *          the permutation
-   * @param M
-   *          the rotation matrix
+   * @param MT
+   *          the transposed rotation matrix, see
+   *          {@link #transpose(double[], int)}
    * @param start
    *          the start index
    * @param count
@@ -367,34 +431,45 @@ final class Kernel {
    *          a temporary array
    * @return the result
    */
-  static final double shiftedPermRotRastrigin(final double[] x,
-      final double[] o, final int[] P, final double[] M, final int start,
+  static final double shiftedPermRotRastrigin(final double[] x, final int xOff,
+      final double[] o, final int[] P, final double[] MT, final int start,
       final int count, final double[] z) {
-    final int upper, max;
-    int i, j, k;
-    double rz, s;
+    int i, j, k, r;
+    double rz0, rz1, rz2, rz3, zk, s;
 
     // compute z
-    i = upper = (count - 1);
-    j = (i + start);
-    for (; i >= 0; i--, j--) {
+    for (i = 0, j = start; i < count; i++, j++) {
       k = P[j];
-      z[i] = (x[k] - o[k]);
+      z[i] = (x[xOff + k] - o[k]);
     }
 
     // rotate and compute function at the same time:
-    max = (count * upper);
     s = 0d;
-    for (i = upper; i >= 0; i--) {
+    for (i = 0, r = 0; i < (count - 3); i += 4, r += (count << 2)) {
 
       // rotate
-      rz = 0d;
-      for (k = upper, j = max + i; k >= 0; k--, j -= count) {
-        rz += (M[j] * z[k]);
+      rz0 = rz1 = rz2 = rz3 = 0d;
+      for (k = 0, j = r; k < count; k++, j++) {
+        zk = z[k];
+        rz0 += (MT[j] * zk);
+        rz1 += (MT[j + count] * zk);
+        rz2 += (MT[j + (count << 1)] * zk);
+        rz3 += (MT[j + (3 * count)] * zk);
       }
 
       // compute function
-      s += ((rz * rz) - (10d * Math.cos(TPI * rz)) + 10d);
+      s += ((rz0 * rz0) - (10d * Math.cos(TPI * rz0)) + 10d);
+      s += ((rz1 * rz1) - (10d * Math.cos(TPI * rz1)) + 10d);
+      s += ((rz2 * rz2) - (10d * Math.cos(TPI * rz2)) + 10d);
+      s += ((rz3 * rz3) - (10d * Math.cos(TPI * rz3)) + 10d);
+    }
+
+    for (; i < count; i++, r += count) {
+      rz0 = 0d;
+      for (k = 0, j = r; k < count; k++, j++) {
+        rz0 += (MT[j] * z[k]);
+      }
+      s += ((rz0 * rz0) - (10d * Math.cos(TPI * rz0)) + 10d);
     }
 
     return s;
@@ -405,6 +480,8 @@ final class Kernel {
    * 
    * @param x
    *          the input vector
+   * @param xOff
+   *          the index of the first element of the input vector in x
    * @param o
    *          the global optimum
    * @param start
@@ -413,8 +490,8 @@ final class Kernel {
    *          the number of elements to consider in the computation
    * @return the result
    */
-  static final double shiftedAckley(final double[] x, final double[] o,
-      final int start, final int count) {
+  static final double shiftedAckley(final double[] x, final int xOff,
+      final double[] o, final int start, final int count) {
     int j;
     double s1, s2, z;
 
@@ -422,7 +499,7 @@ final class Kernel {
     s2 = 0d;
     j = (count - 1 + start);
     for (; j >= start; j--) {
-      z = (x[j] - o[j]);
+      z = (x[xOff + j] - o[j]);
       s1 += (z * z);
       s2 += Math.cos(TPI * z);
     }
@@ -469,6 +546,8 @@ final class Kernel {
    * 
    * @param x
    *          the input vector
+   * @param xOff
+   *          the index of the first element of the input vector in x
    * @param o
    *          the global optimum
    * @param P
@@ -479,7 +558,7 @@ final class Kernel {
    *          the number of elements to consider in the computation
    * @return the result
    */
-  static final double shiftedPermAckley(final double[] x,
+  static final double shiftedPermAckley(final double[] x, final int xOff,
       final double[] o, final int[] P, final int start, final int count) {
     int j, k;
     double s1, s2, z;
@@ -489,7 +568,7 @@ final class Kernel {
     j = (count - 1 + start);
     for (; j >= start; j--) {
       k = P[j];
-      z = (x[k] - o[k]);
+      z = (x[xOff + k] - o[k]);
       s1 += (z * z);
       s2 += Math.cos(TPI * z);
     }
@@ -502,16 +581,22 @@ final class Kernel {
   }
 
   /**
-   * Compute the shifted, permutated, and rotated ackley's function
+   * Compute the shifted, permutated, and rotated ackley's function. Four
+   * rows of the rotation are computed at once, so that each element of the
+   * shifted vector is loaded once for four rows, and the rotated values are
+   * fed into the function without being stored.
    * 
    * @param x
    *          the input vector
+   * @param xOff
+   *          the index of the first element of the input vector in x
    * @param o
    *          the global optimum
    * @param P
    *          the permutation
-   * @param M
-   *          the rotation matrix
+   * @param MT
+   *          the transposed rotation matrix, see
+   *          {@link #transpose(double[], int)}
    * @param start
    *          the start index
    * @param count
@@ -520,36 +605,46 @@ final class Kernel {
    *          a temporary array
    * @return the result
    */
-  static final double shiftedPermRotAckley(final double[] x,
-      final double[] o, final int[] P, final double[] M, final int start,
+  static final double shiftedPermRotAckley(final double[] x, final int xOff,
+      final double[] o, final int[] P, final double[] MT, final int start,
       final int count, final double[] z) {
-    final int upper, max;
-    int i, j, k;
-    double rz, s1, s2;
+    int i, j, k, r;
+    double rz0, rz1, rz2, rz3, zk, s1, s2;
 
     // compute z
-    i = upper = (count - 1);
-    j = (i + start);
-    for (; i >= 0; i--, j--) {
+    for (i = 0, j = start; i < count; i++, j++) {
       k = P[j];
-      z[i] = (x[k] - o[k]);
+      z[i] = (x[xOff + k] - o[k]);
     }
 
     // rotate and compute function at the same time:
-    max = (count * upper);
     s1 = 0d;
     s2 = 0d;
-    for (i = upper; i >= 0; i--) {
+    for (i = 0, r = 0; i < (count - 3); i += 4, r += (count << 2)) {
 
       // rotate
-      rz = 0d;
-      for (k = upper, j = max + i; k >= 0; k--, j -= count) {
-        rz += (M[j] * z[k]);
+      rz0 = rz1 = rz2 = rz3 = 0d;
+      for (k = 0, j = r; k < count; k++, j++) {
+        zk = z[k];
+        rz0 += (MT[j] * zk);
+        rz1 += (MT[j + count] * zk);
+        rz2 += (MT[j + (count << 1)] * zk);
+        rz3 += (MT[j + (3 * count)] * zk);
       }
 
       // compute function
-      s1 += (rz * rz);
-      s2 += Math.cos(TPI * rz);
+      s1 += ((rz0 * rz0) + (rz1 * rz1) + (rz2 * rz2) + (rz3 * rz3));
+      s2 += (Math.cos(TPI * rz0) + Math.cos(TPI * rz1)
+          + Math.cos(TPI * rz2) + Math.cos(TPI * rz3));
+    }
+
+    for (; i < count; i++, r += count) {
+      rz0 = 0d;
+      for (k = 0, j = r; k < count; k++, j++) {
+        rz0 += (MT[j] * z[k]);
+      }
+      s1 += (rz0 * rz0);
+      s2 += Math.cos(TPI * rz0);
     }
 
     return /*
@@ -564,6 +659,8 @@ final class Kernel {
    * 
    * @param x
    *          the input vector
+   * @param xOff
+   *          the index of the first element of the input vector in x
    * @param o
    *          the global optimum
    * @param start
@@ -572,7 +669,7 @@ final class Kernel {
    *          the number of elements to consider in the computation
    * @return the result
    */
-  static final double shiftedSchwefel12(final double[] x,
+  static final double shiftedSchwefel12(final double[] x, final int xOff,
       final double[] o, final int start, final int count) {
     int j;
     final int end;
@@ -582,7 +679,7 @@ final class Kernel {
     s2 = 0d;
     end = (start + count);
     for (j = start; j < end; j++) {
-      z = (x[j] - o[j]);
+      z = (x[xOff + j] - o[j]);
       s1 += z;
       s2 += (s1 * s1);
     }
@@ -595,6 +692,8 @@ final class Kernel {
    * 
    * @param x
    *          the input vector
+   * @param xOff
+   *          the index of the first element of the input vector in x
    * @param o
    *          the global optimum
    * @param P
@@ -605,7 +704,7 @@ final class Kernel {
    *          the number of elements to consider in the computation
    * @return the result
    */
-  static final double shiftedPermSchwefel12(final double[] x,
+  static final double shiftedPermSchwefel12(final double[] x, final int xOff,
       final double[] o, final int[] P, final int start, final int count) {
     int j, k;
     final int end;
@@ -616,7 +715,7 @@ final class Kernel {
     end = (start + count);
     for (j = start; j < end; j++) {
       k = P[j];
-      z = (x[k] - o[k]);
+      z = (x[xOff + k] - o[k]);
       s1 += z;
       s2 += (s1 * s1);
     }
@@ -686,6 +785,8 @@ final class Kernel {
    * 
    * @param x
    *          the input vector
+   * @param xOff
+   *          the index of the first element of the input vector in x
    * @param o
    *          the global optimum
    * @param start
@@ -694,18 +795,18 @@ final class Kernel {
    *          the number of elements to consider in the computation
    * @return the result
    */
-  static final double shiftedRosenbrock(final double[] x,
+  static final double shiftedRosenbrock(final double[] x, final int xOff,
       final double[] o, final int start, final int count) {
     int j;
     double s, z, oz, t;
 
     j = (count + start - 1);
-    z = (x[j] - o[j]);
+    z = (x[xOff + j] - o[j]);
     s = 0d;
 
     for (--j; j >= start; j--) {
       oz = z;
-      z = (x[j] - o[j]);
+      z = (x[xOff + j] - o[j]);
 
       t = ((z * z) - oz);
       s += (100d * t * t);
@@ -722,6 +823,8 @@ final class Kernel {
    * 
    * @param x
    *          the input vector
+   * @param xOff
+   *          the index of the first element of the input vector in x
    * @param o
    *          the global optimum
    * @param P
@@ -732,7 +835,7 @@ final class Kernel {
    *          the number of elements to consider in the computation
    * @return the result
    */
-  static final double shiftedPermRosenbrock(final double[] x,
+  static final double shiftedPermRosenbrock(final double[] x, final int xOff,
       final double[] o, final int[] P, final int start, final int count) {
     int j, k;
     double s, z, oz, t;
@@ -741,12 +844,12 @@ final class Kernel {
     j = (count + start - 1);
 
     k = P[j];
-    z = (x[k] - o[k]);
+    z = (x[xOff + k] - o[k]);
 
     for (--j; j >= start; j--) {
       oz = z;
       k = P[j];
-      z = (x[k] - o[k]);
+      z = (x[xOff + k] - o[k]);
 
       t = ((z * z) - oz);
       s += (100d * t * t);
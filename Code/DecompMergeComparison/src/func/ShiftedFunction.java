@@ -46,7 +46,7 @@ public abstract class ShiftedFunction extends Function {
    */
   // @Override
   public double[] getOptimum() {
-    return this.m_o;
+    return ((double[]) (this.m_o.clone()));
   }
 
   /**
@@ -55,7 +55,7 @@ public abstract class ShiftedFunction extends Function {
    * @return the shift vector of the benchmark function
    */
   public final double[] getShiftVector() {
-    return this.m_o;
+    return ((double[]) (this.m_o.clone()));
   }
 
   /**
@@ -47,7 +47,7 @@ public abstract class ShiftedPermutatedFunction extends ShiftedFunction {
    * @return the permutation of the benchmark function
    */
   public final int[] getPermutationVector() {
-    return this.m_p;
+    return ((int[]) (this.m_p.clone()));
   }
 
   /**
@@ -25,12 +25,15 @@ public abstract class ShiftedPermutatedRotatedFunction extends
   /** the rotation matrix */
   protected final double[] m_m;
 
+  /**
+   * the rotation matrix in the layout read by the rotated kernels, i.e.,
+   * transposed
+   */
+  protected final double[] m_mt;
+
   /** the rotation matrix' dimension */
   protected final int m_matDim;
 
-  /** a temporary vector, at least of the same length as the matrix is wide */
-  protected double[] m_tmp;
-
   /**
    * Create a new shifted function
    * 
@@ -50,7 +53,7 @@ public abstract class ShiftedPermutatedRotatedFunction extends
     super(o, p, min, max);
     this.m_m = m;
     this.m_matDim = getMatrixDim(m);
-    this.m_tmp = this.createTmp(this.m_matDim);
+    this.m_mt = Kernel.transpose(m, this.m_matDim);
   }
 
   /**
@@ -65,32 +68,15 @@ public abstract class ShiftedPermutatedRotatedFunction extends
   }
 
   /**
-   * Create the temporary vector
-   * 
-   * @param w
-   *          the width (and height) of the rotation matrix
-   * @return the temporary vector. must be at least of length w but can be
-   *         longer
-   */
-  protected double[] createTmp(final int w) {
-    return new double[w];
-  }
-
-  /**
-   * Clone this rotated function: Ensures that each rotated function has an
-   * own temporary variable. This is needed if multiple threads are used
-   * -&gt; in this case, each thread has to use its own instance of the
-   * function!
+   * Obtain the temporary vector of the current thread. Rotated functions
+   * keep no temporary vector of their own, so an instance can be shared
+   * by multiple threads.
    * 
-   * @return a clone of this function
+   * @return the temporary vector, at least of the same length as the
+   *         matrix is wide
    */
-  // @Override
-  public Object clone() {
-    ShiftedPermutatedRotatedFunction f;
-
-    f = ((ShiftedPermutatedRotatedFunction) (this.internalClone()));
-    f.m_tmp = f.createTmp((int) (0.9d + Math.sqrt(f.m_m.length)));
-    return f;
+  protected final double[] getTmp() {
+    return Workspace.get().getTmp(this.m_matDim);
   }
 
   /**
@@ -99,7 +85,7 @@ public abstract class ShiftedPermutatedRotatedFunction extends
    * @return the rotation matrix of the benchmark function
    */
   public final double[] getRotationMatrix() {
-    return this.m_m;
+    return ((double[]) (this.m_m.clone()));
   }
 
   /**
@@ -245,8 +245,12 @@ public final class Utils {
   public static final int[] loadPermVector(final InputStream in) {
     BufferedReader r;
     int[] buf, tmp;
-    int fill, d;
+    int fill, d, i;
+    String[] ss;
     String s;
+    final Pattern p;
+
+    p = Pattern.compile(" "); //$NON-NLS-1$
 
     try {
       buf = new int[1000];
@@ -255,20 +259,30 @@ public final class Utils {
 
       try {
 
-        while ((s = r.readLine()) != null) {
+        outer: while ((s = r.readLine()) != null) {
           s = s.trim();
           if (s.length() <= 0) {
-            continue;
+            continue outer;
           }
 
-          d = Integer.parseInt(s);
-          if (fill >= buf.length) {
-            tmp = new int[fill << 1];
-            System.arraycopy(buf, 0, tmp, 0, fill);
-            buf = tmp;
-          }
+          // the CEC'2013 data files hold the whole vector on one line
+          ss = p.split(s.replace(',', ' ').replace('\t', ' '));
 
-          buf[fill++] = (d - 1);
+          inner: for (i = 0; i < ss.length; i++) {
+            s = ss[i].trim();
+            if (s.length() <= 0) {
+              continue inner;
+            }
+
+            d = Integer.parseInt(s);
+            if (fill >= buf.length) {
+              tmp = new int[fill << 1];
+              System.arraycopy(buf, 0, tmp, 0, fill);
+              buf = tmp;
+            }
+
+            buf[fill++] = (d - 1);
+          }
         }
 
       } finally {
@@ -414,7 +428,8 @@ public final class Utils {
             continue outer;
           }
 
-          s = s.replace('\t', ' ').replace('\f', ' ').replace('\b', ' ');
+          s = s.replace('\t', ' ').replace('\f', ' ').replace('\b', ' ')
+              .replace(',', ' ');
           ss = p.split(s);
 
           l = ss.length;
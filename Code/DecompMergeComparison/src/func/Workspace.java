@@ -0,0 +1,86 @@
+package func;
+
+/*
+ * Not part of the CEC'2010 benchmark code of Thomas Weise. Like the rest
+ * of the project outside of that code, it is distributed under the MIT
+ * license, see the LICENSE file.
+ */
+
+/**
+ * The temporary vectors used while a benchmark function is evaluated. The
+ * functions themselves keep no such mutable state: every thread obtains
+ * its own workspace via {@link #get()}, so that a single function instance
+ * can be shared by any number of threads. The vectors grow on demand and
+ * are reused by all later evaluations on the same thread, regardless of
+ * which function instance is evaluated.
+ */
+final class Workspace {
+
+  /** the workspace of each thread */
+  private static final ThreadLocal<Workspace> LOCAL = //
+  new ThreadLocal<Workspace>() {
+    // @Override
+    protected final Workspace initialValue() {
+      return new Workspace();
+    }
+  };
+
+  /** the first temporary vector */
+  private double[] m_tmp;
+
+  /** the second temporary vector */
+  private double[] m_tmp2;
+
+  /** create a new workspace */
+  private Workspace() {
+    super();
+    this.m_tmp = new double[0];
+    this.m_tmp2 = this.m_tmp;
+  }
+
+  /**
+   * Obtain the workspace of the current thread
+   *
+   * @return the workspace of the current thread
+   */
+  static final Workspace get() {
+    return LOCAL.get();
+  }
+
+  /**
+   * Obtain the first temporary vector. Its contents are undefined and
+   * will be overwritten by the next evaluation on this thread.
+   *
+   * @param length
+   *          the minimum length of the vector
+   * @return a vector of at least the given length
+   */
+  final double[] getTmp(final int length) {
+    double[] d;
+
+    d = this.m_tmp;
+    if (d.length < length) {
+      this.m_tmp = d = new double[length];
+    }
+    return d;
+  }
+
+  /**
+   * Obtain the second temporary vector, which is distinct from the first
+   * one. Its contents are undefined and will be overwritten by the next
+   * evaluation on this thread.
+   *
+   * @param length
+   *          the minimum length of the vector
+   * @return a vector of at least the given length
+   */
+  final double[] getTmp2(final int length) {
+    double[] d;
+
+    d = this.m_tmp2;
+    if (d.length < length) {
+      this.m_tmp2 = d = new double[length];
+    }
+    return d;
+  }
+}
@@ -33,6 +33,9 @@ import utils.ClassLoaderHelper;
 
 /**
  * JNI connection class for interfacing the CEC 2013 LSGO C-functions.
+ * The algorithms evaluate the pure Java func.CEC2013Function instead, so no
+ * evaluation of a run crosses JNI. This class is only used by
+ * func.CEC2013Tester to check the Java results against the C-functions.
  */
 public class JNIfgeneric2013 {
 
@@ -55,20 +58,27 @@ public class JNIfgeneric2013 {
 	private native void exitCEC2013(long fcnPointer);
 	private native double evaluate(long fcnPointer, double[] X);
 
-	private long fcnPointer;
+	private long fcnPointer; // 0 once the native state is released
 	
 	public JNIfgeneric2013(int funcId, int dim)
 	{
 		fcnPointer = initCEC2013(funcId, dim);
     }
 	
+	/** Releases the native state, calling it again has no effect. */
 	public void destroy()
 	{
-		exitCEC2013(fcnPointer);
+		if(fcnPointer != 0)
+		{
+			exitCEC2013(fcnPointer);
+			fcnPointer = 0;
+		}
     }
 	
 	public double evaluate(double[] x)
 	{
+		if(fcnPointer == 0)
+			throw new IllegalStateException("The native function was destroyed");
 		return evaluate(fcnPointer, x);
     }
 }
\ No newline at end of file
@@ -29,83 +29,80 @@ either expressed or implied, of the FreeBSD Project.
 
 package utils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
 import java.net.URLDecoder;
 import java.util.Enumeration;
-import java.util.Random;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
+import java.util.zip.CRC32;
 
 //import com.sun.servicetag.SystemEnvironment;
 
 /**
  * This class provides an utility function to dynamically load native libraries 
  * contained into a jar file.
+ * 
+ * Extracted files are kept between launches: a file is only written again when
+ * its size or CRC-32 differs from the packaged one. Files are written to a
+ * temporary name and renamed into place, so concurrent JVMs never see a
+ * partially written file.
  */
 public class ClassLoaderHelper
 {
 	public static final ClassLoader loader = ClassLoaderHelper.class.getClassLoader();
 
-	private static final boolean forceReload = true;
+	private static final int BUFFER_SIZE = 8192;
 	
 	public static void loadFolderFromJar(String path) throws Exception
 	{
-		InputStream in = null;
-		FileOutputStream fos = null;
-
 		try
 		{
 			URL url = loader.getResource(path);
 			if (url != null)
 			{
+				File dir = new File("cdatafiles");
+				dir.mkdirs();
+				
 				if (url.getPath().contains("!"))
 				{
-					// from jar				
+					// from jar, the entries carry the CRC-32 of their content
 					String jarPath = url.getPath().substring(5, url.getPath().indexOf("!")); //strip out only the JAR file
 					JarFile jar = new JarFile(URLDecoder.decode(jarPath, "UTF-8"));
-					Enumeration<JarEntry> entries = jar.entries(); //gives ALL entries in jar
-					while(entries.hasMoreElements()) {
-						String name = entries.nextElement().getName();
-						String fileName = new File(name).getName();
-						if (name.startsWith(path) && !name.endsWith(File.separator)) { //filter according to the path
-							in = loader.getResourceAsStream(name);
-
-							File temp = new File("cdatafiles" + File.separator + fileName);
-							temp.getParentFile().mkdirs(); 
-							temp.createNewFile();
-							fos = new FileOutputStream(temp);
-
-							byte[] buffer = new byte[1024];
-							int read = -1;
-
-							while ((read = in.read(buffer)) != -1)
-								fos.write(buffer, 0, read);
+					try
+					{
+						Enumeration<JarEntry> entries = jar.entries(); //gives ALL entries in jar
+						while(entries.hasMoreElements()) {
+							JarEntry entry = entries.nextElement();
+							String name = entry.getName();
+							if (name.startsWith(path) && !entry.isDirectory()) { //filter according to the path
+								File target = new File(dir, new File(name).getName());
+								if (!isUpToDate(target, entry.getSize(), entry.getCrc()))
+									extract(jar.getInputStream(entry), target);
+							}
 						}
 					}
+					finally
+					{
+						jar.close();
+					}
 				}
 				else
 				{
 					// from eclipse
-					File dir = new File(url.getPath());
-				    for (File nextFile : dir.listFiles())
+					File source = new File(url.getPath());
+				    for (File nextFile : source.listFiles())
 				    {
-						in = new FileInputStream(nextFile.toString());
-
-						File temp = new File("cdatafiles" + File.separator + nextFile.getName());
-						temp.getParentFile().mkdirs(); 
-						temp.createNewFile();
-						fos = new FileOutputStream(temp);
-
-						byte[] buffer = new byte[1024];
-						int read = -1;
-
-						while ((read = in.read(buffer)) != -1)
-							fos.write(buffer, 0, read);
+						File target = new File(dir, nextFile.getName());
+						if (!target.isFile() || target.length() != nextFile.length() || checksum(target) != checksum(nextFile))
+							extract(new FileInputStream(nextFile), target);
 				    }
 				}
 			}
@@ -114,28 +111,20 @@ public class ClassLoaderHelper
 		{
 			e.printStackTrace();
 		}
-		finally
-		{
-			if (fos != null)
-				fos.close();
-			if (in != null)
-				in.close();
-		}
 	}
 	
 	/**
 	 * Loads a native library contained into a jar file.
 	 * 
+	 * The library is extracted to the temporary directory under a name that
+	 * contains the CRC-32 of its content, so every build of the library has its
+	 * own file and an existing one can be loaded without writing it again.
+	 * 
 	 * @param name the name of the native library.
 	 * @throws IOException
 	 */
 	public static void loadNativeLibraryFromJar(String name) throws Exception
 	{
-		boolean libraryLoaded = false;
-		
-		int trials = 600; // 600 x 100 ms = 60 seconds
-		int i = 0;
-		
 		// build the platform-dependent name of the native library
 		String architecture = "";
 		String osName = "";
@@ -183,82 +172,101 @@ public class ClassLoaderHelper
 			name += ".so.1.0.1";
 		}
 		
-		String nameMangling;
+		// read the native library from jar file
+		InputStream in = loader.getResourceAsStream("lib" + File.separator + archLibDir + File.separator + name);
+		if (in == null)
+			throw new UnsatisfiedLinkError("Native library " + name + " for " + archLibDir + " not found");
 		
-		// hack: try multiple times to load the native library
-		while (!libraryLoaded && i < trials)
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try
 		{
-			// create a random mangling
-			long time = System.currentTimeMillis();
-			long random = new Random(time).nextLong();
-			nameMangling = name + "-" + (long)(time + random);
-			
-			File temp = null;
-			InputStream in = null;
-			FileOutputStream fos = null;
-			
-			try
-			{
-				// create a temporary file to store the native library
-				temp = new File(new File(System.getProperty("java.io.tmpdir")), nameMangling);
-				// force its deletion at jvm shutdown
-				temp.deleteOnExit();
-				
-				if (!temp.exists() || temp.length() == 0 || forceReload)
-				{
-					// read the native library from jar file
-					in = loader.getResourceAsStream("lib" + File.separator + archLibDir + File.separator + name);
-
-					// save the native library to the temporary file
-					fos = new FileOutputStream(temp);
-					
-					byte[] buffer = new byte[1024];
-					int read = -1;
+			copy(in, bytes);
+		}
+		finally
+		{
+			in.close();
+		}
+		byte[] library = bytes.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(library);
+		
+		File temp = new File(new File(System.getProperty("java.io.tmpdir")), name + "-" + Long.toHexString(crc.getValue()));
+		if (!isUpToDate(temp, library.length, crc.getValue()))
+			extract(new ByteArrayInputStream(library), temp);
+		
+		System.load(temp.getAbsolutePath());
+	}
+	
+	/**
+	 * Checks whether a file has the given size and CRC-32, a CRC-32 of -1 means
+	 * unknown and the file is treated as outdated.
+	 */
+	private static boolean isUpToDate(File file, long size, long crc) throws IOException
+	{
+		return crc != -1 && file.isFile() && file.length() == size && checksum(file) == crc;
+	}
+	
+	private static long checksum(File file) throws IOException
+	{
+		CRC32 crc = new CRC32();
+		InputStream in = new FileInputStream(file);
+		try
+		{
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int read = -1;
 
-					while ((read = in.read(buffer)) != -1)
-						fos.write(buffer, 0, read);
-				}
-				
-				// try to load the native library
-				if (temp.exists() && temp.length() > 0)
-				{
-					try
-					{
-						System.load(temp.getAbsolutePath());
-						libraryLoaded = true;
-					}
-					catch (UnsatisfiedLinkError ule)
-					{
-						libraryLoaded = false;
-						// throw the exception only if the loader failed all the times
-						if (i == trials)
-							throw ule;
-					}
-				}
-			}
-			catch (Exception e)
+			while ((read = in.read(buffer)) != -1)
+				crc.update(buffer, 0, read);
+		}
+		finally
+		{
+			in.close();
+		}
+		return crc.getValue();
+	}
+	
+	/**
+	 * Writes the stream to a temporary file next to the target and renames it to
+	 * the target, closing the stream.
+	 */
+	private static void extract(InputStream in, File target) throws IOException
+	{
+		File temp = null;
+		try
+		{
+			temp = File.createTempFile(target.getName() + "-", ".part", target.getAbsoluteFile().getParentFile());
+			FileOutputStream fos = new FileOutputStream(temp);
+			try
 			{
-				libraryLoaded = false;
-				// throw the exception only if the loader failed all the times
-				if (i == trials)
-					throw e;
+				copy(in, fos);
 			}
 			finally
 			{
-				if (fos != null)
-					fos.close();
-				if (in != null)
-					in.close();
+				fos.close();
 			}
 			
-			try
+			if (!temp.renameTo(target))
 			{
-				//Thread.yield();
-				Thread.sleep(100);
+				// Windows does not rename onto an existing file, which another JVM may have just extracted
+				target.delete();
+				if (!temp.renameTo(target) && !target.isFile())
+					throw new IOException("Cannot rename " + temp + " to " + target);
 			}
-			catch (Exception e) {}
-
-			i++;
 		}
+		finally
+		{
+			in.close();
+			if (temp != null)
+				temp.delete(); // only left over when the rename failed
+		}
+	}
+	
+	private static void copy(InputStream in, OutputStream out) throws IOException
+	{
+		byte[] buffer = new byte[BUFFER_SIZE];
+		int read = -1;
+
+		while ((read = in.read(buffer)) != -1)
+			out.write(buffer, 0, read);
 	}
-}
\ No newline at end of file
+}